@@ -21,6 +21,7 @@ import com.bumptech.glide.load.engine.EngineResource;
 import com.bumptech.glide.load.engine.Resource;
 import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
 import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.LowResBitmapCache;
 import com.bumptech.glide.load.engine.cache.MemoryCache;
 import com.bumptech.glide.load.model.GenericLoaderFactory;
 import com.bumptech.glide.load.model.GlideUrl;
@@ -43,6 +44,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.robolectric.Robolectric;
@@ -70,6 +72,7 @@ import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.notNull;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -190,6 +193,50 @@ public class GlideTest {
         verify(memoryCache).trimMemory(eq(level));
     }
 
+    @Test
+    public void testClearMemoryClearsLowResCacheWithoutCopyingEvictedBitmaps() {
+        BitmapPool bitmapPool = mock(BitmapPool.class);
+        MemoryCache memoryCache = mock(MemoryCache.class);
+        LowResBitmapCache lowResCache = mock(LowResBitmapCache.class);
+
+        Glide glide = new GlideBuilder(getContext())
+                .setBitmapPool(bitmapPool)
+                .setMemoryCache(memoryCache)
+                .setLowResBitmapCache(lowResCache)
+                .createGlide();
+
+        glide.clearMemory();
+
+        InOrder order = inOrder(lowResCache, memoryCache);
+        order.verify(lowResCache).suspend();
+        order.verify(lowResCache).clearMemory();
+        order.verify(memoryCache).clearMemory();
+        order.verify(lowResCache).resume();
+    }
+
+    @Test
+    public void testTrimMemoryTrimsLowResCacheWithoutCopyingEvictedBitmaps() {
+        BitmapPool bitmapPool = mock(BitmapPool.class);
+        MemoryCache memoryCache = mock(MemoryCache.class);
+        LowResBitmapCache lowResCache = mock(LowResBitmapCache.class);
+
+        Glide glide = new GlideBuilder(getContext())
+                .setBitmapPool(bitmapPool)
+                .setMemoryCache(memoryCache)
+                .setLowResBitmapCache(lowResCache)
+                .createGlide();
+
+        final int level = 123;
+
+        glide.trimMemory(level);
+
+        InOrder order = inOrder(lowResCache, memoryCache);
+        order.verify(lowResCache).suspend();
+        order.verify(lowResCache).trimMemory(eq(level));
+        order.verify(memoryCache).trimMemory(eq(level));
+        order.verify(lowResCache).resume();
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void testGenericLoader() throws Exception {
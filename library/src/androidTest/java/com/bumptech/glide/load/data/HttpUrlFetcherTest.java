@@ -11,6 +11,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.concurrent.Executor;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
@@ -36,7 +37,13 @@ public class HttpUrlFetcherTest {
 
         glideUrl = mock(GlideUrl.class);
         when(glideUrl.toURL()).thenReturn(url);
-        fetcher = new HttpUrlFetcher(glideUrl, connectionFactory);
+        Executor directExecutor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+        fetcher = new HttpUrlFetcher(glideUrl, connectionFactory, directExecutor);
         stream = mock(InputStream.class);
         when(urlConnection.getInputStream()).thenReturn(stream);
         when(urlConnection.getResponseCode()).thenReturn(200);
@@ -89,10 +96,17 @@ public class HttpUrlFetcherTest {
     }
 
     @Test
-    public void testCancelDoesNotDisconnectIfAlreadyConnected() throws Exception {
+    public void testCancelDisconnectsIfAlreadyConnected() throws Exception {
         fetcher.loadData(Priority.HIGH);
         fetcher.cancel();
 
+        verify(urlConnection).disconnect();
+    }
+
+    @Test
+    public void testCancelDoesNotDisconnectIfNotStarted() throws Exception {
+        fetcher.cancel();
+
         verify(urlConnection, never()).disconnect();
     }
 
@@ -0,0 +1,35 @@
+package com.bumptech.glide.load.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class ComponentIdsTest {
+
+    @Test
+    public void testReturnsNoneForNullId() {
+        assertEquals(ComponentIds.NONE, ComponentIds.intern(null));
+    }
+
+    @Test
+    public void testReturnsSameValueForEqualIds() {
+        assertEquals(ComponentIds.intern("ComponentIdsTest.equal"),
+                ComponentIds.intern(new String("ComponentIdsTest.equal")));
+    }
+
+    @Test
+    public void testReturnsDifferentValuesForDifferentIds() {
+        int first = ComponentIds.intern("ComponentIdsTest.first");
+        int second = ComponentIds.intern("ComponentIdsTest.second");
+
+        assertNotEquals(first, second);
+        assertNotEquals(ComponentIds.NONE, first);
+        assertNotEquals(ComponentIds.NONE, second);
+    }
+
+    @Test
+    public void testDistinguishesEmptyIdFromMissingComponent() {
+        assertNotEquals(ComponentIds.NONE, ComponentIds.intern(""));
+    }
+}
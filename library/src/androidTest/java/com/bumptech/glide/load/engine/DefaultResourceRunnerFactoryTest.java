@@ -47,8 +47,8 @@ public class DefaultResourceRunnerFactoryTest {
         int width = 100;
         int height = 100;
 
-        DefaultResourceRunnerFactory factory = new DefaultResourceRunnerFactory(diskCache,
-                mainHandler, diskCacheService, resizeService);
+        DefaultResourceRunnerFactory factory = new DefaultResourceRunnerFactory(diskCache, mainHandler,
+                diskCacheService, resizeService, new StageTimings(), EngineConfig.DEFAULT);
 
         ResourceDecoder<File, Object> cacheDecoder = mock(ResourceDecoder.class);
         DataFetcher<Object> fetcher = mock(DataFetcher.class);
@@ -190,6 +190,60 @@ public class EngineJobTest {
         verify(harness.resource).recycle();
     }
 
+    @Test
+    public void testRecyclesResourceInsteadOfNotifyingIfReadyWithoutCallbacks() {
+        EngineJob job = harness.getJob();
+        job.removeCallback(harness.cb);
+        job.onResourceReady(harness.resource);
+
+        verify(harness.resource).recycle();
+        verify(harness.listener, never()).onEngineJobComplete(any(Key.class), any(EngineResource.class));
+    }
+
+    @Test
+    public void testTreatsJobWithoutCallbacksAsCancelledWhenReady() {
+        EngineJob job = new EngineJob(harness.key, harness.mainHandler, harness.isCacheable, false /*isThreadSafe*/,
+                harness.listener, mock(EngineJob.EngineResourceFactory.class));
+        job.onResourceReady(harness.resource);
+
+        assertTrue(job.isCancelled());
+        verify(harness.resource).recycle();
+        verify(harness.listener).onEngineJobCancelled(eq(job), eq(harness.key));
+    }
+
+    @Test
+    public void testDoesNotNotifyExceptionIfFailsWithoutCallbacks() {
+        EngineJob job = new EngineJob(harness.key, harness.mainHandler, harness.isCacheable, false /*isThreadSafe*/,
+                harness.listener, mock(EngineJob.EngineResourceFactory.class));
+        job.onException(new IOException("test"));
+
+        verify(harness.listener, never()).onEngineJobComplete(any(Key.class), any(EngineResource.class));
+    }
+
+    @Test
+    public void testRecyclesResourceIfLastCallbackIsRemovedOnBackgroundThreadBeforeDelivery()
+            throws InterruptedException {
+        ShadowLooper shadowLooper = Robolectric.shadowOf(harness.mainHandler.getLooper());
+        shadowLooper.pause();
+        final EngineJob job = harness.getThreadSafeJob();
+
+        job.onResourceReady(harness.resource);
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                job.removeCallback(harness.cb);
+            }
+        });
+        thread.start();
+        thread.join();
+        shadowLooper.runOneTask();
+
+        verify(harness.resource).recycle();
+        verify(harness.cb, never()).onResourceReady(any(Resource.class));
+        verify(harness.listener, times(1)).onEngineJobCancelled(eq(job), eq(harness.key));
+        verify(harness.listener, never()).onEngineJobComplete(any(Key.class), any(EngineResource.class));
+    }
+
     @Test
     public void testDoesNotAcquireOnceForMemoryCacheIfNotCacheable() {
         harness.isCacheable = false;
@@ -212,7 +266,7 @@ public class EngineJobTest {
 
         public MultiCbHarness() {
             when(factory.build(eq(resource))).thenReturn(engineResource);
-            job = new EngineJob(key, mainHandler, isCacheable, listener, factory);
+            job = new EngineJob(key, mainHandler, isCacheable, false /*isThreadSafe*/, listener, factory);
             for (int i = 0; i < numCbs; i++) {
                 cbs.add(mock(ResourceCallback.class));
             }
@@ -236,7 +290,15 @@ public class EngineJobTest {
         public EngineJob getJob() {
             EngineJob.EngineResourceFactory factory = mock(EngineJob.EngineResourceFactory.class);
             when(factory.build(eq(resource))).thenReturn(engineResource);
-            EngineJob result = new EngineJob(key, mainHandler, isCacheable, listener, factory);
+            EngineJob result = new EngineJob(key, mainHandler, isCacheable, false /*isThreadSafe*/, listener, factory);
+            result.addCallback(cb);
+            return result;
+        }
+
+        public EngineJob getThreadSafeJob() {
+            EngineJob.EngineResourceFactory factory = mock(EngineJob.EngineResourceFactory.class);
+            when(factory.build(eq(resource))).thenReturn(engineResource);
+            EngineJob result = new EngineJob(key, mainHandler, isCacheable, true /*isThreadSafe*/, listener, factory);
             result.addCallback(cb);
             return result;
         }
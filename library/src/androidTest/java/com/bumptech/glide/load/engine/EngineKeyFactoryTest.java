@@ -0,0 +1,61 @@
+package com.bumptech.glide.load.engine;
+
+import com.bumptech.glide.load.Transformation;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+public class EngineKeyFactoryTest {
+    private EngineKeyFactory factory;
+    private Transformation transformation;
+
+    @Before
+    public void setUp() {
+        factory = new EngineKeyFactory();
+        transformation = mock(Transformation.class);
+        when(transformation.getId()).thenReturn("transformation");
+    }
+
+    @Test
+    public void testBuildsNewKeyIfNoneReleased() {
+        EngineKey first = build("first");
+        EngineKey second = build("second");
+
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void testReusesReleasedKey() {
+        EngineKey first = build("first");
+        factory.release(first);
+
+        EngineKey second = build("second");
+
+        assertSame(first, second);
+        assertEquals(new EngineKey("second", 100, 100, null, null, transformation, null, null, null), second);
+    }
+
+    @Test
+    public void testDoesNotReuseKeyMoreThanOnce() {
+        EngineKey first = build("first");
+        factory.release(first);
+
+        build("second");
+        EngineKey third = build("third");
+
+        assertNotSame(first, third);
+    }
+
+    private EngineKey build(String id) {
+        return factory.buildKey(id, 100, 100, null /*cacheDecoder*/, null /*sourceDecoder*/, transformation,
+                null /*encoder*/, null /*transcoder*/, null /*sourceEncoder*/);
+    }
+}
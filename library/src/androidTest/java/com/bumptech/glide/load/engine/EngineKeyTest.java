@@ -66,6 +66,38 @@ public class EngineKeyTest {
         assertEquals(harness.build(), harness.build());
     }
 
+    @Test
+    public void testIsIdenticalWithDifferentComponentsWithSameIds() {
+        EngineKey first = harness.build();
+        harness.transformation = mock(Transformation.class);
+        when(harness.transformation.getId()).thenReturn(new String("transformation"));
+        harness.decoder = mock(ResourceDecoder.class);
+        when(harness.decoder.getId()).thenReturn(new String("decoder"));
+        EngineKey second = harness.build();
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    public void testReinitializedKeyMatchesNewKey() throws Exception {
+        EngineKey reused = harness.build();
+        reused.hashCode();
+        reused.toString();
+        harness.id = harness.id + "2";
+        harness.width += 1;
+        harness.transformation = null;
+        EngineKey expected = harness.build();
+
+        reused.init(harness.id, harness.width, harness.height, harness.cacheDecoder, harness.decoder,
+                harness.transformation, harness.encoder, harness.transcoder, harness.sourceEncoder);
+
+        assertEquals(expected, reused);
+        assertEquals(expected.hashCode(), reused.hashCode());
+        assertEquals(expected.toString(), reused.toString());
+        assertEquals(expected.getOriginalKey(), reused.getOriginalKey());
+    }
+
     @Test
     public void testDiffersIfIdDiffers() throws Exception {
         EngineKey first = harness.build();
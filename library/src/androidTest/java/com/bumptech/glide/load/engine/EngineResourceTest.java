@@ -1,6 +1,7 @@
 package com.bumptech.glide.load.engine;
 
 import com.bumptech.glide.load.Key;
+import com.bumptech.glide.tests.BackgroundUtil;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -128,6 +129,21 @@ public class EngineResourceTest {
         otherThread.join();
     }
 
+    @Test
+    public void testCanAcquireAndReleaseOnBackgroundThreadIfThreadSafe() throws InterruptedException {
+        final EngineResource<Object> threadSafe = new EngineResource<Object>(resource, true /*isThreadSafe*/);
+        threadSafe.setResourceListener(cacheKey, listener);
+        BackgroundUtil.testInBackground(new BackgroundUtil.BackgroundTester() {
+            @Override
+            public void runTest() throws Exception {
+                threadSafe.acquire(1);
+                threadSafe.release();
+            }
+        });
+
+        verify(listener).onResourceReleased(eq(cacheKey), eq(threadSafe));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testThrowsIfAcquiredWithTimesEqualToZero() {
         engineResource.acquire(0);
@@ -1,5 +1,6 @@
 package com.bumptech.glide.load.engine;
 
+import android.graphics.Bitmap;
 import android.os.Looper;
 
 import com.bumptech.glide.Priority;
@@ -10,6 +11,7 @@ import com.bumptech.glide.load.ResourceEncoder;
 import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.data.DataFetcher;
 import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.LowResBitmapCache;
 import com.bumptech.glide.load.engine.cache.MemoryCache;
 import com.bumptech.glide.load.resource.transcode.ResourceTranscoder;
 import com.bumptech.glide.request.ResourceCallback;
@@ -19,6 +21,7 @@ import com.bumptech.glide.tests.GlideShadowLooper;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
@@ -29,6 +32,7 @@ import java.lang.ref.WeakReference;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasEntry;
@@ -89,6 +93,39 @@ public class EngineTest {
         verify(harness.job).removeCallback(eq(harness.cb));
     }
 
+    @Test
+    public void testReleasesKeyIfLoadedFromActiveResources() {
+        harness.activeResources.put(harness.cacheKey, new WeakReference<EngineResource>(harness.resource));
+
+        harness.doLoad();
+
+        verify(harness.keyFactory).release(eq(harness.cacheKey));
+    }
+
+    @Test
+    public void testReleasesKeyIfAddedToExistingJob() {
+        harness.doLoad();
+        harness.doLoad();
+
+        verify(harness.keyFactory, times(1)).release(eq(harness.cacheKey));
+    }
+
+    @Test
+    public void testDoesNotReleaseKeyIfNewRunnerIsStarted() {
+        harness.doLoad();
+
+        verify(harness.keyFactory, never()).release(any(EngineKey.class));
+    }
+
+    @Test
+    public void testDoesNotReleaseKeyIfLoadedFromCache() {
+        when(harness.cache.remove(eq(harness.cacheKey))).thenReturn(harness.resource);
+
+        harness.doLoad();
+
+        verify(harness.keyFactory, never()).release(any(EngineKey.class));
+    }
+
     @Test
     public void testNewRunnerIsAddedToRunnersMap() {
         harness.doLoad();
@@ -423,6 +460,189 @@ public class EngineTest {
         });
     }
 
+    @Test
+    public void testDoesNotThrowIfLoadCalledOnBackgroundThreadWithThreadSafeEngine() throws InterruptedException {
+        harness = new EngineTestHarness(true /*isThreadSafe*/);
+        BackgroundUtil.testInBackground(new BackgroundUtil.BackgroundTester() {
+            @Override
+            public void runTest() throws Exception {
+                harness.doLoad();
+            }
+        });
+
+        verify(harness.runner).queue();
+    }
+
+    @Test
+    public void testResourceIsReturnedFromCacheOnBackgroundThreadWithThreadSafeEngine() throws InterruptedException {
+        harness = new EngineTestHarness(true /*isThreadSafe*/);
+        when(harness.cache.remove(eq(harness.cacheKey))).thenReturn(harness.resource);
+        BackgroundUtil.testInBackground(new BackgroundUtil.BackgroundTester() {
+            @Override
+            public void runTest() throws Exception {
+                harness.doLoad();
+            }
+        });
+
+        verify(harness.cb).onResourceReady(eq(harness.resource));
+    }
+
+    @Test
+    public void testReacquiredResourceIsNotAddedToCacheOnReleasedWithThreadSafeEngine() {
+        harness = new EngineTestHarness(true /*isThreadSafe*/);
+        when(harness.resource.isAcquired()).thenReturn(true);
+        harness.activeResources.put(harness.cacheKey, new WeakReference<EngineResource>(harness.resource));
+
+        harness.engine.onResourceReleased(harness.cacheKey, harness.resource);
+
+        verify(harness.cache, never()).put(eq(harness.cacheKey), eq(harness.resource));
+        assertThat(harness.activeResources, hasKey((Key) harness.cacheKey));
+    }
+
+    @Test
+    public void testResourceIsOnlyRecycledOnceIfReleaseIsNotifiedTwiceWithThreadSafeEngine() {
+        harness = new EngineTestHarness(true /*isThreadSafe*/);
+        Resource<Object> wrapped = mock(Resource.class);
+        EngineResource<Object> resource = new EngineResource<Object>(wrapped, true /*isThreadSafe*/);
+        harness.activeResources.put(harness.cacheKey, new WeakReference<EngineResource>(resource));
+
+        harness.engine.onResourceReleased(harness.cacheKey, resource);
+        harness.engine.onResourceReleased(harness.cacheKey, resource);
+        Robolectric.runUiThreadTasks();
+
+        verify(wrapped).recycle();
+    }
+
+    @Test
+    public void testResourceIsOnlyCachedOnceIfReleaseIsNotifiedTwiceWithThreadSafeEngine() {
+        harness = new EngineTestHarness(true /*isThreadSafe*/);
+        EngineResource<Object> resource = new EngineResource<Object>(mock(Resource.class), true /*isThreadSafe*/);
+        resource.setCacheable(true);
+
+        harness.engine.onResourceReleased(harness.cacheKey, resource);
+        harness.engine.onResourceReleased(harness.cacheKey, resource);
+
+        verify(harness.cache, times(1)).put(eq(harness.cacheKey), eq(resource));
+    }
+
+    @Test
+    public void testRunnerIsNotCancelledIfNoRunnerExistsOnEngineNotifiedJobCancel() {
+        harness.engine.onEngineJobCancelled(harness.job, harness.cacheKey);
+
+        verify(harness.runner, never()).cancel();
+    }
+
+    @Test
+    public void testClearedReferencesAreRemovedFromActiveResourcesOnLoad() {
+        harness.engine.onEngineJobComplete(harness.cacheKey, harness.resource);
+        harness.activeResources.get(harness.cacheKey).enqueue();
+
+        harness.doLoad();
+
+        verify(harness.runner).queue();
+        assertEquals(1, harness.engine.getClearedActiveResourceCount());
+    }
+
+    @Test
+    public void testClearedReferenceDoesNotRemoveNewerActiveResourceForSameKey() {
+        harness.engine.onEngineJobComplete(harness.cacheKey, harness.resource);
+        WeakReference<EngineResource> cleared = harness.activeResources.get(harness.cacheKey);
+        harness.engine.onEngineJobComplete(harness.cacheKey, harness.resource);
+        cleared.enqueue();
+
+        harness.doLoad();
+
+        verify(harness.cb).onResourceReady(eq(harness.resource));
+        assertEquals(0, harness.engine.getClearedActiveResourceCount());
+    }
+
+    @Test
+    public void testLowResPlaceholderIsReturnedForNewLoad() {
+        Bitmap lowRes = Bitmap.createBitmap(50, 50, Bitmap.Config.RGB_565);
+        when(harness.lowResCache.remove(eq(harness.cacheKey))).thenReturn(lowRes);
+
+        Engine.LoadStatus loadStatus = harness.doLoad();
+
+        assertEquals(lowRes, loadStatus.getLowResPlaceholder());
+    }
+
+    @Test
+    public void testLowResCacheIsNotCheckedIfResourceIsCached() {
+        when(harness.cache.remove(eq(harness.cacheKey))).thenReturn(harness.resource);
+
+        harness.doLoad();
+
+        verify(harness.lowResCache, never()).remove(any(Key.class));
+    }
+
+    @Test
+    public void testBitmapIsAddedToLowResCacheWhenRemovedFromCache() {
+        Bitmap bitmap = Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888);
+        when(harness.resource.get()).thenReturn(bitmap);
+        when(harness.resource.getKey()).thenReturn(harness.cacheKey);
+
+        harness.engine.onResourceRemoved(harness.resource);
+        harness.runLowResCopy();
+
+        verify(harness.lowResCache).put(eq(harness.cacheKey), eq(bitmap));
+    }
+
+    @Test
+    public void testBitmapIsNotAddedToLowResCacheWhenRemovedWhileLowResCacheIsSuspended() {
+        Bitmap bitmap = Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888);
+        when(harness.resource.get()).thenReturn(bitmap);
+        when(harness.resource.getKey()).thenReturn(harness.cacheKey);
+        when(harness.lowResCache.isSuspended()).thenReturn(true);
+
+        harness.engine.onResourceRemoved(harness.resource);
+
+        verify(harness.lowResCache, never()).put(any(Key.class), any(Bitmap.class));
+        verify(harness.resource).recycle();
+    }
+
+    @Test
+    public void testLowResCopyIsMadeInBackgroundBeforeResourceIsRecycled() {
+        Bitmap bitmap = Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888);
+        when(harness.resource.get()).thenReturn(bitmap);
+        when(harness.resource.getKey()).thenReturn(harness.cacheKey);
+        Robolectric.pauseMainLooper();
+
+        harness.engine.onResourceRemoved(harness.resource);
+        Robolectric.runUiThreadTasks();
+        verify(harness.lowResCache, never()).put(any(Key.class), any(Bitmap.class));
+        verify(harness.resource, never()).recycle();
+
+        harness.runLowResCopy();
+        verify(harness.lowResCache).put(eq(harness.cacheKey), eq(bitmap));
+        verify(harness.resource, never()).recycle();
+
+        Robolectric.runUiThreadTasks();
+        verify(harness.resource).recycle();
+    }
+
+    @Test
+    public void testResourceIsRecycledIfLowResCopyCannotBeSubmitted() {
+        Bitmap bitmap = Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888);
+        when(harness.resource.get()).thenReturn(bitmap);
+        when(harness.resource.getKey()).thenReturn(harness.cacheKey);
+        when(harness.resizeService.submit(any(Runnable.class))).thenThrow(new RejectedExecutionException("test"));
+
+        harness.engine.onResourceRemoved(harness.resource);
+
+        verify(harness.lowResCache, never()).put(any(Key.class), any(Bitmap.class));
+        verify(harness.resource).recycle();
+    }
+
+    @Test
+    public void testNonBitmapIsNotAddedToLowResCacheWhenRemovedFromCache() {
+        when(harness.resource.get()).thenReturn(new Object());
+        when(harness.resource.getKey()).thenReturn(harness.cacheKey);
+
+        harness.engine.onResourceRemoved(harness.resource);
+
+        verify(harness.lowResCache, never()).put(any(Key.class), any(Bitmap.class));
+    }
+
     @SuppressWarnings("unchecked")
     private static class EngineTestHarness {
         EngineKey cacheKey = mock(EngineKey.class);
@@ -446,6 +666,8 @@ public class EngineTest {
         int height = 100;
 
         MemoryCache cache = mock(MemoryCache.class);
+        ExecutorService resizeService = mock(ExecutorService.class);
+        LowResBitmapCache lowResCache = mock(LowResBitmapCache.class);
         ResourceRunner<Object, Object> runner = mock(ResourceRunner.class);
         EngineJob job;
         Engine engine;
@@ -453,6 +675,10 @@ public class EngineTest {
 
 
         public EngineTestHarness() {
+            this(false /*isThreadSafe*/);
+        }
+
+        public EngineTestHarness(boolean isThreadSafe) {
             when(resource.isCacheable()).thenReturn(true);
             when(keyFactory.buildKey(anyString(), anyInt(), anyInt(), any(ResourceDecoder.class),
                     any(ResourceDecoder.class), any(Transformation.class), any(ResourceEncoder.class),
@@ -462,14 +688,21 @@ public class EngineTest {
             job = mock(EngineJob.class);
             when(runner.getJob()).thenReturn(job);
 
-            engine = new Engine(factory, cache, mock(DiskCache.class), mock(ExecutorService.class),
-                    mock(ExecutorService.class), runners, keyFactory, activeResources);
+            engine = new Engine(factory, cache, mock(DiskCache.class), resizeService,
+                    mock(ExecutorService.class), runners, keyFactory, activeResources,
+                    new EngineConfig(lowResCache, null /*writeQueue*/, null /*sourceService*/, isThreadSafe));
 
             when(factory.build(eq(cacheKey), eq(width), eq(height), eq(cacheDecoder), eq(fetcher),
                     eq(sourceEncoder), eq(decoder), eq(transformation), eq(encoder), eq(transcoder), eq(priority),
                     eq(isMemoryCacheable), eq(diskCacheStrategy), eq(engine))).thenReturn(runner);
         }
 
+        public void runLowResCopy() {
+            ArgumentCaptor<Runnable> copier = ArgumentCaptor.forClass(Runnable.class);
+            verify(resizeService).submit(copier.capture());
+            copier.getValue().run();
+        }
+
         public Engine.LoadStatus doLoad() {
             return engine.load(width, height, cacheDecoder, fetcher, sourceEncoder, decoder, transformation, encoder,
                     transcoder, priority, isMemoryCacheable, diskCacheStrategy, cb);
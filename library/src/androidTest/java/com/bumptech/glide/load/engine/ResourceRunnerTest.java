@@ -4,10 +4,13 @@ import com.bumptech.glide.Priority;
 import com.bumptech.glide.load.Key;
 import com.bumptech.glide.load.ResourceDecoder;
 import com.bumptech.glide.load.Transformation;
+import com.bumptech.glide.load.engine.executor.FifoPriorityThreadPoolExecutor;
 import com.bumptech.glide.load.resource.transcode.ResourceTranscoder;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.robolectric.RobolectricTestRunner;
 
 import java.io.File;
@@ -189,6 +192,24 @@ public class ResourceRunnerTest {
         verify(harness.cacheLoader, never()).load(any(Key.class), any(ResourceDecoder.class), anyInt(), anyInt());
     }
 
+    @Test
+    public void testSourceRunnerIsNotSubmittedIfCancelledWhileLoadingFromDiskCache() {
+        final ResourceRunner runner = harness.getRunner();
+        when(harness.cacheLoader.load(eq(harness.key), eq(harness.decoder), eq(harness.width), eq(harness.height)))
+                .thenAnswer(new Answer<Object>() {
+                    @Override
+                    public Object answer(InvocationOnMock invocation) throws Throwable {
+                        runner.cancel();
+                        return null;
+                    }
+                });
+
+        runner.run();
+
+        verify(harness.resizeService, never()).submit(any(Runnable.class));
+        verify(harness.engineJob, never()).onException(any(Exception.class));
+    }
+
     @Test
     public void testSourceRunnerIsCancelledIfCancelledAfterSubmitted() {
         ResourceRunner runner = harness.getRunner();
@@ -245,6 +266,45 @@ public class ResourceRunnerTest {
         }
     }
 
+    @Test
+    public void testReturnsUpdatedPriority() {
+        ResourceRunner runner = harness.getRunner();
+
+        runner.setPriority(Priority.IMMEDIATE);
+
+        assertEquals(Priority.IMMEDIATE.ordinal(), runner.getPriority());
+        verify(harness.sourceRunner).setPriority(eq(Priority.IMMEDIATE));
+    }
+
+    @Test
+    public void testReprioritizesQueuedDiskCacheLoad() {
+        FifoPriorityThreadPoolExecutor diskCacheService = mock(FifoPriorityThreadPoolExecutor.class);
+        harness.diskCacheService = diskCacheService;
+        ResourceRunner runner = harness.getRunner();
+        when(diskCacheService.submit(eq(runner))).thenReturn(harness.future);
+
+        runner.queue();
+        runner.setPriority(Priority.IMMEDIATE);
+
+        verify(diskCacheService).setPriority(eq(harness.future), eq(Priority.IMMEDIATE.ordinal()));
+    }
+
+    @Test
+    public void testReprioritizesQueuedSourceLoad() {
+        when(harness.cacheLoader.load(eq(harness.key), eq(harness.decoder), eq(harness.width), eq(harness.height)))
+                .thenReturn(null);
+        FifoPriorityThreadPoolExecutor resizeService = mock(FifoPriorityThreadPoolExecutor.class);
+        harness.resizeService = resizeService;
+        when(resizeService.submit(eq(harness.sourceRunner))).thenReturn(harness.sourceFuture);
+        ResourceRunner runner = harness.getRunner();
+
+        runner.queue();
+        runner.run();
+        runner.setPriority(Priority.LOW);
+
+        verify(resizeService).setPriority(eq(harness.sourceFuture), eq(Priority.LOW.ordinal()));
+    }
+
     @Test
     public void testSubmitsSourceRunnerIfCacheLoaderThrows() {
         when(harness.cacheLoader.load(any(Key.class), any(ResourceDecoder.class), anyInt(), anyInt()))
@@ -327,7 +387,8 @@ public class ResourceRunnerTest {
 
         ResourceRunner getRunner() {
             return new ResourceRunner(key, width, height, cacheLoader, decoder, tranformation, transcoder,
-                    sourceRunner, diskCacheService, diskCacheStrategy, resizeService, engineJob, priority);
+                    sourceRunner, diskCacheService, diskCacheStrategy, resizeService, new StageTimings(), engineJob,
+                    priority);
         }
     }
 }
@@ -1,5 +1,6 @@
 package com.bumptech.glide.load.engine;
 
+import android.graphics.Bitmap;
 import com.bumptech.glide.Priority;
 import com.bumptech.glide.load.Encoder;
 import com.bumptech.glide.load.Key;
@@ -7,15 +8,23 @@ import com.bumptech.glide.load.ResourceDecoder;
 import com.bumptech.glide.load.ResourceEncoder;
 import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
 import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.DiskCacheWriteQueue;
+import com.bumptech.glide.load.engine.executor.FifoPriorityThreadPoolExecutor;
+import com.bumptech.glide.load.model.StreamEncoder;
+import com.bumptech.glide.load.resource.transcode.GlideBitmapDrawableTranscoder;
 import com.bumptech.glide.load.resource.transcode.ResourceTranscoder;
 import com.bumptech.glide.request.ResourceCallback;
+import com.bumptech.glide.tests.Util;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
+import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
 
 import java.io.ByteArrayInputStream;
@@ -23,17 +32,24 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isNull;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -193,6 +209,128 @@ public class SourceResourceRunnerTest {
         verify(harness.diskCache).put(eq(harness.key), eq(harness.writer));
     }
 
+    @Test
+    public void testResultResourceIsQueuedInsteadOfWrittenIfWriteQueueIsSet() throws Exception {
+        harness.writeQueue = mock(DiskCacheWriteQueue.class);
+        harness.mockSuccessfulFetchAndDecode();
+        when(harness.factory.build(eq(harness.encoder), eq(harness.transformed))).thenReturn(harness.writer);
+
+        harness.getRunner().run();
+
+        verify(harness.diskCache, never()).put(any(Key.class), any(DiskCache.Writer.class));
+        verify(harness.writeQueue).enqueue(eq(harness.diskCache), eq(harness.key), eq(harness.writer),
+                any(Resource.class));
+    }
+
+    @Test
+    public void testTransformedResourceIsNotRecycledUntilQueuedWriteCompletes() throws Exception {
+        harness.writeQueue = mock(DiskCacheWriteQueue.class);
+        harness.mockSuccessfulFetchAndDecode();
+        harness.mockTranscoderThatOwnsInput();
+
+        harness.getRunner().run();
+
+        ArgumentCaptor<Resource> queued = ArgumentCaptor.forClass(Resource.class);
+        verify(harness.writeQueue).enqueue(eq(harness.diskCache), eq(harness.key), any(DiskCache.Writer.class),
+                queued.capture());
+        ArgumentCaptor<Resource> returned = ArgumentCaptor.forClass(Resource.class);
+        verify(harness.cb).onResourceReady(returned.capture());
+
+        returned.getValue().recycle();
+        verify(harness.transformed, never()).recycle();
+
+        queued.getValue().recycle();
+        verify(harness.transformed).recycle();
+    }
+
+    @Test
+    public void testTransformedResourceIsNotRecycledUntilQueuedWriteCompletesIfTranscoderRecyclesInput()
+            throws Exception {
+        harness.writeQueue = mock(DiskCacheWriteQueue.class);
+        harness.mockSuccessfulFetchAndDecode();
+        when(harness.transcoder.transcode(any(Resource.class))).thenAnswer(new Answer<Resource<Object>>() {
+            @Override
+            public Resource<Object> answer(InvocationOnMock invocation) throws Throwable {
+                // Like BitmapBytesTranscoder, returns a new resource and recycles the one it was given.
+                ((Resource) invocation.getArguments()[0]).recycle();
+                return harness.transcoded;
+            }
+        });
+
+        harness.getRunner().run();
+
+        verify(harness.cb).onResourceReady(any(Resource.class));
+        verify(harness.transformed, never()).recycle();
+        ArgumentCaptor<Resource> queued = ArgumentCaptor.forClass(Resource.class);
+        verify(harness.writeQueue).enqueue(eq(harness.diskCache), eq(harness.key), any(DiskCache.Writer.class),
+                queued.capture());
+
+        queued.getValue().recycle();
+        verify(harness.transformed).recycle();
+    }
+
+    @Test
+    public void testDrawableBitmapIsNotReturnedToPoolUntilQueuedWriteCompletes() throws Exception {
+        harness.writeQueue = mock(DiskCacheWriteQueue.class);
+        harness.mockSuccessfulFetchAndDecode();
+        Bitmap bitmap = Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888);
+        when(harness.transformed.get()).thenReturn(bitmap);
+        BitmapPool bitmapPool = mock(BitmapPool.class);
+        // Returns a new resource wrapping the same Bitmap that puts the Bitmap in the pool when it is recycled.
+        final GlideBitmapDrawableTranscoder transcoder =
+                new GlideBitmapDrawableTranscoder(Robolectric.application.getResources(), bitmapPool);
+        when(harness.transcoder.transcode(any(Resource.class))).thenAnswer(new Answer<Resource>() {
+            @Override
+            public Resource answer(InvocationOnMock invocation) throws Throwable {
+                return transcoder.transcode((Resource<Bitmap>) invocation.getArguments()[0]);
+            }
+        });
+
+        harness.getRunner().run();
+
+        ArgumentCaptor<Resource> queued = ArgumentCaptor.forClass(Resource.class);
+        verify(harness.writeQueue).enqueue(eq(harness.diskCache), eq(harness.key), any(DiskCache.Writer.class),
+                queued.capture());
+        ArgumentCaptor<Resource> returned = ArgumentCaptor.forClass(Resource.class);
+        verify(harness.cb).onResourceReady(returned.capture());
+
+        // Evicted from the memory cache while the write is still queued.
+        returned.getValue().recycle();
+        verify(bitmapPool, never()).put(any(Bitmap.class));
+
+        queued.getValue().recycle();
+        verify(bitmapPool).put(eq(bitmap));
+        verify(harness.transformed, never()).recycle();
+    }
+
+    @Test
+    public void testQueuedWriteReleasesTransformedResourceIfTranscoderThrows() throws Exception {
+        harness.writeQueue = mock(DiskCacheWriteQueue.class);
+        harness.mockSuccessfulFetchAndDecode();
+        when(harness.transcoder.transcode(any(Resource.class))).thenThrow(new RuntimeException("test"));
+
+        harness.getRunner().run();
+
+        verify(harness.writeQueue, never()).enqueue(any(DiskCache.class), any(Key.class),
+                any(DiskCache.Writer.class), any(Resource.class));
+        verify(harness.cb).onException(any(Exception.class));
+    }
+
+    @Test
+    public void testTranscodedResourceIsReturnedIfWriteQueueIsSet() throws Exception {
+        harness.writeQueue = mock(DiskCacheWriteQueue.class);
+        harness.mockSuccessfulFetchAndDecode();
+        harness.mockTranscoderThatOwnsInput();
+        Object expected = new Object();
+        when(harness.transcoded.get()).thenReturn(expected);
+
+        harness.getRunner().run();
+
+        ArgumentCaptor<Resource> returned = ArgumentCaptor.forClass(Resource.class);
+        verify(harness.cb).onResourceReady(returned.capture());
+        assertEquals(expected, returned.getValue().get());
+    }
+
     @Test
     public void testDecodedResourceIsRecycledIfTransformedResourceIsDifferent() throws Exception {
         harness.mockSuccessfulFetchAndDecode();
@@ -278,6 +416,155 @@ public class SourceResourceRunnerTest {
         verify(harness.fetcher, never()).loadData(any(Priority.class));
     }
 
+    @Test
+    public void testDoesNotTransformIfCancelledWhileDecoding() throws Exception {
+        final SourceResourceRunner<Object, Object, Object> runner = harness.getRunner();
+        InputStream is = new ByteArrayInputStream(new byte[0]);
+        when(harness.fetcher.loadData(eq(harness.priority))).thenReturn(is);
+        when(harness.decoder.decode(any(InputStream.class), eq(harness.width), eq(harness.height))).thenAnswer(
+                new Answer<Object>() {
+                    @Override
+                    public Object answer(InvocationOnMock invocation) throws Throwable {
+                        runner.cancel();
+                        return harness.decoded;
+                    }
+                });
+
+        runner.run();
+
+        verify(harness.transformation, never()).transform(any(Resource.class), anyInt(), anyInt());
+        verify(harness.decoded).recycle();
+        verify(harness.cb, never()).onResourceReady(any(Resource.class));
+        verify(harness.cb, never()).onException(any(Exception.class));
+        assertEquals(1, harness.stageTimings.getCancelledCount(StageTimings.Stage.TRANSFORM));
+    }
+
+    @Test
+    public void testStreamGivenToDecoderStopsReadingWhenCancelled() throws Exception {
+        final SourceResourceRunner<Object, Object, Object> runner = harness.getRunner();
+        when(harness.fetcher.loadData(eq(harness.priority))).thenReturn(new ByteArrayInputStream(new byte[10]));
+        final boolean[] threwAfterCancel = new boolean[1];
+        when(harness.decoder.decode(any(InputStream.class), eq(harness.width), eq(harness.height))).thenAnswer(
+                new Answer<Object>() {
+                    @Override
+                    public Object answer(InvocationOnMock invocation) throws Throwable {
+                        InputStream is = (InputStream) invocation.getArguments()[0];
+                        is.read();
+                        runner.cancel();
+                        try {
+                            is.read();
+                        } catch (IOException e) {
+                            threwAfterCancel[0] = true;
+                            throw e;
+                        }
+                        return harness.decoded;
+                    }
+                });
+
+        runner.run();
+
+        assertTrue(threwAfterCancel[0]);
+        verify(harness.cb, never()).onException(any(Exception.class));
+    }
+
+    @Test
+    public void testStopsReadingFetchedDataWhenCancelledWithDecodeService() throws Exception {
+        harness.decodeService = mock(ExecutorService.class);
+        final SourceResourceRunner<Object, Object, Object> runner = harness.getRunner();
+        when(harness.fetcher.loadData(eq(harness.priority))).thenReturn(new ByteArrayInputStream(new byte[10]));
+        final boolean[] threwAfterCancel = new boolean[1];
+        when(harness.decoder.decode(any(InputStream.class), eq(harness.width), eq(harness.height))).thenAnswer(
+                new Answer<Object>() {
+                    @Override
+                    public Object answer(InvocationOnMock invocation) throws Throwable {
+                        InputStream is = (InputStream) invocation.getArguments()[0];
+                        is.read();
+                        runner.cancel();
+                        try {
+                            is.read();
+                        } catch (IOException e) {
+                            threwAfterCancel[0] = true;
+                            throw e;
+                        }
+                        return harness.decoded;
+                    }
+                });
+
+        runner.run();
+        ArgumentCaptor<Runnable> stage = ArgumentCaptor.forClass(Runnable.class);
+        verify(harness.decodeService).submit(stage.capture());
+        stage.getValue().run();
+
+        assertTrue(threwAfterCancel[0]);
+        verify(harness.fetcher).cleanup();
+        verify(harness.cb, never()).onException(any(Exception.class));
+    }
+
+    @Test
+    public void testSetPriorityMovesDecodeStageQueuedOnDecodeService() throws Exception {
+        FifoPriorityThreadPoolExecutor decodeService = mock(FifoPriorityThreadPoolExecutor.class);
+        harness.decodeService = decodeService;
+        Future<?> stageFuture = mock(Future.class);
+        doReturn(stageFuture).when(decodeService).submit(any(Runnable.class));
+        SourceResourceRunner<Object, Object, Object> runner = harness.getRunner();
+        when(harness.fetcher.loadData(eq(harness.priority))).thenReturn(new ByteArrayInputStream(new byte[10]));
+
+        runner.run();
+        runner.setPriority(Priority.IMMEDIATE);
+
+        verify(decodeService).setPriority(eq(stageFuture), eq(Priority.IMMEDIATE.ordinal()));
+    }
+
+    @Test
+    public void testCleansUpFetcherWithoutDecodingIfCancelledBeforeDecodeServiceRuns() throws Exception {
+        harness.decodeService = mock(ExecutorService.class);
+        SourceResourceRunner<Object, Object, Object> runner = harness.getRunner();
+        when(harness.fetcher.loadData(eq(harness.priority))).thenReturn(new ByteArrayInputStream(new byte[10]));
+
+        runner.run();
+        ArgumentCaptor<Runnable> stage = ArgumentCaptor.forClass(Runnable.class);
+        verify(harness.decodeService).submit(stage.capture());
+        runner.cancel();
+        stage.getValue().run();
+
+        verify(harness.decoder, never()).decode(anyObject(), anyInt(), anyInt());
+        verify(harness.fetcher).cleanup();
+    }
+
+    @Test
+    public void testDoesNotTranscodeIfCancelledWhileTransforming() throws Exception {
+        harness.diskCacheStrategy = DiskCacheStrategy.NONE;
+        final SourceResourceRunner<Object, Object, Object> runner = harness.getRunner();
+        harness.mockSuccessfulFetchAndDecode();
+        when(harness.transformation.transform(eq(harness.decoded), eq(harness.width), eq(harness.height)))
+                .thenAnswer(new Answer<Object>() {
+                    @Override
+                    public Object answer(InvocationOnMock invocation) throws Throwable {
+                        runner.cancel();
+                        return harness.transformed;
+                    }
+                });
+
+        runner.run();
+
+        verify(harness.transcoder, never()).transcode(any(Resource.class));
+        verify(harness.transformed).recycle();
+        assertEquals(1, harness.stageTimings.getCancelledCount(StageTimings.Stage.TRANSCODE));
+    }
+
+    @Test
+    public void testRecordsTimingsOfEachStage() throws Exception {
+        harness.mockSuccessfulFetchAndDecode();
+
+        harness.getRunner().run();
+
+        for (StageTimings.Stage stage : list(StageTimings.Stage.FETCH, StageTimings.Stage.DECODE,
+                StageTimings.Stage.TRANSFORM, StageTimings.Stage.TRANSCODE)) {
+            assertEquals(1, harness.stageTimings.getCount(stage));
+        }
+        assertEquals(0, harness.stageTimings.getCount(StageTimings.Stage.SOURCE_CACHE));
+    }
+
     @Test
     public void testPriorityMatchesPriority() {
         for (Priority priority : Priority.values()) {
@@ -348,6 +635,80 @@ public class SourceResourceRunnerTest {
         verify(harness.cb).onResourceReady(eq(harness.transcoded));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testDecodesSourceWhileWritingToCacheIfSourceEncoderWritesStream() throws Exception {
+        harness.diskCacheStrategy = DiskCacheStrategy.SOURCE;
+        harness.sourceEncoder = (Encoder) new StreamEncoder();
+        final byte[] data = new byte[] { 1, 2, 3, 4, 5 };
+        when(harness.fetcher.loadData(any(Priority.class))).thenReturn(new ByteArrayInputStream(data));
+        when(harness.decoder.decode(any(InputStream.class), eq(harness.width), eq(harness.height))).thenAnswer(
+                new Answer<Resource<Object>>() {
+                    @Override
+                    public Resource<Object> answer(InvocationOnMock invocation) throws Throwable {
+                        // Decoders don't always read all of the data.
+                        ((InputStream) invocation.getArguments()[0]).read();
+                        return harness.decoded;
+                    }
+                });
+        final File file = File.createTempFile("source", "tmp");
+        file.deleteOnExit();
+        final boolean[] committed = new boolean[1];
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                committed[0] = ((DiskCache.Writer) invocation.getArguments()[1]).write(file);
+                return null;
+            }
+        }).when(harness.diskCache).put(eq(harness.originalKey), any(DiskCache.Writer.class));
+
+        harness.getRunner().run();
+
+        assertTrue(committed[0]);
+        assertArrayEquals(data, Util.readFile(file, data.length));
+        verify(harness.cacheLoader, never()).load(eq(harness.originalKey), any(ResourceDecoder.class), anyInt(),
+                anyInt());
+        verify(harness.cb).onResourceReady(eq(harness.transcoded));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testDoesNotCommitSourceIfDecodeWhileWritingFails() throws Exception {
+        harness.diskCacheStrategy = DiskCacheStrategy.SOURCE;
+        harness.sourceEncoder = (Encoder) new StreamEncoder();
+        when(harness.fetcher.loadData(any(Priority.class))).thenReturn(new ByteArrayInputStream(new byte[10]));
+        final File file = File.createTempFile("source", "tmp");
+        file.deleteOnExit();
+        final boolean[] committed = new boolean[] { true };
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                committed[0] = ((DiskCache.Writer) invocation.getArguments()[1]).write(file);
+                return null;
+            }
+        }).when(harness.diskCache).put(eq(harness.originalKey), any(DiskCache.Writer.class));
+
+        harness.getRunner().run();
+
+        assertFalse(committed[0]);
+        verify(harness.cb).onException(any(Exception.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testDecodesSourceDirectlyIfDiskCacheDoesNotWrite() throws Exception {
+        harness.diskCacheStrategy = DiskCacheStrategy.SOURCE;
+        harness.sourceEncoder = (Encoder) new StreamEncoder();
+        InputStream data = new ByteArrayInputStream(new byte[10]);
+        when(harness.fetcher.loadData(any(Priority.class))).thenReturn(data);
+        when(harness.decoder.decode(any(InputStream.class), eq(harness.width), eq(harness.height)))
+                .thenReturn(harness.decoded);
+
+        harness.getRunner().run();
+
+        verify(harness.cb).onResourceReady(eq(harness.transcoded));
+    }
+
     @Test
     public void testNotifiesJobOfFailureIfCacheLoaderThrows() {
         for (DiskCacheStrategy strategy :  list(DiskCacheStrategy.ALL, DiskCacheStrategy.SOURCE)) {
@@ -425,6 +786,120 @@ public class SourceResourceRunnerTest {
         verify(harness.cb, times(1)).onException(any(Exception.class));
     }
 
+    @Test
+    public void testHandsFetchedStreamToDecodeServiceWithoutReadingIt() throws Exception {
+        harness.decodeService = mock(ExecutorService.class);
+        byte[] bytes = new byte[] { 1, 2, 3 };
+        InputStream fetched = spy(new ByteArrayInputStream(bytes));
+        when(harness.fetcher.loadData(eq(harness.priority))).thenReturn(fetched);
+        final byte[][] decodedBytes = new byte[1][];
+        when(harness.decoder.decode(anyObject(), eq(harness.width), eq(harness.height))).thenAnswer(
+                new Answer<Object>() {
+                    @Override
+                    public Object answer(InvocationOnMock invocation) throws Throwable {
+                        InputStream is = (InputStream) invocation.getArguments()[0];
+                        byte[] result = new byte[3];
+                        assertEquals(result.length, is.read(result, 0, result.length));
+                        decodedBytes[0] = result;
+                        return harness.decoded;
+                    }
+                });
+
+        harness.getRunner().run();
+
+        verify(fetched, never()).read(any(byte[].class), anyInt(), anyInt());
+        verify(harness.fetcher, never()).cleanup();
+        verify(harness.decoder, never()).decode(anyObject(), anyInt(), anyInt());
+        ArgumentCaptor<Runnable> stage = ArgumentCaptor.forClass(Runnable.class);
+        verify(harness.decodeService).submit(stage.capture());
+
+        stage.getValue().run();
+
+        assertArrayEquals(bytes, decodedBytes[0]);
+        verify(harness.fetcher).cleanup();
+        verify(harness.cb).onResourceReady(eq(harness.transcoded));
+    }
+
+    @Test
+    public void testWritesFetchedSourceToCacheOnDecodeService() throws Exception {
+        harness.decodeService = mock(ExecutorService.class);
+        harness.diskCacheStrategy = DiskCacheStrategy.SOURCE;
+        Object data = new Object();
+        when(harness.fetcher.loadData(eq(harness.priority))).thenReturn(data);
+        when(harness.factory.build(eq(harness.sourceEncoder), eq(data))).thenReturn(harness.sourceWriter);
+
+        harness.getRunner().run();
+
+        verify(harness.diskCache, never()).put(any(Key.class), any(DiskCache.Writer.class));
+        ArgumentCaptor<Runnable> stage = ArgumentCaptor.forClass(Runnable.class);
+        verify(harness.decodeService).submit(stage.capture());
+
+        when(harness.cacheLoader.load(eq(harness.originalKey), eq(harness.cacheDecoder), eq(harness.width),
+                eq(harness.height))).thenReturn(harness.decoded);
+        stage.getValue().run();
+
+        verify(harness.diskCache).put(eq(harness.originalKey), eq(harness.sourceWriter));
+        verify(harness.fetcher).cleanup();
+        verify(harness.cb).onResourceReady(eq(harness.transcoded));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testDecodesFetchedStreamWithoutFetchingAgainIfSourceCacheWriteFailsWithDecodeService()
+            throws Exception {
+        harness.decodeService = mock(ExecutorService.class);
+        harness.diskCacheStrategy = DiskCacheStrategy.SOURCE;
+        harness.sourceEncoder = (Encoder) new StreamEncoder();
+        when(harness.fetcher.loadData(eq(harness.priority))).thenReturn(new ByteArrayInputStream(new byte[10]));
+        when(harness.decoder.decode(any(InputStream.class), eq(harness.width), eq(harness.height)))
+                .thenReturn(harness.decoded);
+
+        harness.getRunner().run();
+        ArgumentCaptor<Runnable> stage = ArgumentCaptor.forClass(Runnable.class);
+        verify(harness.decodeService).submit(stage.capture());
+        // The mock disk cache never calls the writer, like a cache that is unable to write.
+        stage.getValue().run();
+
+        verify(harness.fetcher, times(1)).loadData(any(Priority.class));
+        verify(harness.cb).onResourceReady(eq(harness.transcoded));
+    }
+
+    @Test
+    public void testDecodesFetchedDataWithoutStreamIfSourceCacheWriteFails() throws Exception {
+        harness.diskCacheStrategy = DiskCacheStrategy.SOURCE;
+        Object data = new Object();
+        when(harness.fetcher.loadData(eq(harness.priority))).thenReturn(data);
+        when(harness.decoder.decode(eq(data), eq(harness.width), eq(harness.height))).thenReturn(harness.decoded);
+
+        harness.getRunner().run();
+
+        verify(harness.fetcher, times(1)).loadData(any(Priority.class));
+        verify(harness.cb).onResourceReady(eq(harness.transcoded));
+    }
+
+    @Test
+    public void testDoesNotFetchSourceInCacheWithDecodeService() throws Exception {
+        harness.decodeService = mock(ExecutorService.class);
+        harness.diskCacheStrategy = DiskCacheStrategy.SOURCE;
+        when(harness.diskCache.get(eq(harness.originalKey))).thenReturn(new File("test"));
+
+        harness.getRunner().run();
+
+        verify(harness.fetcher, never()).loadData(any(Priority.class));
+        verify(harness.decodeService).submit(any(Runnable.class));
+    }
+
+    @Test
+    public void testNotifiesExceptionIfFetchReturnsNullWithDecodeService() throws Exception {
+        harness.decodeService = mock(ExecutorService.class);
+        when(harness.fetcher.loadData(eq(harness.priority))).thenReturn(null);
+
+        harness.getRunner().run();
+
+        verify(harness.cb).onException(isNull(Exception.class));
+        verify(harness.decodeService, never()).submit(any(Runnable.class));
+    }
+
     private static <T> T[] list(T... list) {
         return list;
     }
@@ -438,6 +913,9 @@ public class SourceResourceRunnerTest {
         ResourceEncoder<Object> encoder = mock(ResourceEncoder.class);
         ResourceTranscoder<Object, Object> transcoder = mock(ResourceTranscoder.class);
         DiskCache diskCache = mock(DiskCache.class);
+        DiskCacheWriteQueue writeQueue = null;
+        ExecutorService decodeService = null;
+        StageTimings stageTimings = new StageTimings();
         Priority priority = Priority.LOW;
         ResourceCallback cb = mock(ResourceCallback.class);
         Resource<Object> decoded = mock(Resource.class);
@@ -456,8 +934,9 @@ public class SourceResourceRunnerTest {
 
         public SourceResourceRunner<Object, Object, Object> getRunner() {
             return new SourceResourceRunner<Object, Object, Object>(key, width, height, cacheLoader, cacheDecoder,
-                    fetcher, sourceEncoder, decoder, transformation, encoder, transcoder, diskCache,
-                    priority, diskCacheStrategy, cb, factory);
+                    fetcher, sourceEncoder, decoder, transformation, encoder, transcoder, diskCache, priority,
+                    diskCacheStrategy, cb, new SourceResourceRunner.Config(writeQueue, decodeService, stageTimings,
+                    factory));
         }
 
         public SourceResourceHarness() {
@@ -466,10 +945,29 @@ public class SourceResourceRunnerTest {
             when(transcoder.transcode(eq(transformed))).thenReturn(transcoded);
         }
 
+        // Like the drawable transcoders, returns a resource that recycles the resource it was given when it is
+        // recycled.
+        public void mockTranscoderThatOwnsInput() {
+            when(transcoder.transcode(any(Resource.class))).thenAnswer(new Answer<Resource<Object>>() {
+                @Override
+                public Resource<Object> answer(InvocationOnMock invocation) throws Throwable {
+                    final Resource<Object> toTranscode = (Resource<Object>) invocation.getArguments()[0];
+                    doAnswer(new Answer<Void>() {
+                        @Override
+                        public Void answer(InvocationOnMock invocation) throws Throwable {
+                            toTranscode.recycle();
+                            return null;
+                        }
+                    }).when(transcoded).recycle();
+                    return transcoded;
+                }
+            });
+        }
+
         public void mockSuccessfulFetchAndDecode() throws Exception {
             InputStream is = new ByteArrayInputStream(new byte[0]);
             when(fetcher.loadData(eq(priority))).thenReturn(is);
-            when(decoder.decode(eq(is), eq(width), eq(height))).thenReturn(decoded);
+            when(decoder.decode(any(InputStream.class), eq(width), eq(height))).thenReturn(decoded);
         }
     }
 }
@@ -0,0 +1,34 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BitmapPoolStatsTest {
+
+    @Test
+    public void testSizeBucketsArePowersOfTwo() {
+        assertEquals(0, BitmapPoolStats.getSizeBucket(1));
+        assertEquals(1, BitmapPoolStats.getSizeBucket(2));
+        assertEquals(1, BitmapPoolStats.getSizeBucket(3));
+        assertEquals(10, BitmapPoolStats.getSizeBucket(1024));
+        assertEquals(10, BitmapPoolStats.getSizeBucket(2047));
+        assertEquals(30, BitmapPoolStats.getSizeBucket(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testCopiesHistogram() {
+        int[] histogram = new int[BitmapPoolStats.SIZE_BUCKET_COUNT];
+        histogram[3] = 2;
+        BitmapPoolStats stats = new BitmapPoolStats(0, 0, 0, 0, 0, 0, 0, histogram);
+        histogram[3] = 5;
+
+        assertEquals(2, stats.getBitmapCount(3));
+    }
+
+    @Test
+    public void testHitRatio() {
+        assertEquals(0f, new BitmapPoolStats(0, 0, 0, 0, 0, 0, 0, null).getHitRatio(), 0f);
+        assertEquals(0.75f, new BitmapPoolStats(3, 1, 0, 0, 0, 0, 0, null).getHitRatio(), 0f);
+    }
+}
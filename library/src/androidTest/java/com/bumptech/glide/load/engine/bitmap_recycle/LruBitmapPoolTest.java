@@ -147,6 +147,49 @@ public class LruBitmapPoolTest {
         assertEquals(Math.round(MAX_SIZE * sizeMultiplier) - MAX_SIZE, strategy.numRemoves);
     }
 
+    @Test
+    public void testStatsCountPutsHitsAndEvictions() {
+        fillPool(pool, MAX_SIZE + 2);
+        pool.get(100, 100, Bitmap.Config.ARGB_8888);
+
+        BitmapPoolStats stats = pool.getStats();
+
+        assertEquals(MAX_SIZE + 2, stats.getPutCount());
+        assertEquals(1, stats.getHitCount());
+        assertEquals(0, stats.getMissCount());
+        assertEquals(2, stats.getEvictionCount());
+        assertEquals(2, stats.getEvictedBytes());
+        assertEquals(MAX_SIZE - 1, stats.getCurrentSize());
+        assertEquals(MAX_SIZE, stats.getMaxSize());
+    }
+
+    @Test
+    public void testStatsHistogramCountsPooledBitmapsBySize() {
+        strategy = new MockStrategy() {
+            @Override
+            public int getSize(Bitmap bitmap) {
+                return 5;
+            }
+        };
+        pool = new LruBitmapPool(100, strategy);
+        fillPool(pool, 3);
+        pool.get(100, 100, Bitmap.Config.ARGB_8888);
+
+        BitmapPoolStats stats = pool.getStats();
+
+        assertEquals(2, stats.getBitmapCount(BitmapPoolStats.getSizeBucket(5)));
+        assertEquals(2, stats.getBitmapCount());
+    }
+
+    @Test
+    public void testStatsAreASnapshot() {
+        BitmapPoolStats stats = pool.getStats();
+        fillPool(pool, 2);
+
+        assertEquals(0, stats.getPutCount());
+        assertEquals(0, stats.getBitmapCount());
+    }
+
     private void fillPool(LruBitmapPool pool, int fillCount) {
         for (int i = 0; i < fillCount; i++) {
             pool.put(createMutableBitmap());
@@ -0,0 +1,81 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SortedSizeCountsTest {
+    private SortedSizeCounts sizes;
+
+    @Before
+    public void setUp() {
+        sizes = new SortedSizeCounts();
+    }
+
+    @Test
+    public void testCeilingSizeIsNoneIfEmpty() {
+        assertEquals(SortedSizeCounts.NONE, sizes.ceilingSize(100));
+    }
+
+    @Test
+    public void testCeilingSizeReturnsExactSize() {
+        sizes.increment(50);
+        sizes.increment(100);
+
+        assertEquals(100, sizes.ceilingSize(100));
+    }
+
+    @Test
+    public void testCeilingSizeReturnsNextLargestSize() {
+        sizes.increment(200);
+        sizes.increment(50);
+        sizes.increment(400);
+
+        assertEquals(200, sizes.ceilingSize(100));
+        assertEquals(50, sizes.ceilingSize(1));
+        assertEquals(SortedSizeCounts.NONE, sizes.ceilingSize(401));
+    }
+
+    @Test
+    public void testCountsEachSize() {
+        sizes.increment(100);
+        sizes.increment(100);
+        sizes.increment(200);
+
+        assertEquals(2, sizes.getCount(100));
+        assertEquals(1, sizes.getCount(200));
+        assertEquals(0, sizes.getCount(300));
+    }
+
+    @Test
+    public void testDecrementRemovesSizeWhenCountReachesZero() {
+        sizes.increment(100);
+        sizes.increment(100);
+        sizes.increment(200);
+
+        sizes.decrement(100);
+        assertEquals(100, sizes.ceilingSize(50));
+
+        sizes.decrement(100);
+        assertEquals(200, sizes.ceilingSize(50));
+        assertEquals(0, sizes.getCount(100));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testThrowsIfDecrementingMissingSize() {
+        sizes.decrement(100);
+    }
+
+    @Test
+    public void testGrowsToHoldManySizes() {
+        for (int i = 100; i > 0; i--) {
+            sizes.increment(i * 10);
+        }
+
+        for (int i = 1; i <= 100; i++) {
+            assertEquals(1, sizes.getCount(i * 10));
+            assertEquals(i * 10, sizes.ceilingSize(i * 10 - 5));
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import android.graphics.Bitmap;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowBitmap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_MODERATE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class StripedLruBitmapPoolTest {
+    // 10x10 ARGB_8888 bitmaps are 400 bytes.
+    private static final int BITMAP_SIZE = 400;
+    private static final int MAX_SIZE = BITMAP_SIZE * 4;
+    private LruBitmapPool[] stripes;
+    private StripedLruBitmapPool pool;
+
+    @Before
+    public void setUp() {
+        stripes = new LruBitmapPool[StripedLruBitmapPool.DEFAULT_STRIPE_COUNT];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new LruBitmapPool(Integer.MAX_VALUE, new FakeStrategy());
+        }
+        pool = new StripedLruBitmapPool(MAX_SIZE, stripes);
+    }
+
+    @Test
+    public void testCanPutAndGetBitmap() {
+        Bitmap bitmap = createMutableBitmap(10, 10);
+        assertTrue(pool.put(bitmap));
+
+        assertEquals(bitmap, pool.get(10, 10, Bitmap.Config.ARGB_8888));
+        assertEquals(0, pool.getStats().getCurrentSize());
+    }
+
+    @Test
+    public void testReturnsNullIfNoMatchingBitmap() {
+        pool.put(createMutableBitmap(10, 10));
+
+        assertNull(pool.get(20, 20, Bitmap.Config.ARGB_8888));
+        assertEquals(1, pool.getStats().getMissCount());
+    }
+
+    @Test
+    public void testDoesNotAddImmutableBitmaps() {
+        Bitmap bitmap = createMutableBitmap(10, 10);
+        Robolectric.shadowOf(bitmap).setMutable(false);
+
+        assertFalse(pool.put(bitmap));
+        assertEquals(0, pool.getStats().getCurrentSize());
+    }
+
+    @Test
+    public void testDoesNotAddBitmapsLargerThanPool() {
+        assertFalse(pool.put(createMutableBitmap(100, 100)));
+        assertEquals(0, pool.getStats().getCurrentSize());
+    }
+
+    @Test
+    public void testSharesMaxSizeBetweenStripes() {
+        for (int i = 0; i < 3; i++) {
+            pool.put(createMutableBitmap(10, 10));
+            pool.put(createMutableBitmap(16, 16));
+        }
+
+        BitmapPoolStats stats = pool.getStats();
+        assertTrue(stats.getCurrentSize() <= MAX_SIZE);
+        assertEquals(6, stats.getPutCount());
+        assertTrue(stats.getEvictionCount() > 0);
+    }
+
+    @Test
+    public void testPutsBitmapsOfDifferentSizeClassesInDifferentStripes() {
+        pool.put(createMutableBitmap(10, 10));
+        pool.put(createMutableBitmap(16, 16));
+
+        int stripesUsed = 0;
+        for (LruBitmapPool stripe : stripes) {
+            if (stripe.getStats().getCurrentSize() > 0) {
+                stripesUsed++;
+            }
+        }
+        assertEquals(2, stripesUsed);
+    }
+
+    @Test
+    public void testClearMemoryRemovesAllBitmaps() {
+        List<Bitmap> bitmaps = new ArrayList<Bitmap>();
+        for (int i = 0; i < 3; i++) {
+            Bitmap bitmap = createMutableBitmap(10, 10);
+            bitmaps.add(bitmap);
+            pool.put(bitmap);
+        }
+
+        pool.clearMemory();
+
+        assertEquals(0, pool.getStats().getCurrentSize());
+        for (Bitmap bitmap : bitmaps) {
+            assertTrue(bitmap.isRecycled());
+        }
+    }
+
+    @Test
+    public void testTrimMemoryBackgroundRemovesHalfOfBitmaps() {
+        for (int i = 0; i < 4; i++) {
+            pool.put(createMutableBitmap(10, 10));
+        }
+
+        pool.trimMemory(TRIM_MEMORY_BACKGROUND);
+
+        assertEquals(MAX_SIZE / 2, pool.getStats().getCurrentSize());
+    }
+
+    @Test
+    public void testTrimMemoryModerateRemovesAllBitmaps() {
+        for (int i = 0; i < 4; i++) {
+            pool.put(createMutableBitmap(10, 10));
+        }
+
+        pool.trimMemory(TRIM_MEMORY_MODERATE);
+
+        assertEquals(0, pool.getStats().getCurrentSize());
+    }
+
+    @Test
+    public void testSetSizeMultiplierEvicts() {
+        for (int i = 0; i < 4; i++) {
+            pool.put(createMutableBitmap(10, 10));
+        }
+
+        pool.setSizeMultiplier(0.5f);
+
+        assertEquals(MAX_SIZE / 2, pool.getStats().getCurrentSize());
+        assertEquals(MAX_SIZE / 2, pool.getStats().getMaxSize());
+    }
+
+    @Test
+    public void testCanPutAndGetFromMultipleThreads() throws InterruptedException {
+        pool = new StripedLruBitmapPool(BITMAP_SIZE * 1000, stripes);
+        final int threadCount = 4;
+        final int perThread = 200;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        final List<Throwable> failures = new ArrayList<Throwable>();
+        for (int i = 0; i < threadCount; i++) {
+            // Bitmaps are created up front, Robolectric shadows aren't intended to be created concurrently.
+            final int dimension = 10 + i * 6;
+            final Bitmap[] bitmaps = new Bitmap[perThread];
+            for (int j = 0; j < perThread; j++) {
+                bitmaps[j] = createMutableBitmap(dimension, dimension);
+            }
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (Bitmap bitmap : bitmaps) {
+                            pool.put(bitmap);
+                            if (pool.get(dimension, dimension, Bitmap.Config.ARGB_8888) == null) {
+                                throw new AssertionError("Failed to get bitmap");
+                            }
+                        }
+                    } catch (Throwable t) {
+                        synchronized (failures) {
+                            failures.add(t);
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }).start();
+        }
+        latch.await();
+
+        assertTrue(failures.isEmpty());
+        BitmapPoolStats stats = pool.getStats();
+        assertEquals(0, stats.getCurrentSize());
+        assertEquals(threadCount * perThread, stats.getHitCount());
+    }
+
+    private static Bitmap createMutableBitmap(int width, int height) {
+        Bitmap bitmap = ShadowBitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        Robolectric.shadowOf(bitmap).setMutable(true);
+        return bitmap;
+    }
+
+    // Requires exact matches and uses the same sizes the striped pool uses to choose stripes.
+    private static class FakeStrategy implements LruPoolStrategy {
+        private final LinkedList<Bitmap> bitmaps = new LinkedList<Bitmap>();
+
+        @Override
+        public void put(Bitmap bitmap) {
+            bitmaps.addFirst(bitmap);
+        }
+
+        @Override
+        public Bitmap get(int width, int height, Bitmap.Config config) {
+            Iterator<Bitmap> iterator = bitmaps.iterator();
+            while (iterator.hasNext()) {
+                Bitmap bitmap = iterator.next();
+                if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+                    iterator.remove();
+                    return bitmap;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Bitmap removeLast() {
+            return bitmaps.removeLast();
+        }
+
+        @Override
+        public String logBitmap(Bitmap bitmap) {
+            return null;
+        }
+
+        @Override
+        public String logBitmap(int width, int height, Bitmap.Config config) {
+            return null;
+        }
+
+        @Override
+        public int getSize(Bitmap bitmap) {
+            return bitmap.getWidth() * bitmap.getHeight() * 4;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.bumptech.glide.load.engine.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DiskCacheKeyLockerTest {
+    private DiskCacheKeyLocker locker;
+
+    @Before
+    public void setUp() {
+        locker = new DiskCacheKeyLocker();
+    }
+
+    @Test
+    public void testSecondAcquireForSameKeyWaitsForRelease() throws InterruptedException {
+        locker.acquire("key");
+        final AtomicBoolean acquired = new AtomicBoolean();
+        final CountDownLatch done = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                locker.acquire("key");
+                acquired.set(true);
+                locker.release("key");
+                done.countDown();
+            }
+        }).start();
+
+        assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+        assertFalse(acquired.get());
+
+        locker.release("key");
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertTrue(acquired.get());
+    }
+
+    @Test
+    public void testAcquireForDifferentKeyDoesNotWait() throws InterruptedException {
+        locker.acquire("first");
+        final CountDownLatch done = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                locker.acquire("second");
+                locker.release("second");
+                done.countDown();
+            }
+        }).start();
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        locker.release("first");
+    }
+
+    @Test
+    public void testLocksAreRemovedWhenReleased() {
+        locker.acquire("first");
+        locker.acquire("second");
+        assertEquals(2, locker.getLockedKeyCount());
+
+        locker.release("first");
+        locker.release("second");
+
+        assertEquals(0, locker.getLockedKeyCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testThrowsIfReleasingKeyThatIsNotHeld() {
+        locker.release("key");
+    }
+}
@@ -0,0 +1,106 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.Resource;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(RobolectricTestRunner.class)
+public class DiskCacheWriteQueueTest {
+    private ExecutorService executor;
+    private DiskCache diskCache;
+    private DiskCacheWriteQueue queue;
+
+    @Before
+    public void setUp() {
+        executor = mock(ExecutorService.class);
+        diskCache = mock(DiskCache.class);
+        queue = new DiskCacheWriteQueue(executor, 2, new Handler(Looper.getMainLooper()));
+    }
+
+    @Test
+    public void testWritesToDiskCacheAndRecyclesResource() {
+        Key key = mock(Key.class);
+        DiskCache.Writer writer = mock(DiskCache.Writer.class);
+        Resource resource = mock(Resource.class);
+        queue.enqueue(diskCache, key, writer, resource);
+        verify(diskCache, never()).put(any(Key.class), any(DiskCache.Writer.class));
+
+        runDrainer();
+
+        verify(diskCache).put(eq(key), eq(writer));
+        verify(resource).recycle();
+        assertEquals(1, queue.getCompletedWriteCount());
+        assertEquals(0, queue.getQueueDepth());
+    }
+
+    @Test
+    public void testOnlyStartsDrainingOnce() {
+        queue.enqueue(diskCache, mock(Key.class), mock(DiskCache.Writer.class), mock(Resource.class));
+        queue.enqueue(diskCache, mock(Key.class), mock(DiskCache.Writer.class), mock(Resource.class));
+
+        verify(executor, times(1)).submit(any(Runnable.class));
+        assertEquals(2, queue.getQueueDepth());
+    }
+
+    @Test
+    public void testDropsOldestWriteIfBacklogIsFull() {
+        Key firstKey = mock(Key.class);
+        Resource first = mock(Resource.class);
+        queue.enqueue(diskCache, firstKey, mock(DiskCache.Writer.class), first);
+        queue.enqueue(diskCache, mock(Key.class), mock(DiskCache.Writer.class), mock(Resource.class));
+        queue.enqueue(diskCache, mock(Key.class), mock(DiskCache.Writer.class), mock(Resource.class));
+
+        verify(first).recycle();
+        assertEquals(1, queue.getDroppedWriteCount());
+        assertEquals(2, queue.getQueueDepth());
+
+        runDrainer();
+
+        verify(diskCache, never()).put(eq(firstKey), any(DiskCache.Writer.class));
+        verify(diskCache, times(2)).put(any(Key.class), any(DiskCache.Writer.class));
+    }
+
+    @Test
+    public void testContinuesDrainingIfWriteThrows() {
+        Key firstKey = mock(Key.class);
+        Resource first = mock(Resource.class);
+        doThrow(new RuntimeException("test")).when(diskCache).put(eq(firstKey), any(DiskCache.Writer.class));
+        queue.enqueue(diskCache, firstKey, mock(DiskCache.Writer.class), first);
+        Key secondKey = mock(Key.class);
+        queue.enqueue(diskCache, secondKey, mock(DiskCache.Writer.class), mock(Resource.class));
+
+        runDrainer();
+
+        verify(first).recycle();
+        verify(diskCache).put(eq(secondKey), any(DiskCache.Writer.class));
+        assertEquals(2, queue.getCompletedWriteCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThrowsIfMaxBacklogIsNotPositive() {
+        new DiskCacheWriteQueue(executor, 0);
+    }
+
+    private void runDrainer() {
+        ArgumentCaptor<Runnable> drainer = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).submit(drainer.capture());
+        drainer.getValue().run();
+    }
+}
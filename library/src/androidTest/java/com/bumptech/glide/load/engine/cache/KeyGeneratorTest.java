@@ -3,10 +3,17 @@ package com.bumptech.glide.load.engine.cache;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class KeyGeneratorTest {
@@ -27,6 +34,40 @@ public class KeyGeneratorTest {
         }
     }
 
+    @Test
+    public void testReturnsSameKeysWhenCalledFromMultipleThreads() throws Exception {
+        final List<StringKey> keys = new ArrayList<StringKey>();
+        List<String> expected = new ArrayList<String>();
+        SafeKeyGenerator other = new SafeKeyGenerator();
+        for (int i = 0; i < 100; i++) {
+            StringKey key = new StringKey(getRandomId());
+            keys.add(key);
+            expected.add(other.getSafeKey(key));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> results = new ArrayList<Future<List<String>>>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(new Callable<List<String>>() {
+                    @Override
+                    public List<String> call() {
+                        List<String> safeKeys = new ArrayList<String>();
+                        for (StringKey key : keys) {
+                            safeKeys.add(keyGenerator.getSafeKey(key));
+                        }
+                        return safeKeys;
+                    }
+                }));
+            }
+            for (Future<List<String>> result : results) {
+                assertEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private String getRandomKeyFromGenerator() {
         return keyGenerator.getSafeKey(new StringKey(getRandomId()));
     }
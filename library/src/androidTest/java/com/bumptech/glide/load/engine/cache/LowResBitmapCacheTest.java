@@ -0,0 +1,112 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import com.bumptech.glide.load.Key;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class LowResBitmapCacheTest {
+
+    @Test
+    public void testReturnsHalfSizeCopyOfBitmapThatWasPut() {
+        LowResBitmapCache cache = new LowResBitmapCache(100 * 100 * 4);
+        MockKey key = new MockKey();
+        cache.put(key, Bitmap.createBitmap(100, 80, Bitmap.Config.ARGB_8888));
+
+        Bitmap copy = cache.remove(key);
+
+        assertNotNull(copy);
+        assertEquals(50, copy.getWidth());
+        assertEquals(40, copy.getHeight());
+    }
+
+    @Test
+    public void testRemoveTakesCopyOutOfCache() {
+        LowResBitmapCache cache = new LowResBitmapCache(100 * 100 * 4);
+        MockKey key = new MockKey();
+        cache.put(key, Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888));
+
+        cache.remove(key);
+
+        assertNull(cache.remove(key));
+        assertEquals(0, cache.getCurrentSize());
+    }
+
+    @Test
+    public void testDoesNotAddCopiesLargerThanCache() {
+        LowResBitmapCache cache = new LowResBitmapCache(10);
+        MockKey key = new MockKey();
+        cache.put(key, Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888));
+
+        assertNull(cache.remove(key));
+    }
+
+    @Test
+    public void testDoesNotAddRecycledBitmaps() {
+        LowResBitmapCache cache = new LowResBitmapCache(100 * 100 * 4);
+        MockKey key = new MockKey();
+        Bitmap bitmap = Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888);
+        bitmap.recycle();
+        cache.put(key, bitmap);
+
+        assertNull(cache.remove(key));
+    }
+
+    @Test
+    public void testDoesNotAddCopiesWhileSuspended() {
+        LowResBitmapCache cache = new LowResBitmapCache(100 * 100 * 4);
+        MockKey key = new MockKey();
+        cache.suspend();
+        cache.put(key, Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888));
+
+        assertNull(cache.remove(key));
+    }
+
+    @Test
+    public void testAddsCopiesAfterResume() {
+        LowResBitmapCache cache = new LowResBitmapCache(100 * 100 * 4);
+        MockKey key = new MockKey();
+        cache.suspend();
+        cache.suspend();
+        cache.resume();
+        assertTrue(cache.isSuspended());
+        cache.resume();
+        cache.put(key, Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888));
+
+        assertNotNull(cache.remove(key));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testThrowsIfResumedWithoutSuspend() {
+        new LowResBitmapCache(100).resume();
+    }
+
+    @Test
+    public void testTrimMemoryBackgroundClearsCache() {
+        LowResBitmapCache cache = new LowResBitmapCache(100 * 100 * 4);
+        cache.put(new MockKey(), Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888));
+        cache.put(new MockKey(), Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888));
+
+        cache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+
+        assertEquals(0, cache.getCurrentSize());
+    }
+
+    private static class MockKey implements Key {
+        @Override
+        public void updateDiskCacheKey(MessageDigest messageDigest) throws UnsupportedEncodingException {
+            messageDigest.update(toString().getBytes("UTF-8"));
+        }
+    }
+}
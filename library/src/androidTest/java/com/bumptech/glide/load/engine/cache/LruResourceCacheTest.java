@@ -9,6 +9,7 @@ import java.io.UnsupportedEncodingException;
 import java.security.MessageDigest;
 
 import static com.bumptech.glide.load.engine.cache.MemoryCache.ResourceRemovedListener;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.eq;
@@ -106,6 +107,45 @@ public class LruResourceCacheTest {
         return resource;
     }
 
+    @Test
+    public void testStatsCountHitsMissesPutsAndEvictions() {
+        LruResourceCache resourceCache = new LruResourceCache(100);
+        resourceCache.setResourceRemovedListener(mock(ResourceRemovedListener.class));
+        MockKey firstKey = new MockKey();
+        resourceCache.put(firstKey, getResource(60));
+        resourceCache.put(new MockKey(), getResource(60));
+        resourceCache.remove(firstKey);
+        resourceCache.remove(new MockKey());
+
+        MemoryCacheStats stats = resourceCache.getStats();
+
+        assertEquals(0, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(2, stats.getPutCount());
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(60, stats.getCurrentSize());
+        assertEquals(100, stats.getMaxSize());
+    }
+
+    @Test
+    public void testStatsCountHits() {
+        LruResourceCache resourceCache = new LruResourceCache(100);
+        MockKey key = new MockKey();
+        resourceCache.put(key, getResource(10));
+        resourceCache.remove(key);
+
+        MemoryCacheStats stats = resourceCache.getStats();
+
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1f, stats.getHitRatio(), 0f);
+    }
+
+    private static EngineResource getResource(int size) {
+        EngineResource resource = mock(EngineResource.class);
+        when(resource.getSize()).thenReturn(size);
+        return resource;
+    }
+
     private static class MockKey implements Key {
         @Override
         public void updateDiskCacheKey(MessageDigest messageDigest) throws UnsupportedEncodingException {
@@ -112,6 +112,24 @@ public class MemorySizeCalculatorTest {
         assertThat(smallBitmapPoolSize, lessThan(normalBitmapPoolSize));
     }
 
+    @Test
+    public void testLowResCacheSizeIsTakenOutOfMemoryCacheSize() {
+        Robolectric.shadowOf(harness.activityManager).setMemoryClass(getLargeEnoughMemoryClass());
+        MemorySizeCalculator calculator = harness.getCalculator();
+
+        assertEquals(calculator.getMemoryCacheSize(),
+                calculator.getMemoryCacheSizeWithLowResCache() + calculator.getLowResCacheSize());
+    }
+
+    @Test
+    public void testLowResCacheCanHoldCopiesOfEverythingInMemoryCache() {
+        Robolectric.shadowOf(harness.activityManager).setMemoryClass(getLargeEnoughMemoryClass());
+        MemorySizeCalculator calculator = harness.getCalculator();
+
+        assertEquals(calculator.getMemoryCacheSizeWithLowResCache()
+                / MemorySizeCalculator.LOW_RES_CACHE_MEMORY_CACHE_DIVISOR, calculator.getLowResCacheSize());
+    }
+
     private int getLargeEnoughMemoryClass() {
         // Memory class is in mb, not bytes!
         return Math.round(harness.getScreenSize() * (harness.bitmapPoolScreens + harness.memoryCacheScreens)
@@ -0,0 +1,184 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.content.ComponentCallbacks2;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.EngineResource;
+import org.junit.Test;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static com.bumptech.glide.load.engine.cache.MemoryCache.ResourceRemovedListener;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ShardedLruResourceCacheTest {
+    private static class TrimClearMemoryCacheHarness {
+        ShardedLruResourceCache resourceCache = new ShardedLruResourceCache(100, 1);
+        EngineResource first = mock(EngineResource.class);
+        EngineResource second = mock(EngineResource.class);
+
+        ResourceRemovedListener listener = mock(ResourceRemovedListener.class);
+
+        public TrimClearMemoryCacheHarness() {
+            when(first.getSize()).thenReturn(50);
+            when(second.getSize()).thenReturn(50);
+            resourceCache.put(new MockKey(), first);
+            resourceCache.put(new MockKey(), second);
+            resourceCache.setResourceRemovedListener(listener);
+        }
+    }
+
+    @Test
+    public void testTrimMemoryModerate() {
+        TrimClearMemoryCacheHarness harness = new TrimClearMemoryCacheHarness();
+
+        harness.resourceCache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_MODERATE);
+
+        verify(harness.listener).onResourceRemoved(eq(harness.first));
+        verify(harness.listener).onResourceRemoved(eq(harness.second));
+    }
+
+    @Test
+    public void testTrimMemoryBackground() {
+        TrimClearMemoryCacheHarness harness = new TrimClearMemoryCacheHarness();
+
+        harness.resourceCache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+
+        verify(harness.listener).onResourceRemoved(harness.first);
+        verify(harness.listener, never()).onResourceRemoved(harness.second);
+    }
+
+    @Test
+    public void testResourceRemovedListenerIsNotifiedWhenResourceIsLargerThanSegment() {
+        ShardedLruResourceCache resourceCache = new ShardedLruResourceCache(100, 2);
+        EngineResource resource = getResource(60);
+
+        ResourceRemovedListener listener = mock(ResourceRemovedListener.class);
+
+        resourceCache.setResourceRemovedListener(listener);
+        resourceCache.put(new MockKey(), resource);
+
+        verify(listener).onResourceRemoved(eq(resource));
+    }
+
+    @Test
+    public void testSizeIsBasedOnResource() {
+        ShardedLruResourceCache resourceCache = new ShardedLruResourceCache(100, 1);
+        EngineResource first = getResource(50);
+        MockKey firstKey = new MockKey();
+        resourceCache.put(firstKey, first);
+        EngineResource second = getResource(50);
+        MockKey secondKey = new MockKey();
+        resourceCache.put(secondKey, second);
+
+        assertTrue(resourceCache.contains(firstKey));
+        assertTrue(resourceCache.contains(secondKey));
+
+        EngineResource third = getResource(50);
+        MockKey thirdKey = new MockKey();
+        resourceCache.put(thirdKey, third);
+
+        assertFalse(resourceCache.contains(firstKey));
+        assertTrue(resourceCache.contains(secondKey));
+        assertTrue(resourceCache.contains(thirdKey));
+    }
+
+    @Test
+    public void testSetSizeMultiplierEvictsFromAllSegments() {
+        ShardedLruResourceCache resourceCache = new ShardedLruResourceCache(400, 4);
+        for (int i = 0; i < 20; i++) {
+            resourceCache.put(new MockKey(), getResource(10));
+        }
+
+        resourceCache.setSizeMultiplier(0);
+
+        assertEquals(0, resourceCache.getCurrentSize());
+    }
+
+    @Test
+    public void testCanPutAndRemoveFromMultipleThreads() throws InterruptedException {
+        final ShardedLruResourceCache resourceCache = new ShardedLruResourceCache(100000, 4);
+        final int threadCount = 4;
+        final int perThread = 250;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        final List<Throwable> failures = new ArrayList<Throwable>();
+        for (int i = 0; i < threadCount; i++) {
+            // Mocks are created up front, Mockito stubbing isn't intended to be used concurrently.
+            final EngineResource[] resources = new EngineResource[perThread];
+            for (int j = 0; j < perThread; j++) {
+                resources[j] = getResource(1);
+            }
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (EngineResource resource : resources) {
+                            MockKey key = new MockKey();
+                            resourceCache.put(key, resource);
+                            if (resourceCache.remove(key) != resource) {
+                                throw new AssertionError("Failed to remove resource");
+                            }
+                        }
+                    } catch (Throwable t) {
+                        synchronized (failures) {
+                            failures.add(t);
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }).start();
+        }
+        latch.await();
+
+        assertTrue(failures.isEmpty());
+        assertEquals(0, resourceCache.getCurrentSize());
+    }
+
+    @Test
+    public void testStatsAreSummedOverSegments() {
+        ShardedLruResourceCache resourceCache = new ShardedLruResourceCache(400, 4);
+        List<MockKey> keys = new ArrayList<MockKey>();
+        for (int i = 0; i < 8; i++) {
+            MockKey key = new MockKey();
+            keys.add(key);
+            resourceCache.put(key, getResource(10));
+        }
+        for (MockKey key : keys) {
+            resourceCache.remove(key);
+        }
+        resourceCache.remove(new MockKey());
+
+        MemoryCacheStats stats = resourceCache.getStats();
+
+        assertEquals(8, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(8, stats.getPutCount());
+        assertEquals(0, stats.getEvictionCount());
+        assertEquals(0, stats.getCurrentSize());
+        assertEquals(400, stats.getMaxSize());
+    }
+
+    private static EngineResource getResource(int size) {
+        EngineResource resource = mock(EngineResource.class);
+        when(resource.getSize()).thenReturn(size);
+        return resource;
+    }
+
+    private static class MockKey implements Key {
+        @Override
+        public void updateDiskCacheKey(MessageDigest messageDigest) throws UnsupportedEncodingException {
+            messageDigest.update(toString().getBytes("UTF-8"));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.content.ComponentCallbacks2;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.EngineResource;
+import org.junit.Test;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.bumptech.glide.load.engine.cache.MemoryCache.ResourceRemovedListener;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TinyLfuResourceCacheTest {
+
+    @Test
+    public void testReturnsResourceThatWasPut() {
+        TinyLfuResourceCache resourceCache = new TinyLfuResourceCache(1000, 100);
+        MockKey key = new MockKey();
+        EngineResource resource = getResource(10);
+        resourceCache.remove(key);
+        resourceCache.put(key, resource);
+
+        assertEquals(resource, resourceCache.remove(key));
+        assertFalse(resourceCache.contains(key));
+    }
+
+    @Test
+    public void testResourceRemovedListenerIsNotifiedWhenResourceIsTooLarge() {
+        TinyLfuResourceCache resourceCache = new TinyLfuResourceCache(100, 100);
+        EngineResource resource = getResource(200);
+
+        ResourceRemovedListener listener = mock(ResourceRemovedListener.class);
+
+        resourceCache.setResourceRemovedListener(listener);
+        resourceCache.put(new MockKey(), resource);
+
+        verify(listener).onResourceRemoved(eq(resource));
+    }
+
+    @Test
+    public void testSizeIsNeverLargerThanMaxSize() {
+        TinyLfuResourceCache resourceCache = new TinyLfuResourceCache(100, 100);
+        for (int i = 0; i < 50; i++) {
+            MockKey key = new MockKey();
+            resourceCache.remove(key);
+            resourceCache.put(key, getResource(10));
+            assertTrue(resourceCache.getCurrentSize() <= 100);
+        }
+    }
+
+    @Test
+    public void testFrequentlyRequestedResourcesSurviveScan() {
+        TinyLfuResourceCache resourceCache = new TinyLfuResourceCache(1000, 1024);
+        List<MockKey> frequent = new ArrayList<MockKey>();
+        for (int i = 0; i < 20; i++) {
+            frequent.add(new MockKey());
+        }
+        for (int i = 0; i < 5; i++) {
+            for (MockKey key : frequent) {
+                EngineResource<?> resource = resourceCache.remove(key);
+                resourceCache.put(key, resource != null ? resource : getResource(10));
+            }
+        }
+
+        for (int i = 0; i < 500; i++) {
+            MockKey key = new MockKey();
+            resourceCache.remove(key);
+            resourceCache.put(key, getResource(10));
+        }
+
+        int retained = 0;
+        for (MockKey key : frequent) {
+            if (resourceCache.contains(key)) {
+                retained++;
+            }
+        }
+        assertTrue("Expected most frequently requested resources to be retained, but only " + retained
+                + " were", retained >= frequent.size() - 2);
+        assertTrue(resourceCache.getRejectedCount() > 0);
+    }
+
+    @Test
+    public void testTracksHitsAndMisses() {
+        TinyLfuResourceCache resourceCache = new TinyLfuResourceCache(1000, 100);
+        MockKey key = new MockKey();
+
+        assertNull(resourceCache.remove(key));
+        resourceCache.put(key, getResource(10));
+        resourceCache.remove(key);
+
+        assertEquals(1, resourceCache.getHitCount());
+        assertEquals(1, resourceCache.getMissCount());
+        assertEquals(0.5f, resourceCache.getHitRatio(), 0.001f);
+    }
+
+    @Test
+    public void testTrimMemoryModerateClearsCache() {
+        TinyLfuResourceCache resourceCache = new TinyLfuResourceCache(1000, 100);
+        ResourceRemovedListener listener = mock(ResourceRemovedListener.class);
+        resourceCache.setResourceRemovedListener(listener);
+        EngineResource first = getResource(10);
+        EngineResource second = getResource(10);
+        resourceCache.put(new MockKey(), first);
+        resourceCache.put(new MockKey(), second);
+
+        resourceCache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_MODERATE);
+
+        verify(listener).onResourceRemoved(eq(first));
+        verify(listener).onResourceRemoved(eq(second));
+        assertEquals(0, resourceCache.getCurrentSize());
+    }
+
+    @Test
+    public void testTrimMemoryBackgroundEvictsHalf() {
+        TinyLfuResourceCache resourceCache = new TinyLfuResourceCache(1000, 100);
+        for (int i = 0; i < 10; i++) {
+            resourceCache.put(new MockKey(), getResource(10));
+        }
+
+        resourceCache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+
+        assertEquals(50, resourceCache.getCurrentSize());
+    }
+
+    @Test
+    public void testSetSizeMultiplierEvicts() {
+        TinyLfuResourceCache resourceCache = new TinyLfuResourceCache(1000, 100);
+        for (int i = 0; i < 10; i++) {
+            resourceCache.put(new MockKey(), getResource(10));
+        }
+
+        resourceCache.setSizeMultiplier(0);
+
+        assertEquals(0, resourceCache.getCurrentSize());
+    }
+
+    @Test
+    public void testStatsCountPutsAndEvictions() {
+        TinyLfuResourceCache resourceCache = new TinyLfuResourceCache(1000, 100);
+        for (int i = 0; i < 10; i++) {
+            resourceCache.put(new MockKey(), getResource(10));
+        }
+        resourceCache.remove(new MockKey());
+
+        resourceCache.setSizeMultiplier(0);
+        MemoryCacheStats stats = resourceCache.getStats();
+
+        assertEquals(10, stats.getPutCount());
+        assertEquals(10, stats.getEvictionCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(0, stats.getCurrentSize());
+        assertEquals(0, stats.getMaxSize());
+    }
+
+    private static EngineResource getResource(int size) {
+        EngineResource resource = mock(EngineResource.class);
+        when(resource.getSize()).thenReturn(size);
+        return resource;
+    }
+
+    private static class MockKey implements Key {
+        @Override
+        public void updateDiskCacheKey(MessageDigest messageDigest) throws UnsupportedEncodingException {
+            messageDigest.update(toString().getBytes("UTF-8"));
+        }
+    }
+}
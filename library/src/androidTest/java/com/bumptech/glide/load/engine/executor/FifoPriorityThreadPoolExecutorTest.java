@@ -7,11 +7,15 @@ import org.robolectric.RobolectricTestRunner;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertThat;
 
 @RunWith(RobolectricTestRunner.class)
@@ -67,8 +71,197 @@ public class FifoPriorityThreadPoolExecutorTest {
         assertThat(executedOrder, contains(executionOrder));
     }
 
-    private static class MockRunnable implements Runnable, Prioritized {
+    @Test
+    public void testQueuedLoadRunsEarlierAfterPriorityIsRaised() throws InterruptedException {
+        final List<Integer> resultPriorities = Collections.synchronizedList(new ArrayList<Integer>());
+        MockRunnable.OnRun onRun = new MockRunnable.OnRun() {
+            @Override
+            public void onRun(int priority) {
+                resultPriorities.add(priority);
+            }
+        };
+        FifoPriorityThreadPoolExecutor executor = new FifoPriorityThreadPoolExecutor(1);
+        CountDownLatch latch = blockExecutor(executor);
+        executor.submit(new MockRunnable(1, onRun));
+        MockRunnable raised = new MockRunnable(2, onRun);
+        Future<?> future = executor.submit(raised);
+
+        raised.priority = 0;
+        assertTrue(executor.setPriority(future, raised.priority));
+        latch.countDown();
+        executor.shutdown();
+        executor.awaitTermination(200, TimeUnit.MILLISECONDS);
+
+        assertThat(resultPriorities, contains(0, 1));
+        assertEquals(0, executor.getPriorityInversionCount());
+    }
+
+    @Test
+    public void testCountsInversionWhenQueuedPriorityChangesWithoutUpdate() throws InterruptedException {
+        MockRunnable.OnRun onRun = new MockRunnable.OnRun() {
+            @Override
+            public void onRun(int priority) { }
+        };
+        FifoPriorityThreadPoolExecutor executor = new FifoPriorityThreadPoolExecutor(1);
+        CountDownLatch latch = blockExecutor(executor);
+        executor.submit(new MockRunnable(1, onRun));
+        MockRunnable stale = new MockRunnable(2, onRun);
+        executor.submit(stale);
+
+        stale.priority = 0;
+        latch.countDown();
+        executor.shutdown();
+        executor.awaitTermination(200, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, executor.getPriorityInversionCount());
+    }
+
+    @Test
+    public void testCannotSetPriorityOfStartedLoad() throws InterruptedException {
+        FifoPriorityThreadPoolExecutor executor = new FifoPriorityThreadPoolExecutor(1);
+        CountDownLatch latch = new CountDownLatch(1);
+        Future<?> running = executor.submit(new BlockingRunnable(latch));
+        Thread.sleep(50);
+
+        assertFalse(executor.setPriority(running, 0));
+        latch.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testLoadsWithSamePriorityAreExecutedInReverseSubmitOrderIfLifo() throws InterruptedException {
+        final List<Integer> executedOrder = Collections.synchronizedList(new ArrayList<Integer>());
+        FifoPriorityThreadPoolExecutor executor = new FifoPriorityThreadPoolExecutor(1, OrderingPolicy.LIFO);
+        CountDownLatch latch = blockExecutor(executor);
+        for (int i = 0; i < 3; i++) {
+            executor.submit(new PositionRunnable(1, i, executedOrder));
+        }
+        executor.submit(new PositionRunnable(0, 3, executedOrder));
+
+        latch.countDown();
+        executor.shutdown();
+        executor.awaitTermination(200, TimeUnit.MILLISECONDS);
+
+        assertThat(executedOrder, contains(3, 2, 1, 0));
+    }
+
+    @Test
+    public void testLoadsPastDeadlineAreExecutedFirstInSubmitOrder() throws InterruptedException {
+        final List<Integer> executedOrder = Collections.synchronizedList(new ArrayList<Integer>());
+        FifoPriorityThreadPoolExecutor executor = new FifoPriorityThreadPoolExecutor(1,
+                OrderingPolicy.lifoWithDeadline(20, TimeUnit.MILLISECONDS));
+        CountDownLatch latch = blockExecutor(executor);
+        executor.submit(new PositionRunnable(1, 0, executedOrder));
+        executor.submit(new PositionRunnable(1, 1, executedOrder));
+        Thread.sleep(50);
+        executor.submit(new PositionRunnable(1, 2, executedOrder));
+        executor.submit(new PositionRunnable(1, 3, executedOrder));
+        // Deadlines are checked when a task starts, so run one high priority task first.
+        executor.submit(new PositionRunnable(0, 4, executedOrder));
+
+        latch.countDown();
+        executor.shutdown();
+        executor.awaitTermination(200, TimeUnit.MILLISECONDS);
+
+        assertThat(executedOrder, contains(4, 0, 1, 3, 2));
+    }
+
+    @Test
+    public void testLoadsPastDeadlineAreExecutedFirstIfOlderLoadIsCancelled() throws InterruptedException {
+        final List<Integer> executedOrder = Collections.synchronizedList(new ArrayList<Integer>());
+        FifoPriorityThreadPoolExecutor executor = new FifoPriorityThreadPoolExecutor(1,
+                OrderingPolicy.lifoWithDeadline(20, TimeUnit.MILLISECONDS));
+        CountDownLatch latch = blockExecutor(executor);
+        Future<?> cancelled = executor.submit(new PositionRunnable(1, 0, executedOrder));
+        executor.submit(new PositionRunnable(1, 1, executedOrder));
+        Thread.sleep(50);
+        executor.submit(new PositionRunnable(1, 2, executedOrder));
+        executor.submit(new PositionRunnable(0, 3, executedOrder));
+        cancelled.cancel(false);
+
+        latch.countDown();
+        executor.shutdown();
+        executor.awaitTermination(200, TimeUnit.MILLISECONDS);
+
+        assertThat(executedOrder, contains(3, 1, 2));
+    }
+
+    @Test
+    public void testRecordsTimeTasksWaitInQueue() throws InterruptedException {
+        FifoPriorityThreadPoolExecutor executor = new FifoPriorityThreadPoolExecutor(1);
+        CountDownLatch latch = blockExecutor(executor);
+        executor.submit(new PositionRunnable(1, 0, new ArrayList<Integer>()));
+
+        assertEquals(1, executor.getQueuedTaskCount());
+        Thread.sleep(50);
+        latch.countDown();
+        executor.shutdown();
+        executor.awaitTermination(200, TimeUnit.MILLISECONDS);
+
+        assertEquals(0, executor.getQueuedTaskCount());
+        assertTrue(executor.getMaxQueueWaitMillis() >= 50);
+        assertTrue(executor.getAverageQueueWaitMillis() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThrowsIfDeadlineIsNotPositive() {
+        OrderingPolicy.lifoWithDeadline(0, TimeUnit.MILLISECONDS);
+    }
+
+    private static CountDownLatch blockExecutor(FifoPriorityThreadPoolExecutor executor) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        executor.submit(new BlockingRunnable(latch));
+        // Give the only thread time to start the blocking runnable so that subsequent runnables are queued.
+        Thread.sleep(50);
+        return latch;
+    }
+
+    private static class BlockingRunnable implements Runnable, Prioritized {
+        private final CountDownLatch latch;
+
+        public BlockingRunnable(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public int getPriority() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void run() {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                // Do nothing.
+            }
+        }
+    }
+
+    private static class PositionRunnable implements Runnable, Prioritized {
         private final int priority;
+        private final int position;
+        private final List<Integer> executedOrder;
+
+        public PositionRunnable(int priority, int position, List<Integer> executedOrder) {
+            this.priority = priority;
+            this.position = position;
+            this.executedOrder = executedOrder;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public void run() {
+            executedOrder.add(position);
+        }
+    }
+
+    private static class MockRunnable implements Runnable, Prioritized {
+        private volatile int priority;
         private final OnRun onRun;
 
         public interface OnRun {
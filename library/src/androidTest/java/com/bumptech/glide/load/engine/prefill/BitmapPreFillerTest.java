@@ -0,0 +1,208 @@
+package com.bumptech.glide.load.engine.prefill;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPoolStats;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPoolStatsProvider;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@RunWith(RobolectricTestRunner.class)
+public class BitmapPreFillerTest {
+    // 10x10 ARGB_8888 bitmaps are 400 bytes.
+    private static final int BITMAP_SIZE = 400;
+    private BitmapPool pool;
+    private FakeClock clock;
+    private BitmapPreFiller preFiller;
+
+    @Before
+    public void setUp() {
+        pool = mock(BitmapPool.class, withSettings().extraInterfaces(BitmapPoolStatsProvider.class));
+        when(pool.put(any(Bitmap.class))).thenReturn(true);
+        setPoolSizes(0, BITMAP_SIZE * 100);
+        clock = new FakeClock();
+        preFiller = new BitmapPreFiller(pool, 0.5f, new Handler(Looper.getMainLooper()), clock);
+        Robolectric.pauseMainLooper();
+    }
+
+    @Test
+    public void testDoesNotAllocateSynchronously() {
+        preFiller.preFill(new PreFillType(10, 10, Bitmap.Config.ARGB_8888, 2));
+
+        verify(pool, never()).put(any(Bitmap.class));
+        assertTrue(preFiller.isRunning());
+    }
+
+    @Test
+    public void testAllocatesRequestedBitmaps() {
+        preFiller.preFill(new PreFillType(10, 10, Bitmap.Config.ARGB_8888, 3));
+        Robolectric.runUiThreadTasks();
+
+        List<Bitmap> bitmaps = capturePutBitmaps(3);
+        for (Bitmap bitmap : bitmaps) {
+            assertEquals(10, bitmap.getWidth());
+            assertEquals(10, bitmap.getHeight());
+            assertEquals(Bitmap.Config.ARGB_8888, bitmap.getConfig());
+        }
+        assertFalse(preFiller.isRunning());
+    }
+
+    @Test
+    public void testDoesNotAllocateMoreThanFractionOfMaxSize() {
+        setPoolSizes(0, BITMAP_SIZE * 4);
+
+        preFiller.preFill(new PreFillType(10, 10, Bitmap.Config.ARGB_8888, 10));
+        Robolectric.runUiThreadTasks();
+
+        capturePutBitmaps(2);
+    }
+
+    @Test
+    public void testSubtractsCurrentPoolSizeFromBudget() {
+        setPoolSizes(BITMAP_SIZE, BITMAP_SIZE * 4);
+
+        preFiller.preFill(new PreFillType(10, 10, Bitmap.Config.ARGB_8888, 10));
+        Robolectric.runUiThreadTasks();
+
+        capturePutBitmaps(1);
+    }
+
+    @Test
+    public void testDoesNothingIfPoolIsAlreadyFullEnough() {
+        setPoolSizes(BITMAP_SIZE * 2, BITMAP_SIZE * 4);
+
+        preFiller.preFill(new PreFillType(10, 10, Bitmap.Config.ARGB_8888, 10));
+        Robolectric.runUiThreadTasks();
+
+        verify(pool, never()).put(any(Bitmap.class));
+        assertFalse(preFiller.isRunning());
+    }
+
+    @Test
+    public void testAllocatesTypesInTurn() {
+        setPoolSizes(0, BITMAP_SIZE * 4);
+
+        preFiller.preFill(new PreFillType(10, 10, Bitmap.Config.ARGB_8888, 10),
+                new PreFillType(5, 5, Bitmap.Config.ARGB_8888, 10));
+        Robolectric.runUiThreadTasks();
+
+        // The budget of 800 bytes fits one 10x10 and four 5x5 Bitmaps once the second 10x10 Bitmap no longer fits.
+        List<Bitmap> bitmaps = capturePutBitmaps(5);
+        assertEquals(10, bitmaps.get(0).getWidth());
+        assertEquals(5, bitmaps.get(1).getWidth());
+        for (Bitmap bitmap : bitmaps.subList(2, bitmaps.size())) {
+            assertEquals(5, bitmap.getWidth());
+        }
+    }
+
+    @Test
+    public void testRecyclesAndStopsTypeIfPoolRejectsBitmap() {
+        when(pool.put(any(Bitmap.class))).thenReturn(false);
+
+        preFiller.preFill(new PreFillType(10, 10, Bitmap.Config.ARGB_8888, 3));
+        Robolectric.runUiThreadTasks();
+
+        List<Bitmap> bitmaps = capturePutBitmaps(1);
+        assertTrue(bitmaps.get(0).isRecycled());
+        assertFalse(preFiller.isRunning());
+    }
+
+    @Test
+    public void testSpreadsAllocationOverMultipleRuns() {
+        clock.tick = BitmapPreFiller.MAX_MILLIS_PER_RUN;
+
+        preFiller.preFill(new PreFillType(10, 10, Bitmap.Config.ARGB_8888, 3));
+        Robolectric.runUiThreadTasks();
+
+        verify(pool, times(1)).put(any(Bitmap.class));
+        assertTrue(preFiller.isRunning());
+
+        Robolectric.idleMainLooper(BitmapPreFiller.INITIAL_BACKOFF_MILLIS);
+        verify(pool, times(2)).put(any(Bitmap.class));
+
+        Robolectric.idleMainLooper(BitmapPreFiller.INITIAL_BACKOFF_MILLIS * BitmapPreFiller.BACKOFF_RATIO);
+        verify(pool, times(3)).put(any(Bitmap.class));
+        assertFalse(preFiller.isRunning());
+    }
+
+    @Test
+    public void testCancelStopsAllocating() {
+        clock.tick = BitmapPreFiller.MAX_MILLIS_PER_RUN;
+        preFiller.preFill(new PreFillType(10, 10, Bitmap.Config.ARGB_8888, 3));
+        Robolectric.runUiThreadTasks();
+
+        preFiller.cancel();
+        Robolectric.idleMainLooper(BitmapPreFiller.MAX_BACKOFF_MILLIS * 10);
+
+        verify(pool, times(1)).put(any(Bitmap.class));
+        assertFalse(preFiller.isRunning());
+    }
+
+    @Test
+    public void testPreFillCancelsPreviousPreFill() {
+        preFiller.preFill(new PreFillType(10, 10, Bitmap.Config.ARGB_8888, 3));
+        preFiller.preFill(new PreFillType(5, 5, Bitmap.Config.ARGB_8888, 1));
+        Robolectric.runUiThreadTasks();
+
+        List<Bitmap> bitmaps = capturePutBitmaps(1);
+        assertEquals(5, bitmaps.get(0).getWidth());
+    }
+
+    @Test
+    public void testDoesNotAllocateForPoolWithoutStats() {
+        BitmapPool poolWithoutStats = mock(BitmapPool.class);
+        preFiller = new BitmapPreFiller(poolWithoutStats, 0.5f, new Handler(Looper.getMainLooper()), clock);
+
+        preFiller.preFill(new PreFillType(10, 10, Bitmap.Config.ARGB_8888, 2));
+        Robolectric.idleMainLooper(BitmapPreFiller.MAX_BACKOFF_MILLIS * 10);
+
+        assertFalse(preFiller.isRunning());
+        verify(poolWithoutStats, never()).put(any(Bitmap.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThrowsIfMaxPoolFractionIsGreaterThanOne() {
+        new BitmapPreFiller(pool, 1.5f);
+    }
+
+    private void setPoolSizes(int currentSize, int maxSize) {
+        when(((BitmapPoolStatsProvider) pool).getStats()).thenReturn(new BitmapPoolStats(0, 0, 0, 0, 0, currentSize, maxSize, null));
+    }
+
+    private List<Bitmap> capturePutBitmaps(int expectedCount) {
+        ArgumentCaptor<Bitmap> captor = ArgumentCaptor.forClass(Bitmap.class);
+        verify(pool, times(expectedCount)).put(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static class FakeClock extends BitmapPreFiller.Clock {
+        private long time;
+        private long tick;
+
+        @Override
+        public long now() {
+            long result = time;
+            time += tick;
+            return result;
+        }
+    }
+}
@@ -148,6 +148,22 @@ public class GifDrawableTest {
         assertFalse(drawable.isRunning());
     }
 
+    @Test
+    public void testStopsFrameManagerOnStop() {
+        drawable.start();
+        drawable.stop();
+
+        verify(frameManager).stop();
+    }
+
+    @Test
+    public void testStopsFrameManagerOnSetVisibleFalse() {
+        drawable.start();
+        drawable.setVisible(false, true);
+
+        verify(frameManager).stop();
+    }
+
     @Test
     public void testStopsOnSetVisibleFalse() {
         drawable.start();
@@ -1,19 +1,411 @@
 package com.bumptech.glide.load.resource.gif;
 
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
 import com.bumptech.glide.gifdecoder.GifDecoder;
-
+import com.bumptech.glide.load.Transformation;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.resource.UnitTransformation;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
 
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @RunWith(RobolectricTestRunner.class)
 public class GifFrameManagerTest {
+    private static final int FRAME_DELAY = 100;
+    private static final String GIF_ID = "gifId";
+    private BitmapPool bitmapPool;
+    private GifDecoder decoder;
+    private ExecutorService decodeService;
+    private GifFrameProducerRegistry.DecoderFactory decoderFactory;
+    private GifFrameProducerRegistry registry;
+    private GifFrameManager.FrameCallback callback;
+    private GifFrameManager frameManager;
+    private int frameIndex;
+    private int runCount;
+
+    @Before
+    public void setUp() {
+        bitmapPool = mock(BitmapPool.class);
+        decoder = mock(GifDecoder.class);
+        when(decoder.getNextDelay()).thenReturn(FRAME_DELAY);
+        when(decoder.getNextFrame()).thenAnswer(new Answer<Bitmap>() {
+            @Override
+            public Bitmap answer(InvocationOnMock invocation) {
+                return Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+            }
+        });
+        decodeService = mock(ExecutorService.class);
+        callback = mock(GifFrameManager.FrameCallback.class);
+        decoderFactory = mock(GifFrameProducerRegistry.DecoderFactory.class);
+        when(decoderFactory.build(any(GifDecoder.class), eq(bitmapPool))).thenReturn(decoder);
+        registry = new GifFrameProducerRegistry(bitmapPool, new Handler(Looper.getMainLooper()), decodeService,
+                decoderFactory);
+        frameManager = new GifFrameManager(registry, GIF_ID, decoder, UnitTransformation.<Bitmap>get(), 100, 100);
+        Robolectric.pauseMainLooper();
+    }
 
     @Test(expected = NullPointerException.class)
     public void testThrowsIfTransformationIsNull() {
-        new GifFrameManager(Robolectric.application, mock(GifDecoder.class), null, 100, 100, 75, 75);
+        new GifFrameManager(registry, GIF_ID, decoder, null, 100, 100);
+    }
+
+    @Test
+    public void testDecodesOnDecodeServiceAndDeliversFrameOnMainThread() {
+        frameManager.getNextFrame(callback);
+        verify(decoder, never()).getNextFrame();
+
+        runNextDecode();
+        verify(callback, never()).onFrameRead(any(Bitmap.class), anyInt());
+
+        Robolectric.runUiThreadTasks();
+        verify(callback).onFrameRead(any(Bitmap.class), eq(0));
+    }
+
+    @Test
+    public void testDecodesAtMostMaxDecodedFramesAhead() {
+        frameManager.getNextFrame(callback);
+        for (int i = 0; i < GifFrameProducer.MAX_DECODED_FRAMES; i++) {
+            runNextDecode();
+            // Delivers decoded frames to the manager without letting the delayed delivery run.
+            Robolectric.runUiThreadTasks();
+        }
+
+        verify(decodeService, times(GifFrameProducer.MAX_DECODED_FRAMES + 1)).submit(any(Runnable.class));
+        runNextDecode();
+        Robolectric.runUiThreadTasks();
+
+        // One frame was delivered immediately, MAX_DECODED_FRAMES are waiting, so no more decodes are started.
+        verify(decodeService, times(GifFrameProducer.MAX_DECODED_FRAMES + 1)).submit(any(Runnable.class));
+    }
+
+    @Test
+    public void testDeliversNextFrameAfterDelayOfCurrentFrame() {
+        frameManager.getNextFrame(callback);
+        runNextDecode();
+        Robolectric.runUiThreadTasks();
+        frameManager.getNextFrame(callback);
+        runNextDecode();
+        Robolectric.runUiThreadTasks();
+
+        verify(callback, times(1)).onFrameRead(any(Bitmap.class), anyInt());
+
+        Robolectric.idleMainLooper(FRAME_DELAY);
+        verify(callback).onFrameRead(any(Bitmap.class), eq(1));
+    }
+
+    @Test
+    public void testReturnsPreviousFrameToPoolWhenNextFrameIsDelivered() {
+        frameManager.getNextFrame(callback);
+        runNextDecode();
+        Robolectric.runUiThreadTasks();
+        Bitmap first = captureDeliveredFrames().get(0);
+
+        frameManager.getNextFrame(callback);
+        runNextDecode();
+        Robolectric.idleMainLooper(FRAME_DELAY);
+
+        verify(bitmapPool).put(eq(first));
+    }
+
+    @Test
+    public void testDoesNotDeliverFramesIfNotRequested() {
+        frameManager.getNextFrame(callback);
+        runNextDecode();
+        Robolectric.runUiThreadTasks();
+        runNextDecode();
+        Robolectric.idleMainLooper(FRAME_DELAY * 10);
+
+        verify(callback, times(1)).onFrameRead(any(Bitmap.class), anyInt());
+    }
+
+    @Test
+    public void testClearReturnsCurrentAndDecodedFramesToPool() {
+        frameManager.getNextFrame(callback);
+        runNextDecode();
+        Robolectric.runUiThreadTasks();
+        runNextDecode();
+        Robolectric.runUiThreadTasks();
+
+        frameManager.clear();
+
+        verify(bitmapPool, times(2)).put(any(Bitmap.class));
+    }
+
+    @Test
+    public void testClearDropsFramesDecodedBeforeClear() {
+        frameManager.getNextFrame(callback);
+        frameManager.clear();
+        runNextDecode();
+        Robolectric.idleMainLooper(FRAME_DELAY * 10);
+
+        verify(callback, never()).onFrameRead(any(Bitmap.class), anyInt());
+        verify(bitmapPool).put(any(Bitmap.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testRecyclesUntransformedFrameIfTransformationReturnsNewResource() {
+        Transformation<Bitmap> transformation = mock(Transformation.class);
+        Resource<Bitmap> transformed = mock(Resource.class);
+        Bitmap transformedBitmap = Bitmap.createBitmap(5, 5, Bitmap.Config.ARGB_8888);
+        when(transformed.get()).thenReturn(transformedBitmap);
+        when(transformation.transform(any(Resource.class), eq(100), eq(100))).thenReturn(transformed);
+        when(transformation.getId()).thenReturn("transformation");
+        frameManager = new GifFrameManager(registry, GIF_ID, decoder, transformation, 100, 100);
+
+        frameManager.getNextFrame(callback);
+        runNextDecode();
+        Robolectric.runUiThreadTasks();
+
+        verify(bitmapPool).put(any(Bitmap.class));
+        verify(callback).onFrameRead(eq(transformedBitmap), anyInt());
+    }
+
+    @Test
+    public void testStopsDecodingIfDecodeFails() {
+        when(decoder.getNextFrame()).thenThrow(new RuntimeException("test"));
+
+        frameManager.getNextFrame(callback);
+        runNextDecode();
+        Robolectric.idleMainLooper(FRAME_DELAY * 10);
+
+        verify(decodeService, times(1)).submit(any(Runnable.class));
+        verify(callback, never()).onFrameRead(any(Bitmap.class), anyInt());
+    }
+
+    @Test
+    public void testDoesNotDecodeUntilFramesAreRequested() {
+        verify(decodeService, never()).submit(any(Runnable.class));
+        assertEquals(0, registry.getSharedProducerCount());
+    }
+
+    @Test
+    public void testManagersForSameGifShareDecodedFrames() {
+        GifFrameManager.FrameCallback otherCallback = mock(GifFrameManager.FrameCallback.class);
+        GifDecoder otherDecoder = mock(GifDecoder.class);
+        GifFrameManager other = new GifFrameManager(registry, GIF_ID, otherDecoder, UnitTransformation.<Bitmap>get(),
+                100, 100);
+
+        frameManager.getNextFrame(callback);
+        other.getNextFrame(otherCallback);
+        runNextDecode();
+        Robolectric.runUiThreadTasks();
+
+        Bitmap first = captureDeliveredFrames().get(0);
+        verify(otherCallback).onFrameRead(eq(first), eq(0));
+        verify(decodeService, times(2)).submit(any(Runnable.class));
+        verify(otherDecoder, never()).advance();
+        assertEquals(1, registry.getSharedProducerCount());
+    }
+
+    @Test
+    public void testProducerDecodesWithItsOwnDecoder() {
+        GifDecoder subscriberDecoder = mock(GifDecoder.class);
+        frameManager = new GifFrameManager(registry, GIF_ID, subscriberDecoder, UnitTransformation.<Bitmap>get(), 100,
+                100);
+
+        frameManager.getNextFrame(callback);
+        runNextDecode();
+
+        verify(decoderFactory).build(eq(subscriberDecoder), eq(bitmapPool));
+        verify(subscriberDecoder, never()).advance();
+        verify(decoder).advance();
+    }
+
+    @Test
+    public void testShutdownStopsDecodeService() {
+        registry.shutdown();
+
+        verify(decodeService).shutdown();
+    }
+
+    @Test
+    public void testDoesNotThrowIfFramesAreRequestedAfterShutdown() {
+        when(decodeService.submit(any(Runnable.class))).thenThrow(new RejectedExecutionException("test"));
+
+        frameManager.getNextFrame(callback);
+        frameManager.clear();
+        Robolectric.idleMainLooper(FRAME_DELAY * 10);
+
+        verify(callback, never()).onFrameRead(any(Bitmap.class), anyInt());
+    }
+
+    @Test
+    public void testManagersForDifferentSizesDoNotShareFrames() {
+        GifFrameManager other = new GifFrameManager(registry, GIF_ID, decoder, UnitTransformation.<Bitmap>get(),
+                50, 50);
+
+        frameManager.getNextFrame(callback);
+        other.getNextFrame(mock(GifFrameManager.FrameCallback.class));
+
+        assertEquals(2, registry.getSharedProducerCount());
+        verify(decodeService, times(2)).submit(any(Runnable.class));
+    }
+
+    @Test
+    public void testManagersWithoutIdDoNotShareFrames() {
+        frameManager = new GifFrameManager(registry, null, decoder, UnitTransformation.<Bitmap>get(), 100, 100);
+        GifFrameManager other = new GifFrameManager(registry, null, decoder, UnitTransformation.<Bitmap>get(), 100,
+                100);
+
+        frameManager.getNextFrame(callback);
+        other.getNextFrame(mock(GifFrameManager.FrameCallback.class));
+
+        assertEquals(0, registry.getSharedProducerCount());
+        verify(decodeService, times(2)).submit(any(Runnable.class));
+    }
+
+    @Test
+    public void testFrameIsNotReturnedToPoolWhileDisplayedByAnotherManager() {
+        GifFrameManager other = new GifFrameManager(registry, GIF_ID, decoder, UnitTransformation.<Bitmap>get(),
+                100, 100);
+        frameManager.getNextFrame(callback);
+        other.getNextFrame(mock(GifFrameManager.FrameCallback.class));
+        runNextDecode();
+        Robolectric.runUiThreadTasks();
+
+        frameManager.clear();
+        verify(bitmapPool, never()).put(any(Bitmap.class));
+
+        other.clear();
+        verify(bitmapPool).put(any(Bitmap.class));
+    }
+
+    @Test
+    public void testStopKeepsCurrentFrameAndReleasesProducer() {
+        frameManager.getNextFrame(callback);
+        runNextDecode();
+        Robolectric.runUiThreadTasks();
+
+        frameManager.stop();
+
+        assertEquals(0, registry.getSharedProducerCount());
+        verify(bitmapPool, never()).put(any(Bitmap.class));
+    }
+
+    @Test
+    public void testDoesNotDeliverFramesAfterStop() {
+        frameManager.getNextFrame(callback);
+        frameManager.stop();
+        runNextDecode();
+        Robolectric.idleMainLooper(FRAME_DELAY * 10);
+
+        verify(callback, never()).onFrameRead(any(Bitmap.class), anyInt());
+    }
+
+    @Test
+    public void testIgnoresFrameDeliveredAfterManagerIsClearedDuringDelivery() {
+        final GifFrameManager other = new GifFrameManager(registry, GIF_ID, decoder, UnitTransformation.<Bitmap>get(),
+                100, 100);
+        GifFrameManager.FrameCallback otherCallback = mock(GifFrameManager.FrameCallback.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                other.clear();
+                return null;
+            }
+        }).when(callback).onFrameRead(any(Bitmap.class), anyInt());
+        frameManager.getNextFrame(callback);
+        other.getNextFrame(otherCallback);
+        runNextDecode();
+
+        Robolectric.runUiThreadTasks();
+        verify(otherCallback, never()).onFrameRead(any(Bitmap.class), anyInt());
+        verify(bitmapPool, never()).put(any(Bitmap.class));
+
+        frameManager.clear();
+        verify(bitmapPool).put(any(Bitmap.class));
+    }
+
+    @Test
+    public void testRemainingManagerContinuesAfterOtherStops() {
+        GifFrameManager.FrameCallback otherCallback = mock(GifFrameManager.FrameCallback.class);
+        GifFrameManager other = new GifFrameManager(registry, GIF_ID, decoder, UnitTransformation.<Bitmap>get(),
+                100, 100);
+        frameManager.getNextFrame(callback);
+        other.getNextFrame(otherCallback);
+        runNextDecode();
+        Robolectric.runUiThreadTasks();
+
+        frameManager.stop();
+        other.getNextFrame(otherCallback);
+        runNextDecode();
+        Robolectric.idleMainLooper(FRAME_DELAY);
+
+        verify(otherCallback).onFrameRead(any(Bitmap.class), eq(1));
+        verify(callback, times(1)).onFrameRead(any(Bitmap.class), anyInt());
+    }
+
+    @Test
+    public void testClearsDecoderOnDecodeServiceWhenLastManagerLeaves() {
+        frameManager.getNextFrame(callback);
+        runNextDecode();
+        Robolectric.runUiThreadTasks();
+
+        frameManager.stop();
+        verify(decoder, never()).clear();
+
+        runSubmitted();
+        verify(decoder).clear();
+    }
+
+    @Test
+    public void testDoesNotClearSharedDecoderWhileAnotherManagerRemains() {
+        GifFrameManager other = new GifFrameManager(registry, GIF_ID, mock(GifDecoder.class),
+                UnitTransformation.<Bitmap>get(), 100, 100);
+        frameManager.getNextFrame(callback);
+        other.getNextFrame(mock(GifFrameManager.FrameCallback.class));
+        runNextDecode();
+        Robolectric.runUiThreadTasks();
+
+        frameManager.stop();
+        runSubmitted();
+
+        verify(decoder, never()).clear();
+    }
+
+    private void runNextDecode() {
+        when(decoder.getCurrentFrameIndex()).thenReturn(frameIndex++);
+        runSubmitted();
+    }
+
+    // Runs everything submitted since the last run in order, including decoders cleared by stopped producers.
+    private void runSubmitted() {
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(decodeService, atLeastOnce()).submit(captor.capture());
+        List<Runnable> submitted = captor.getAllValues();
+        while (runCount < submitted.size()) {
+            submitted.get(runCount++).run();
+        }
+    }
+
+    private List<Bitmap> captureDeliveredFrames() {
+        ArgumentCaptor<Bitmap> captor = ArgumentCaptor.forClass(Bitmap.class);
+        verify(callback, atLeastOnce()).onFrameRead(captor.capture(), anyInt());
+        return captor.getAllValues();
     }
-}
\ No newline at end of file
+}
@@ -8,13 +8,16 @@ import com.bumptech.glide.tests.GlideShadowLooper;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Random;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
@@ -71,6 +74,20 @@ public class GifResourceDecoderTest {
         verify(parserPool).release(eq(parser));
     }
 
+    @Test
+    public void testPassesAllDataFromStreamToParser() {
+        when(parser.parseHeader()).thenReturn(mock(GifHeader.class));
+        // Larger than a single pooled buffer and not a multiple of its size.
+        byte[] data = new byte[200 * 1024 + 17];
+        new Random(0).nextBytes(data);
+
+        decoder.decode(new ByteArrayInputStream(data), 100, 100);
+
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(parserPool).obtain(captor.capture());
+        assertArrayEquals(data, captor.getValue());
+    }
+
     @Test
     public void testHasValidId() {
         assertEquals("", decoder.getId());
@@ -1,16 +1,21 @@
 package com.bumptech.glide.request;
 
+import com.bumptech.glide.Priority;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InOrder;
 
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 public class ThumbnailRequestCoordinatorTest {
     private Request full;
@@ -19,8 +24,8 @@ public class ThumbnailRequestCoordinatorTest {
 
     @Before
     public void setUp() {
-        full = mock(Request.class);
-        thumb = mock(Request.class);
+        full = mock(Request.class, withSettings().extraInterfaces(PrioritizableRequest.class));
+        thumb = mock(Request.class, withSettings().extraInterfaces(PrioritizableRequest.class));
         coordinator = new ThumbnailRequestCoordinator();
         coordinator.setRequests(full, thumb);
     }
@@ -99,6 +104,36 @@ public class ThumbnailRequestCoordinatorTest {
         order.verify(full).clear();
     }
 
+    @Test
+    public void testSetsGivenPriorityOnFullRequest() {
+        coordinator.setPriority(Priority.LOW);
+        verify((PrioritizableRequest) full).setPriority(eq(Priority.LOW));
+    }
+
+    @Test
+    public void testKeepsThumbPriorityOneLevelAboveFullPriority() {
+        coordinator.setPriority(Priority.LOW);
+        verify((PrioritizableRequest) thumb).setPriority(eq(Priority.NORMAL));
+
+        coordinator.setPriority(Priority.NORMAL);
+        verify((PrioritizableRequest) thumb).setPriority(eq(Priority.HIGH));
+
+        coordinator.setPriority(Priority.HIGH);
+        coordinator.setPriority(Priority.IMMEDIATE);
+        verify((PrioritizableRequest) thumb, times(2)).setPriority(eq(Priority.IMMEDIATE));
+    }
+
+    @Test
+    public void testDoesNotSetPriorityOnRequestsThatAreNotPrioritizable() {
+        Request fixedFull = mock(Request.class);
+        Request fixedThumb = mock(Request.class);
+        coordinator.setRequests(fixedFull, fixedThumb);
+
+        coordinator.setPriority(Priority.HIGH);
+
+        verifyZeroInteractions(fixedFull, fixedThumb);
+    }
+
     @Test
     public void testRecyclesRequestsWhenRecycled() {
         coordinator.recycle();
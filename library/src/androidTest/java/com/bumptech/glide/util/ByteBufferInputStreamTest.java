@@ -0,0 +1,80 @@
+package com.bumptech.glide.util;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ByteBufferInputStreamTest {
+    private static final byte[] DATA = new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 };
+
+    @Test
+    public void testReadsAllBytes() {
+        ByteBufferInputStream is = new ByteBufferInputStream(ByteBuffer.wrap(DATA));
+
+        assertEquals(1, is.read());
+        byte[] buffer = new byte[DATA.length];
+        assertEquals(DATA.length - 1, is.read(buffer, 0, buffer.length));
+        assertEquals(-1, is.read());
+        assertEquals(-1, is.read(buffer, 0, buffer.length));
+    }
+
+    @Test
+    public void testDoesNotModifyBufferPosition() {
+        ByteBuffer buffer = ByteBuffer.wrap(DATA);
+        ByteBufferInputStream is = new ByteBufferInputStream(buffer);
+
+        is.skip(4);
+
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void testCanResetToMarkAfterReadingAnyAmount() throws IOException {
+        ByteBufferInputStream is = new ByteBufferInputStream(ByteBuffer.wrap(DATA));
+        is.read();
+        is.mark(1);
+
+        is.skip(DATA.length);
+        is.reset();
+
+        assertTrue(is.markSupported());
+        assertEquals(2, is.read());
+    }
+
+    @Test(expected = IOException.class)
+    public void testThrowsIfResetWithoutMark() throws IOException {
+        new ByteBufferInputStream(ByteBuffer.wrap(DATA)).reset();
+    }
+
+    @Test
+    public void testReadRemainingReturnsUnreadBytes() {
+        ByteBufferInputStream is = new ByteBufferInputStream(ByteBuffer.wrap(DATA));
+        is.skip(6);
+
+        assertArrayEquals(new byte[] { 7, 8 }, is.readRemaining());
+        assertEquals(0, is.available());
+    }
+
+    @Test
+    public void testCanReadFromMappedFile() throws IOException {
+        File file = File.createTempFile("mapped", "tmp");
+        file.deleteOnExit();
+        FileOutputStream os = new FileOutputStream(file);
+        try {
+            os.write(DATA);
+        } finally {
+            os.close();
+        }
+
+        ByteBufferInputStream is = ByteBufferInputStream.fromFile(file);
+
+        assertArrayEquals(DATA, is.readRemaining());
+    }
+}
@@ -0,0 +1,99 @@
+package com.bumptech.glide.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class CancellableInputStreamTest {
+    private static final byte[] DATA = new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 };
+
+    private boolean isCancelled;
+    private CancellableInputStream.CancellationToken token;
+
+    @Before
+    public void setUp() {
+        token = new CancellableInputStream.CancellationToken() {
+            @Override
+            public boolean isCancelled() {
+                return isCancelled;
+            }
+        };
+    }
+
+    @Test
+    public void testReadsWrappedStreamIfNotCancelled() throws IOException {
+        CancellableInputStream is = new CancellableInputStream(new ByteArrayInputStream(DATA), token);
+
+        assertEquals(1, is.read());
+        byte[] buffer = new byte[3];
+        assertEquals(3, is.read(buffer));
+        assertEquals(2, is.read(buffer, 1, 2));
+        assertEquals(2, is.skip(2));
+        assertEquals(8, is.read());
+        assertEquals(-1, is.read());
+    }
+
+    @Test
+    public void testThrowsFromReadIfCancelled() throws IOException {
+        CancellableInputStream is = new CancellableInputStream(new ByteArrayInputStream(DATA), token);
+        is.read();
+        isCancelled = true;
+
+        try {
+            is.read();
+            fail("Failed to throw after cancel");
+        } catch (IOException e) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testThrowsFromBufferedReadsIfCancelled() {
+        CancellableInputStream is = new CancellableInputStream(new ByteArrayInputStream(DATA), token);
+        isCancelled = true;
+
+        try {
+            is.read(new byte[2]);
+            fail("Failed to throw from read(byte[]) after cancel");
+        } catch (IOException e) {
+            // Expected.
+        }
+        try {
+            is.read(new byte[2], 0, 2);
+            fail("Failed to throw from read(byte[], int, int) after cancel");
+        } catch (IOException e) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testThrowsFromSkipIfCancelled() {
+        CancellableInputStream is = new CancellableInputStream(new ByteArrayInputStream(DATA), token);
+        isCancelled = true;
+
+        try {
+            is.skip(2);
+            fail("Failed to throw after cancel");
+        } catch (IOException e) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testClosesWrappedStream() throws IOException {
+        InputStream wrapped = mock(InputStream.class);
+        CancellableInputStream is = new CancellableInputStream(wrapped, token);
+
+        is.close();
+
+        verify(wrapped).close();
+    }
+}
@@ -0,0 +1,96 @@
+package com.bumptech.glide.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TeeInputStreamTest {
+    private static final byte[] DATA = new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 };
+
+    @Test
+    public void testCopiesBytesAsTheyAreRead() throws IOException {
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        TeeInputStream is = new TeeInputStream(new ByteArrayInputStream(DATA), copy);
+
+        assertEquals(1, is.read());
+        byte[] buffer = new byte[3];
+        assertEquals(3, is.read(buffer));
+
+        assertArrayEquals(new byte[] { 1, 2, 3, 4 }, copy.toByteArray());
+    }
+
+    @Test
+    public void testCopiesSkippedBytes() throws IOException {
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        TeeInputStream is = new TeeInputStream(new ByteArrayInputStream(DATA), copy);
+
+        assertEquals(5, is.skip(5));
+
+        assertArrayEquals(new byte[] { 1, 2, 3, 4, 5 }, copy.toByteArray());
+    }
+
+    @Test
+    public void testDrainCopiesRemainingBytes() throws IOException {
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        TeeInputStream is = new TeeInputStream(new ByteArrayInputStream(DATA), copy);
+        is.read();
+
+        is.drain();
+
+        assertArrayEquals(DATA, copy.toByteArray());
+        assertTrue(is.isCopyComplete());
+    }
+
+    @Test
+    public void testDoesNotSupportMark() {
+        TeeInputStream is = new TeeInputStream(new ByteArrayInputStream(DATA), new ByteArrayOutputStream());
+
+        assertFalse(is.markSupported());
+    }
+
+    @Test
+    public void testRecordsAndThrowsReadExceptions() throws IOException {
+        InputStream wrapped = mock(InputStream.class);
+        IOException expected = new IOException("test");
+        when(wrapped.read(any(byte[].class), anyInt(), anyInt())).thenThrow(expected);
+        TeeInputStream is = new TeeInputStream(wrapped, new ByteArrayOutputStream());
+
+        try {
+            is.read(new byte[1]);
+            fail("Expected read to throw");
+        } catch (IOException e) {
+            assertEquals(expected, e);
+        }
+
+        assertEquals(expected, is.getReadException());
+        assertFalse(is.isCopyComplete());
+    }
+
+    @Test
+    public void testContinuesReadingIfCopyFails() throws IOException {
+        OutputStream copy = mock(OutputStream.class);
+        doThrow(new IOException("test")).when(copy).write(any(byte[].class), anyInt(), anyInt());
+        TeeInputStream is = new TeeInputStream(new ByteArrayInputStream(DATA), copy);
+
+        byte[] buffer = new byte[DATA.length];
+        assertEquals(DATA.length, is.read(buffer));
+
+        assertArrayEquals(DATA, buffer);
+        assertFalse(is.isCopyComplete());
+    }
+}
@@ -0,0 +1,46 @@
+package com.bumptech.glide.util;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class UtilTest {
+
+    @Test
+    public void testUpdateDigestUtf8MatchesUtf8Bytes() throws Exception {
+        StringBuilder longString = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            longString.append("aé日😀");
+        }
+        String[] strings = new String[] { "", "testId", "héllo wörld", "日本語",
+                "😀", "a\ud800b", longString.toString() };
+
+        for (String string : strings) {
+            MessageDigest expected = getDigest();
+            expected.update(string.getBytes("UTF-8"));
+            MessageDigest actual = getDigest();
+            Util.updateDigestUtf8(actual, string);
+
+            assertArrayEquals(string, expected.digest(), actual.digest());
+        }
+    }
+
+    @Test
+    public void testUpdateDigestIntMatchesBigEndianBytes() throws Exception {
+        MessageDigest expected = getDigest();
+        expected.update(ByteBuffer.allocate(8).putInt(123456).putInt(-1).array());
+        MessageDigest actual = getDigest();
+        Util.updateDigest(actual, 123456);
+        Util.updateDigest(actual, -1);
+
+        assertArrayEquals(expected.digest(), actual.digest());
+    }
+
+    private static MessageDigest getDigest() throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256");
+    }
+}
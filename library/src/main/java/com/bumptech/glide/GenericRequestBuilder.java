@@ -633,7 +633,7 @@ public class GenericRequestBuilder<ModelType, DataType, ResourceType, TranscodeT
             }
 
             if (thumbnailRequestBuilder.priority == null) {
-                thumbnailRequestBuilder.priority = getThumbnailPriority();
+                thumbnailRequestBuilder.priority = ThumbnailRequestCoordinator.getThumbnailPriority(priority);
             }
 
             Request thumbnailRequest = thumbnailRequestBuilder.buildRequest(target,
@@ -644,8 +644,8 @@ public class GenericRequestBuilder<ModelType, DataType, ResourceType, TranscodeT
         } else if (thumbSizeMultiplier != null) {
             ThumbnailRequestCoordinator requestCoordinator = new ThumbnailRequestCoordinator();
             Request fullRequest = buildRequest(target, sizeMultiplier, priority, requestCoordinator);
-            Request thumbnailRequest = buildRequest(target, thumbSizeMultiplier, getThumbnailPriority(),
-                    requestCoordinator);
+            Request thumbnailRequest = buildRequest(target, thumbSizeMultiplier,
+                    ThumbnailRequestCoordinator.getThumbnailPriority(priority), requestCoordinator);
             requestCoordinator.setRequests(fullRequest, thumbnailRequest);
             result = requestCoordinator;
         } else {
@@ -654,18 +654,6 @@ public class GenericRequestBuilder<ModelType, DataType, ResourceType, TranscodeT
         return result;
     }
 
-    private Priority getThumbnailPriority() {
-        final Priority result;
-        if (priority == Priority.LOW) {
-            result = Priority.NORMAL;
-        } else if (priority == Priority.NORMAL) {
-            result = Priority.HIGH;
-        } else {
-            result = Priority.IMMEDIATE;
-        }
-        return result;
-    }
-
     private Request buildRequest(Target<TranscodeType> target, float sizeMultiplier, Priority priority,
             RequestCoordinator requestCoordinator) {
         if (model == null) {
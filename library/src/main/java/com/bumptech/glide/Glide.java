@@ -18,7 +18,10 @@ import android.widget.ImageView;
 
 import com.bumptech.glide.load.engine.Engine;
 import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.cache.LowResBitmapCache;
 import com.bumptech.glide.load.engine.cache.MemoryCache;
+import com.bumptech.glide.load.engine.prefill.BitmapPreFiller;
+import com.bumptech.glide.load.engine.prefill.PreFillType;
 import com.bumptech.glide.load.model.GenericLoaderFactory;
 import com.bumptech.glide.load.model.GlideUrl;
 import com.bumptech.glide.load.model.ImageVideoWrapper;
@@ -44,6 +47,7 @@ import com.bumptech.glide.load.resource.drawable.GlideDrawable;
 import com.bumptech.glide.load.resource.file.StreamFileDataLoadProvider;
 import com.bumptech.glide.load.resource.gif.GifDrawable;
 import com.bumptech.glide.load.resource.gif.GifDrawableLoadProvider;
+import com.bumptech.glide.load.resource.gif.GifFrameProducerRegistry;
 import com.bumptech.glide.load.resource.gifbitmap.GifBitmapWrapper;
 import com.bumptech.glide.load.resource.gifbitmap.GifBitmapWrapperTransformation;
 import com.bumptech.glide.load.resource.gifbitmap.ImageVideoGifDrawableLoadProvider;
@@ -83,6 +87,8 @@ public class Glide {
     private final Engine engine;
     private final BitmapPool bitmapPool;
     private final MemoryCache memoryCache;
+    private final LowResBitmapCache lowResCache;
+    private final GifFrameProducerRegistry gifFrameProducerRegistry;
     private final ImageViewTargetFactory imageViewTargetFactory = new ImageViewTargetFactory();
     private final TranscoderRegistry transcoderRegistry = new TranscoderRegistry();
     private final DataLoadProviderRegistry dataLoadProviderRegistry;
@@ -91,6 +97,7 @@ public class Glide {
     private final FitCenter bitmapFitCenter;
     private final GifBitmapWrapperTransformation drawableFitCenter;
     private final Handler mainHandler;
+    private BitmapPreFiller bitmapPreFiller;
 
     /**
      * Returns a directory with a default name in the private cache directory of the application to use to store
@@ -175,14 +182,20 @@ public class Glide {
 
     // For testing.
     static void tearDown() {
+        if (glide != null) {
+            glide.gifFrameProducerRegistry.shutdown();
+        }
         glide = null;
     }
 
-    Glide(Engine engine, MemoryCache memoryCache, BitmapPool bitmapPool, Context context) {
+    Glide(Engine engine, MemoryCache memoryCache, LowResBitmapCache lowResCache, BitmapPool bitmapPool,
+            Context context) {
         this.engine = engine;
         this.bitmapPool = bitmapPool;
         this.memoryCache = memoryCache;
+        this.lowResCache = lowResCache;
         mainHandler = new Handler(Looper.getMainLooper());
+        gifFrameProducerRegistry = new GifFrameProducerRegistry(bitmapPool);
 
         dataLoadProviderRegistry = new DataLoadProviderRegistry();
 
@@ -254,6 +267,14 @@ public class Glide {
         return bitmapPool;
     }
 
+    /**
+     * Returns the {@link com.bumptech.glide.load.resource.gif.GifFrameProducerRegistry} that shares decoded frames
+     * between {@link com.bumptech.glide.load.resource.gif.GifDrawable}s displaying the same GIF.
+     */
+    public GifFrameProducerRegistry getGifFrameProducerRegistry() {
+        return gifFrameProducerRegistry;
+    }
+
     <Z, R> ResourceTranscoder<Z, R> buildTranscoder(Class<Z> decodedClass, Class<R> transcodedClass) {
         return transcoderRegistry.get(decodedClass, transcodedClass);
     }
@@ -294,14 +315,54 @@ public class Glide {
         return loaderFactory;
     }
 
+    /**
+     * Gradually allocates {@link android.graphics.Bitmap}s of the given types in short runs on the main thread and adds
+     * them to the {@link com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool} so that the first images loaded
+     * after the app starts don't have to allocate their own. Any previous pre-fill still in progress is cancelled.
+     *
+     * <p>
+     *     At most {@link BitmapPreFiller#DEFAULT_MAX_POOL_FRACTION} of the pool's maximum size is allocated. Pre-filling
+     *     stops if {@link #clearMemory()} or {@link #trimMemory(int)} is called.
+     * </p>
+     *
+     * @see com.bumptech.glide.load.engine.prefill.BitmapPreFiller
+     *
+     * @param preFillTypes The sizes, configs and numbers of {@link android.graphics.Bitmap}s to allocate.
+     */
+    public void preFillBitmapPool(PreFillType... preFillTypes) {
+        Util.assertMainThread();
+        if (bitmapPreFiller == null) {
+            bitmapPreFiller = new BitmapPreFiller(bitmapPool);
+        }
+        bitmapPreFiller.preFill(preFillTypes);
+    }
+
+    private void cancelBitmapPreFill() {
+        if (bitmapPreFiller != null && Util.isOnMainThread()) {
+            bitmapPreFiller.cancel();
+        }
+    }
+
     /**
      * Clears as much memory as possible.
      *
      * @see android.content.ComponentCallbacks2#onLowMemory()
      */
     public void clearMemory() {
-        bitmapPool.clearMemory();
-        memoryCache.clearMemory();
+        cancelBitmapPreFill();
+        // Low resolution copies would only allocate more memory while memory is being freed.
+        if (lowResCache != null) {
+            lowResCache.suspend();
+            lowResCache.clearMemory();
+        }
+        try {
+            bitmapPool.clearMemory();
+            memoryCache.clearMemory();
+        } finally {
+            if (lowResCache != null) {
+                lowResCache.resume();
+            }
+        }
     }
 
     /**
@@ -310,8 +371,19 @@ public class Glide {
      * @see android.content.ComponentCallbacks2#onTrimMemory(int)
      */
     public void trimMemory(int level) {
-        bitmapPool.trimMemory(level);
-        memoryCache.trimMemory(level);
+        cancelBitmapPreFill();
+        if (lowResCache != null) {
+            lowResCache.suspend();
+            lowResCache.trimMemory(level);
+        }
+        try {
+            bitmapPool.trimMemory(level);
+            memoryCache.trimMemory(level);
+        } finally {
+            if (lowResCache != null) {
+                lowResCache.resume();
+            }
+        }
     }
 
     /**
@@ -328,6 +400,9 @@ public class Glide {
     public void setMemoryCategory(MemoryCategory memoryCategory) {
         memoryCache.setSizeMultiplier(memoryCategory.getMultiplier());
         bitmapPool.setSizeMultiplier(memoryCategory.getMultiplier());
+        if (lowResCache != null) {
+            lowResCache.setSizeMultiplier(memoryCategory.getMultiplier());
+        }
     }
 
     /**
@@ -3,16 +3,21 @@ package com.bumptech.glide;
 import android.content.Context;
 import android.os.Build;
 import com.bumptech.glide.load.engine.Engine;
+import com.bumptech.glide.load.engine.EngineConfig;
 import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
 import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPoolAdapter;
 import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
 import com.bumptech.glide.load.engine.cache.DiskCache;
 import com.bumptech.glide.load.engine.cache.DiskCacheAdapter;
+import com.bumptech.glide.load.engine.cache.DiskCacheWriteQueue;
 import com.bumptech.glide.load.engine.cache.DiskLruCacheWrapper;
+import com.bumptech.glide.load.engine.cache.LowResBitmapCache;
 import com.bumptech.glide.load.engine.cache.LruResourceCache;
 import com.bumptech.glide.load.engine.cache.MemoryCache;
 import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.load.engine.cache.ShardedLruResourceCache;
 import com.bumptech.glide.load.engine.executor.FifoPriorityThreadPoolExecutor;
+import com.bumptech.glide.load.engine.executor.OrderingPolicy;
 
 import java.io.File;
 import java.util.concurrent.ExecutorService;
@@ -21,13 +26,21 @@ import java.util.concurrent.ExecutorService;
  * A builder class for setting default structural classes for Glide to use.
  */
 public class GlideBuilder {
+    private static final int DEFAULT_DISK_CACHE_THREAD_COUNT = 1;
+
     private Context context;
     private Engine engine;
     private BitmapPool bitmapPool;
     private MemoryCache memoryCache;
+    private LowResBitmapCache lowResCache;
     private DiskCache diskCache;
+    private DiskCacheWriteQueue diskCacheWriteQueue;
     private ExecutorService resizeService;
     private ExecutorService diskCacheService;
+    private ExecutorService sourceService;
+    private int diskCacheThreadCount = DEFAULT_DISK_CACHE_THREAD_COUNT;
+    private OrderingPolicy orderingPolicy = OrderingPolicy.FIFO;
+    private boolean isEngineThreadSafe;
 
     public GlideBuilder(Context context) {
         this.context = context.getApplicationContext();
@@ -49,6 +62,9 @@ public class GlideBuilder {
      * Sets the {@link com.bumptech.glide.load.engine.cache.MemoryCache} implementation to store
      * {@link com.bumptech.glide.load.engine.Resource}s that are not currently in use.
      *
+     * @see com.bumptech.glide.load.engine.cache.LruResourceCache
+     * @see com.bumptech.glide.load.engine.cache.TinyLfuResourceCache
+     *
      * @param memoryCache  The cache to use.
      * @return This builder.
      */
@@ -57,6 +73,25 @@ public class GlideBuilder {
         return this;
     }
 
+    /**
+     * Sets an optional {@link com.bumptech.glide.load.engine.cache.LowResBitmapCache} that stores low resolution
+     * copies of {@link android.graphics.Bitmap}s evicted from the memory cache. Subsequent loads of the same resource
+     * will display the copy as their placeholder until the full resolution resource is loaded. Not used by default.
+     *
+     * <p>
+     *     {@link com.bumptech.glide.load.engine.cache.MemorySizeCalculator#getLowResCacheSize()} provides a
+     *     recommended size. The default memory cache is made smaller by the same amount when a low resolution cache is
+     *     set so that the two together use no more memory than the memory cache would alone.
+     * </p>
+     *
+     * @param lowResCache The cache to use, or null to disable low resolution placeholders.
+     * @return This builder.
+     */
+    public GlideBuilder setLowResBitmapCache(LowResBitmapCache lowResCache) {
+        this.lowResCache = lowResCache;
+        return this;
+    }
+
     /**
      * Sets the {@link com.bumptech.glide.load.engine.cache.DiskCache} implementation to use to store
      * {@link com.bumptech.glide.load.engine.Resource} data and thumbnails.
@@ -69,6 +104,25 @@ public class GlideBuilder {
         return this;
     }
 
+    /**
+     * Sets an optional {@link com.bumptech.glide.load.engine.cache.DiskCacheWriteQueue} used to write transformed
+     * {@link com.bumptech.glide.load.engine.Resource}s to the disk cache in the background after they are displayed
+     * rather than before. Not used by default.
+     *
+     * <p>
+     *     Writing in the background means encoding a resource no longer delays displaying it, at the cost of holding on
+     *     to the resource until the write finishes and of dropping writes if they are queued faster than they can be
+     *     performed. The queue also exposes metrics for its backlog and write latency.
+     * </p>
+     *
+     * @param writeQueue The queue to use, or null to write resources before they are displayed.
+     * @return This builder.
+     */
+    public GlideBuilder setDiskCacheWriteQueue(DiskCacheWriteQueue writeQueue) {
+        this.diskCacheWriteQueue = writeQueue;
+        return this;
+    }
+
     /**
      * Sets the {@link java.util.concurrent.ExecutorService} implementation to use when retrieving
      * {@link com.bumptech.glide.load.engine.Resource}s that are not already in the cache.
@@ -109,6 +163,109 @@ public class GlideBuilder {
         return this;
     }
 
+    /**
+     * Sets the {@link java.util.concurrent.ExecutorService} implementation to use to fetch data for
+     * {@link com.bumptech.glide.load.engine.Resource}s that are not already in the cache, for example by
+     * downloading them. Fetched data is then decoded on the resize service.
+     *
+     * <p>
+     *     Not used by default, data is fetched and decoded on the resize service. Starting a fetch mostly waits on the
+     *     network, for example for a connection and the response headers, so this service should usually have more
+     *     threads than the resize service, which is sized to the number of cores, typically around twice as many.
+     *     Fetched streams are handed to the resize service as is and read while they are decoded, so using a source
+     *     service doesn't hold any more data in memory.
+     * </p>
+     *
+     * <p>
+     *     Any implementation must order requests based on their {@link com.bumptech.glide.Priority} for thumbnail
+     *     requests to work properly.
+     * </p>
+     *
+     * @see #setResizeService(java.util.concurrent.ExecutorService)
+     * @see com.bumptech.glide.load.engine.executor.FifoPriorityThreadPoolExecutor
+     *
+     * @param service The ExecutorService to use, or null to fetch and decode data on the resize service.
+     * @return This builder.
+     */
+    public GlideBuilder setSourceService(ExecutorService service) {
+        this.sourceService = service;
+        return this;
+    }
+
+    /**
+     * Sets the number of threads used by the default disk cache {@link java.util.concurrent.ExecutorService} to
+     * retrieve {@link com.bumptech.glide.load.engine.Resource}s that are currently in cache. Defaults to 1. Ignored
+     * if a service is set via {@link #setDiskCacheService(java.util.concurrent.ExecutorService)}.
+     *
+     * <p>
+     *     Flash storage typically handles several reads at once well, so using around as many threads as there are
+     *     cores lets many cached images load in parallel, for example when a grid of images is first shown. Reads and
+     *     writes for the same key are still performed one at a time by
+     *     {@link com.bumptech.glide.load.engine.cache.DiskLruCacheWrapper}. Any custom
+     *     {@link com.bumptech.glide.load.engine.cache.DiskCache} set via
+     *     {@link #setDiskCache(com.bumptech.glide.load.engine.cache.DiskCache)} must be safe to access from multiple
+     *     threads if more than one thread is used.
+     * </p>
+     *
+     * @param threadCount The number of threads, must be greater than 0.
+     * @return This builder.
+     */
+    public GlideBuilder setDiskCacheThreadCount(int threadCount) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Thread count must be > 0");
+        }
+        this.diskCacheThreadCount = threadCount;
+        return this;
+    }
+
+    /**
+     * Sets the order in which the default resize and disk cache {@link java.util.concurrent.ExecutorService}s run
+     * loads with the same {@link com.bumptech.glide.Priority}. Defaults to
+     * {@link com.bumptech.glide.load.engine.executor.OrderingPolicy#FIFO}. Ignored for any service set via
+     * {@link #setResizeService(java.util.concurrent.ExecutorService)} or
+     * {@link #setDiskCacheService(java.util.concurrent.ExecutorService)}. There is no default source service, one set
+     * via {@link #setSourceService(java.util.concurrent.ExecutorService)} keeps its own ordering.
+     *
+     * <p>
+     *     Apps that mostly load images into quickly scrolled lists may prefer
+     *     {@link com.bumptech.glide.load.engine.executor.OrderingPolicy#lifoWithDeadline(long,
+     *     java.util.concurrent.TimeUnit)} so that images for visible views load before images for views that have
+     *     already scrolled away.
+     * </p>
+     *
+     * @param orderingPolicy The policy to use.
+     * @return This builder.
+     */
+    public GlideBuilder setOrderingPolicy(OrderingPolicy orderingPolicy) {
+        this.orderingPolicy = orderingPolicy;
+        return this;
+    }
+
+    /**
+     * Sets whether or not the {@link com.bumptech.glide.load.engine.Engine} may start loads and release resources on
+     * threads other than the main thread. Defaults to false.
+     *
+     * <p>
+     *     A thread safe engine guards its in memory bookkeeping with locks so that memory cache hits and new loads
+     *     started by background callers don't need to be posted to the main thread. Any
+     *     {@link com.bumptech.glide.load.engine.cache.MemoryCache} set via
+     *     {@link #setMemoryCache(com.bumptech.glide.load.engine.cache.MemoryCache)} must also be safe to access
+     *     from multiple threads. If no memory cache is set, a
+     *     {@link com.bumptech.glide.load.engine.cache.ShardedLruResourceCache} will be used.
+     * </p>
+     *
+     * @see com.bumptech.glide.load.engine.EngineConfig#EngineConfig(
+     *  com.bumptech.glide.load.engine.cache.LowResBitmapCache,
+     *  com.bumptech.glide.load.engine.cache.DiskCacheWriteQueue, java.util.concurrent.ExecutorService, boolean)
+     *
+     * @param isThreadSafe True to allow loads from any thread.
+     * @return This builder.
+     */
+    public GlideBuilder setEngineThreadSafe(boolean isThreadSafe) {
+        this.isEngineThreadSafe = isThreadSafe;
+        return this;
+    }
+
     // For testing.
     GlideBuilder setEngine(Engine engine) {
         this.engine = engine;
@@ -118,10 +275,10 @@ public class GlideBuilder {
     Glide createGlide() {
         if (resizeService == null) {
             final int cores = Math.max(1, Runtime.getRuntime().availableProcessors());
-            resizeService = new FifoPriorityThreadPoolExecutor(cores);
+            resizeService = new FifoPriorityThreadPoolExecutor(cores, orderingPolicy);
         }
         if (diskCacheService == null) {
-            diskCacheService = new FifoPriorityThreadPoolExecutor(1);
+            diskCacheService = new FifoPriorityThreadPoolExecutor(diskCacheThreadCount, orderingPolicy);
         }
 
         MemorySizeCalculator calculator = new MemorySizeCalculator(context);
@@ -134,7 +291,13 @@ public class GlideBuilder {
         }
 
         if (memoryCache == null) {
-            memoryCache = new LruResourceCache(calculator.getMemoryCacheSize());
+            int memoryCacheSize = lowResCache != null ? calculator.getMemoryCacheSizeWithLowResCache()
+                    : calculator.getMemoryCacheSize();
+            if (isEngineThreadSafe) {
+                memoryCache = new ShardedLruResourceCache(memoryCacheSize);
+            } else {
+                memoryCache = new LruResourceCache(memoryCacheSize);
+            }
         }
 
         if (diskCache == null) {
@@ -148,9 +311,10 @@ public class GlideBuilder {
         }
 
         if (engine == null) {
-            engine = new Engine(memoryCache, diskCache, resizeService, diskCacheService);
+            EngineConfig config = new EngineConfig(lowResCache, diskCacheWriteQueue, sourceService, isEngineThreadSafe);
+            engine = new Engine(memoryCache, diskCache, resizeService, diskCacheService, config);
         }
 
-        return new Glide(engine, memoryCache, bitmapPool, context);
+        return new Glide(engine, memoryCache, lowResCache, bitmapPool, context);
     }
 }
\ No newline at end of file
@@ -8,6 +8,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A DataFetcher that retrieves an {@link java.io.InputStream} for a Url.
@@ -15,11 +19,16 @@ import java.net.URL;
 public class HttpUrlFetcher implements DataFetcher<InputStream> {
     private static final int MAXIMUM_REDIRECTS = 5;
     private static final HttpUrlConnectionFactory DEFAULT_CONNECTION_FACTORY = new DefaultHttpUrlConnectionFactory();
+    // Disconnecting can block on network I/O and cancel is often called on the main thread, so connections are
+    // disconnected on a single background thread that only exists while there is work to do.
+    private static final Executor DEFAULT_DISCONNECT_EXECUTOR = new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>());
 
     private final GlideUrl glideUrl;
     private final HttpUrlConnectionFactory connectionFactory;
+    private final Executor disconnectExecutor;
 
-    private HttpURLConnection urlConnection;
+    private volatile HttpURLConnection urlConnection;
     private InputStream stream;
     private volatile boolean isCancelled;
 
@@ -29,8 +38,14 @@ public class HttpUrlFetcher implements DataFetcher<InputStream> {
 
     // Visible for testing.
     HttpUrlFetcher(GlideUrl glideUrl, HttpUrlConnectionFactory connectionFactory) {
+        this(glideUrl, connectionFactory, DEFAULT_DISCONNECT_EXECUTOR);
+    }
+
+    // Visible for testing.
+    HttpUrlFetcher(GlideUrl glideUrl, HttpUrlConnectionFactory connectionFactory, Executor disconnectExecutor) {
         this.glideUrl = glideUrl;
         this.connectionFactory = connectionFactory;
+        this.disconnectExecutor = disconnectExecutor;
     }
 
     @Override
@@ -44,6 +59,9 @@ public class HttpUrlFetcher implements DataFetcher<InputStream> {
         } else if (url.equals(lastUrl)) {
             throw new IOException("In re-direct loop");
         }
+        if (isCancelled) {
+            return null;
+        }
         urlConnection = connectionFactory.build(url);
         urlConnection.setConnectTimeout(2500);
         urlConnection.setReadTimeout(2500);
@@ -52,6 +70,7 @@ public class HttpUrlFetcher implements DataFetcher<InputStream> {
 
         // Connect explicitly to avoid errors in decoders if connection fails.
         urlConnection.connect();
+        // Cancel may have been called before the connection was visible to it.
         if (isCancelled) {
             return null;
         }
@@ -93,11 +112,23 @@ public class HttpUrlFetcher implements DataFetcher<InputStream> {
         return glideUrl.toString();
     }
 
+    /**
+     * Stops any in progress download by disconnecting the connection on a background thread. Reads from the stream
+     * returned by {@link #loadData(com.bumptech.glide.Priority)} will then fail, so decoders stop early instead of
+     * downloading and decoding the rest of the image.
+     */
     @Override
     public void cancel() {
-        // TODO: we should consider disconnecting the url connection here, but we can't do so directly because cancel is
-        // often called on the main thread.
         isCancelled = true;
+        final HttpURLConnection connection = urlConnection;
+        if (connection != null) {
+            disconnectExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    connection.disconnect();
+                }
+            });
+        }
     }
 
     interface HttpUrlConnectionFactory {
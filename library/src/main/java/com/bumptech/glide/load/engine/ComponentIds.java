@@ -0,0 +1,43 @@
+package com.bumptech.glide.load.engine;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Maps the ids of decoders, encoders, transformations and transcoders to small integers so that
+ * {@link com.bumptech.glide.load.engine.EngineKey}s can be compared without comparing id strings.
+ *
+ * <p>
+ *     Equal ids always map to the same integer for the lifetime of the process. Ids are never removed, which is fine
+ *     because the number of distinct component ids in an application is small.
+ * </p>
+ */
+final class ComponentIds {
+    // Reserved for components that are not present.
+    static final int NONE = 0;
+
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<String, Integer>();
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(NONE + 1);
+
+    private ComponentIds() {
+        // Utility class.
+    }
+
+    /**
+     * Returns the integer for the given component id, or {@link #NONE} if the id is null.
+     */
+    static int intern(String componentId) {
+        if (componentId == null) {
+            return NONE;
+        }
+        Integer result = IDS.get(componentId);
+        if (result == null) {
+            Integer candidate = NEXT_ID.getAndIncrement();
+            result = IDS.putIfAbsent(componentId, candidate);
+            if (result == null) {
+                result = candidate;
+            }
+        }
+        return result;
+    }
+}
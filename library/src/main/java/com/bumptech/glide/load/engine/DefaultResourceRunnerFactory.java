@@ -16,18 +16,35 @@ import java.util.concurrent.ExecutorService;
 
 class DefaultResourceRunnerFactory implements ResourceRunnerFactory {
     private final CacheLoader cacheLoader;
-    private DiskCache diskCache;
-    private Handler mainHandler;
-    private ExecutorService diskCacheService;
-    private ExecutorService service;
+    private final DiskCache diskCache;
+    private final Handler mainHandler;
+    private final ExecutorService diskCacheService;
+    private final ExecutorService service;
+    private final ExecutorService sourceRunnerService;
+    private final StageTimings stageTimings;
+    private final SourceResourceRunner.Config sourceRunnerConfig;
+    private final boolean isThreadSafe;
 
-    public DefaultResourceRunnerFactory(DiskCache diskCache, Handler mainHandler,
-            ExecutorService diskCacheService, ExecutorService resizeService) {
+    /**
+     * @param stageTimings Records the timings of the stages of every load started by runners from this factory.
+     * @param config The optional disk cache write queue and source service and whether jobs must be thread safe.
+     */
+    DefaultResourceRunnerFactory(DiskCache diskCache, Handler mainHandler, ExecutorService diskCacheService,
+            ExecutorService resizeService, StageTimings stageTimings, EngineConfig config) {
         this.diskCache = diskCache;
         this.mainHandler = mainHandler;
         this.diskCacheService = diskCacheService;
         this.service = resizeService;
+        this.stageTimings = stageTimings;
+        this.isThreadSafe = config.isThreadSafe();
         cacheLoader = new CacheLoader(diskCache);
+
+        // With a source service, the source runner is started there and submits decoding to the resize service.
+        ExecutorService sourceService = config.getSourceService();
+        ExecutorService decodeService = sourceService != null ? resizeService : null;
+        sourceRunnerService = sourceService != null ? sourceService : resizeService;
+        sourceRunnerConfig = new SourceResourceRunner.Config(config.getWriteQueue(), decodeService, stageTimings,
+                null /*writerFactory*/);
     }
 
     @Override
@@ -37,13 +54,15 @@ class DefaultResourceRunnerFactory implements ResourceRunnerFactory {
             ResourceTranscoder<Z, R> transcoder, Priority priority, boolean isMemoryCacheable,
             DiskCacheStrategy diskCacheStrategy, EngineJobListener listener) {
 
-        EngineJob engineJob = new EngineJob(key, mainHandler, isMemoryCacheable, listener);
+        EngineJob engineJob = new EngineJob(key, mainHandler, isMemoryCacheable, isThreadSafe, listener,
+                null /*engineResourceFactory*/);
 
         SourceResourceRunner<T, Z, R> sourceRunner = new SourceResourceRunner<T, Z, R>(key, width, height, cacheLoader,
                 cacheDecoder, fetcher, sourceEncoder, decoder, transformation, encoder, transcoder, diskCache,
-                priority, diskCacheStrategy, engineJob);
+                priority, diskCacheStrategy, engineJob, sourceRunnerConfig);
 
         return new ResourceRunner<Z, R>(key, width, height, cacheLoader, cacheDecoder, transformation,
-                transcoder, sourceRunner, diskCacheService, diskCacheStrategy, service, engineJob, priority);
+                transcoder, sourceRunner, diskCacheService, diskCacheStrategy, sourceRunnerService, stageTimings,
+                engineJob, priority);
     }
 }
@@ -1,5 +1,6 @@
 package com.bumptech.glide.load.engine;
 
+import android.graphics.Bitmap;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
@@ -14,7 +15,10 @@ import com.bumptech.glide.load.ResourceEncoder;
 import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.data.DataFetcher;
 import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.LowResBitmapCache;
 import com.bumptech.glide.load.engine.cache.MemoryCache;
+import com.bumptech.glide.load.engine.executor.Prioritized;
+import com.bumptech.glide.load.resource.bitmap.GlideBitmapDrawable;
 import com.bumptech.glide.load.resource.transcode.ResourceTranscoder;
 import com.bumptech.glide.request.ResourceCallback;
 import com.bumptech.glide.util.LogTime;
@@ -25,20 +29,34 @@ import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Responsible for starting loads and managing active and cached resources.
  */
 public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedListener, EngineResource.ResourceListener {
     private static final String TAG = "Engine";
+    // The maximum number of cleared references removed from active resources each time a load is started. Keeps the
+    // active resources bounded even if the thread that created the Engine is never idle without adding much to the
+    // cost of any single load.
+    private static final int MAX_CLEARED_REFS_PER_LOAD = 16;
     private final Map<Key, ResourceRunner> runners;
     private final ResourceRunnerFactory factory;
     private final EngineKeyFactory keyFactory;
     private final MemoryCache cache;
+    private final LowResBitmapCache lowResCache;
+    private final ExecutorService lowResCopyService;
     private final Map<Key, WeakReference<EngineResource>> activeResources;
     private final ReferenceQueue<EngineResource> resourceReferenceQueue;
     private final Handler mainHandler;
+    private final boolean isThreadSafe;
+    // Guards compound operations on runners, activeResources and the memory cache.
+    private final Object lock = new Object();
+    private final AtomicLong clearedActiveResourceCount = new AtomicLong();
+    private final StageTimings stageTimings = new StageTimings();
 
     /**
      * Allows a request to indicate it no longer is interested in a given load.
@@ -46,10 +64,44 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
     public static class LoadStatus {
         private final EngineJob engineJob;
         private final ResourceCallback cb;
+        private final Bitmap lowResPlaceholder;
+        private final ResourceRunner runner;
 
         public LoadStatus(ResourceCallback cb, EngineJob engineJob) {
+            this(cb, engineJob, null, null);
+        }
+
+        LoadStatus(ResourceCallback cb, EngineJob engineJob, Bitmap lowResPlaceholder, ResourceRunner runner) {
             this.cb = cb;
             this.engineJob = engineJob;
+            this.lowResPlaceholder = lowResPlaceholder;
+            this.runner = runner;
+        }
+
+        /**
+         * Returns a low resolution copy of a previous load of the same resource that can be displayed until the load
+         * completes, or null if no copy is available.
+         *
+         * @see com.bumptech.glide.load.engine.cache.LowResBitmapCache
+         */
+        public Bitmap getLowResPlaceholder() {
+            return lowResPlaceholder;
+        }
+
+        /**
+         * Changes the priority of the load, for example when the view it is for scrolls on or off screen.
+         *
+         * <p>
+         *     Loads for the same resource started by multiple requests are shared, so the most recent priority set
+         *     by any of those requests is used.
+         * </p>
+         *
+         * @param priority The new priority.
+         */
+        public void setPriority(Priority priority) {
+            if (runner != null) {
+                runner.setPriority(priority);
+            }
         }
 
         public void cancel() {
@@ -59,16 +111,38 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
 
     public Engine(MemoryCache memoryCache, DiskCache diskCache, ExecutorService resizeService,
             ExecutorService diskCacheService) {
-        this(null, memoryCache, diskCache, resizeService, diskCacheService, null, null, null);
+        this(memoryCache, diskCache, resizeService, diskCacheService, EngineConfig.DEFAULT);
+    }
+
+    /**
+     * Constructor for Engine.
+     *
+     * @param memoryCache The cache to store resources in when they are no longer in use. Must be safe to access from
+     *                    multiple threads if the config is thread safe.
+     * @param diskCache The cache to store resources and their original data in.
+     * @param resizeService The service to use to load resources from their original data.
+     * @param diskCacheService The service to use to load resources from the disk cache.
+     * @param config The optional parts of the Engine.
+     */
+    public Engine(MemoryCache memoryCache, DiskCache diskCache, ExecutorService resizeService,
+            ExecutorService diskCacheService, EngineConfig config) {
+        this(null, memoryCache, diskCache, resizeService, diskCacheService, null, null, null, config);
     }
 
     Engine(ResourceRunnerFactory factory, MemoryCache cache, DiskCache diskCache, ExecutorService resizeService,
             ExecutorService diskCacheService, Map<Key, ResourceRunner> runners, EngineKeyFactory keyFactory,
-            Map<Key, WeakReference<EngineResource>> activeResources) {
+            Map<Key, WeakReference<EngineResource>> activeResources, EngineConfig config) {
         this.cache = cache;
+        this.lowResCache = config.getLowResCache();
+        this.lowResCopyService = resizeService;
+        this.isThreadSafe = config.isThreadSafe();
 
         if (activeResources == null) {
-            activeResources = new HashMap<Key, WeakReference<EngineResource>>();
+            if (isThreadSafe) {
+                activeResources = new ConcurrentHashMap<Key, WeakReference<EngineResource>>();
+            } else {
+                activeResources = new HashMap<Key, WeakReference<EngineResource>>();
+            }
         }
         this.activeResources = activeResources;
 
@@ -78,26 +152,30 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
         this.keyFactory = keyFactory;
 
         if (runners == null) {
-            runners = new HashMap<Key, ResourceRunner>();
+            if (isThreadSafe) {
+                runners = new ConcurrentHashMap<Key, ResourceRunner>();
+            } else {
+                runners = new HashMap<Key, ResourceRunner>();
+            }
         }
         this.runners = runners;
 
         if (factory == null) {
             factory = new DefaultResourceRunnerFactory(diskCache, new Handler(Looper.getMainLooper()),
-                    diskCacheService, resizeService);
+                    diskCacheService, resizeService, stageTimings, config);
         }
         this.factory = factory;
 
         resourceReferenceQueue = new ReferenceQueue<EngineResource>();
         MessageQueue queue = Looper.myQueue();
-        queue.addIdleHandler(new RefQueueIdleHandler(activeResources, resourceReferenceQueue));
+        queue.addIdleHandler(new RefQueueIdleHandler());
         cache.setResourceRemovedListener(this);
 
         mainHandler = new Handler(Looper.getMainLooper(), new ResourceRecyclerCallback());
     }
 
     /**
-     * Starts a load for the given arguments. Must be called on the main thread.
+     * Starts a load for the given arguments. Must be called on the main thread unless this Engine is thread safe.
      *
      * <p>
      *     The flow for any request is as follows:
@@ -141,17 +219,52 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
             DataFetcher<T> fetcher, Encoder<T> sourceEncoder, ResourceDecoder<T, Z> decoder,
             Transformation<Z> transformation, ResourceEncoder<Z> encoder, ResourceTranscoder<Z, R> transcoder,
             Priority priority, boolean isMemoryCacheable, DiskCacheStrategy diskCacheStrategy, ResourceCallback cb) {
-        Util.assertMainThread();
+        if (!isThreadSafe) {
+            Util.assertMainThread();
+        }
         long startTime = LogTime.getLogTime();
 
         final String id = fetcher.getId();
         EngineKey key = keyFactory.buildKey(id, width, height, cacheDecoder, decoder, transformation, encoder,
                 transcoder, sourceEncoder);
 
-        EngineResource cached = cache.remove(key);
+        EngineResource<?> cached;
+        EngineResource<?> active = null;
+        EngineJob existingJob = null;
+        ResourceRunner existingRunner = null;
+        ResourceRunner<Z, R> runner = null;
+        Bitmap lowResPlaceholder = null;
+        synchronized (lock) {
+            clearReferenceQueue(MAX_CLEARED_REFS_PER_LOAD);
+            cached = loadFromCache(key);
+            if (cached == null) {
+                active = loadFromActiveResources(key);
+            }
+            if (cached == null && active == null) {
+                existingRunner = runners.get(key);
+                if (existingRunner != null) {
+                    existingJob = existingRunner.getJob();
+                    existingJob.addCallback(cb);
+                } else {
+                    runner = factory.build(key, width, height, cacheDecoder, fetcher, sourceEncoder, decoder,
+                            transformation, encoder, transcoder, priority, isMemoryCacheable, diskCacheStrategy, this);
+                    runner.getJob().addCallback(cb);
+                    runners.put(key, runner);
+                    runner.queue();
+                }
+                if (lowResCache != null) {
+                    lowResPlaceholder = lowResCache.remove(key);
+                }
+            }
+        }
+
+        if (cached == null && runner == null) {
+            // The key was only used for lookups, so it can be reused by the next load.
+            keyFactory.release(key);
+        }
+
+        // Callbacks are notified outside of our lock so they are free to start or release other loads.
         if (cached != null) {
-            cached.acquire(1);
-            activeResources.put(key, new ResourceWeakReference(key, cached, resourceReferenceQueue));
             cb.onResourceReady(cached);
             if (Log.isLoggable(TAG, Log.VERBOSE)) {
                 Log.v(TAG, "loaded resource from cache in " + LogTime.getElapsedMillis(startTime));
@@ -159,42 +272,86 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
             return null;
         }
 
-        WeakReference<EngineResource> activeRef = activeResources.get(key);
-        if (activeRef != null) {
-            EngineResource active = activeRef.get();
-            if (active != null) {
-                active.acquire(1);
-                cb.onResourceReady(active);
-                if (Log.isLoggable(TAG, Log.VERBOSE)) {
-                    Log.v(TAG, "loaded resource from active resources in " + LogTime.getElapsedMillis(startTime));
-                }
-                return null;
-            } else {
-                activeResources.remove(key);
+        if (active != null) {
+            cb.onResourceReady(active);
+            if (Log.isLoggable(TAG, Log.VERBOSE)) {
+                Log.v(TAG, "loaded resource from active resources in " + LogTime.getElapsedMillis(startTime));
             }
+            return null;
         }
 
-        ResourceRunner current = runners.get(key);
-        if (current != null) {
-            EngineJob job = current.getJob();
-            job.addCallback(cb);
+        if (existingJob != null) {
             if (Log.isLoggable(TAG, Log.VERBOSE)) {
                 Log.v(TAG, "added to existing load in " + LogTime.getElapsedMillis(startTime));
             }
-            return new LoadStatus(cb, job);
+            return new LoadStatus(cb, existingJob, lowResPlaceholder, existingRunner);
         }
 
-        long start = LogTime.getLogTime();
-        ResourceRunner<Z, R> runner = factory.build(key, width, height, cacheDecoder, fetcher, sourceEncoder, decoder,
-                transformation, encoder, transcoder, priority, isMemoryCacheable, diskCacheStrategy, this);
-        runner.getJob().addCallback(cb);
-        runners.put(key, runner);
-        runner.queue();
         if (Log.isLoggable(TAG, Log.VERBOSE)) {
-            Log.v(TAG, "queued new load in " + LogTime.getElapsedMillis(start));
             Log.v(TAG, "finished load in engine in " + LogTime.getElapsedMillis(startTime));
         }
-        return new LoadStatus(cb, runner.getJob());
+        return new LoadStatus(cb, runner.getJob(), lowResPlaceholder, runner);
+    }
+
+    /**
+     * Returns the total number of entries for resources that were garbage collected without being released that have
+     * been removed from the set of active resources.
+     *
+     * <p>
+     *     A steadily increasing count indicates that consumers are dropping resources without releasing them.
+     * </p>
+     */
+    public long getClearedActiveResourceCount() {
+        return clearedActiveResourceCount.get();
+    }
+
+    /**
+     * Returns the timings of each stage of the loads started by this Engine, along with how often loads were cancelled
+     * before each stage.
+     */
+    public StageTimings getStageTimings() {
+        return stageTimings;
+    }
+
+    // Must be called while holding lock.
+    private void clearReferenceQueue(int maxToClear) {
+        ResourceWeakReference ref;
+        int cleared = 0;
+        while (cleared < maxToClear && (ref = (ResourceWeakReference) resourceReferenceQueue.poll()) != null) {
+            // The key may since have been mapped to a new reference for a new resource that we must not remove.
+            if (activeResources.get(ref.key) == ref) {
+                activeResources.remove(ref.key);
+                clearedActiveResourceCount.incrementAndGet();
+            }
+            cleared++;
+        }
+    }
+
+    // Must be called while holding lock.
+    private EngineResource<?> loadFromCache(Key key) {
+        EngineResource<?> cached = cache.remove(key);
+        if (cached != null) {
+            cached.acquire(1);
+            cached.setReleaseHandled(false);
+            activeResources.put(key, new ResourceWeakReference(key, cached, resourceReferenceQueue));
+        }
+        return cached;
+    }
+
+    // Must be called while holding lock.
+    private EngineResource<?> loadFromActiveResources(Key key) {
+        EngineResource<?> active = null;
+        WeakReference<EngineResource> activeRef = activeResources.get(key);
+        if (activeRef != null) {
+            active = activeRef.get();
+            if (active != null) {
+                active.acquire(1);
+                active.setReleaseHandled(false);
+            } else {
+                activeResources.remove(key);
+            }
+        }
+        return active;
     }
 
     public void release(Resource resource) {
@@ -209,36 +366,71 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
     @SuppressWarnings("unchecked")
     @Override
     public void onEngineJobComplete(Key key, EngineResource<?> resource) {
-        // A null resource indicates that the load failed, usually due to an exception.
-        if (resource != null) {
-            resource.setResourceListener(key, this);
-            activeResources.put(key, new ResourceWeakReference(key, resource, resourceReferenceQueue));
+        synchronized (lock) {
+            // A null resource indicates that the load failed, usually due to an exception.
+            if (resource != null) {
+                resource.setResourceListener(key, this);
+                activeResources.put(key, new ResourceWeakReference(key, resource, resourceReferenceQueue));
+            }
+            runners.remove(key);
         }
-        runners.remove(key);
     }
 
     @Override
     public void onEngineJobCancelled(EngineJob engineJob, Key key) {
-        ResourceRunner runner = runners.get(key);
-        if (runner.getJob() == engineJob) {
+        ResourceRunner runner;
+        synchronized (lock) {
+            runner = runners.get(key);
+            if (runner == null || runner.getJob() != engineJob) {
+                return;
+            }
             runners.remove(key);
-            runner.cancel();
         }
+        runner.cancel();
     }
 
     @Override
     public void onResourceRemoved(final EngineResource resource) {
-        recycleResource(resource);
+        // Evictions happen while the memory cache is updated, possibly while holding the engine's lock, so the low
+        // resolution copy is made on the resize service and only the recycle is posted once the copy is made.
+        if (lowResCache != null && !lowResCache.isSuspended() && resource.getKey() != null
+                && getBitmap(resource.get()) != null) {
+            try {
+                lowResCopyService.submit(new LowResCopier(lowResCache, resource));
+            } catch (RejectedExecutionException e) {
+                recycleResource(resource);
+            }
+        } else {
+            recycleResource(resource);
+        }
+    }
+
+    private static Bitmap getBitmap(Object resource) {
+        if (resource instanceof Bitmap) {
+            return (Bitmap) resource;
+        } else if (resource instanceof GlideBitmapDrawable) {
+            return ((GlideBitmapDrawable) resource).getBitmap();
+        }
+        return null;
     }
 
     @Override
     public void onResourceReleased(Key cacheKey, EngineResource resource) {
-        activeResources.remove(cacheKey);
-        if (resource.isCacheable()) {
-            cache.put(cacheKey, resource);
-        } else {
-            recycleResource(resource);
+        synchronized (lock) {
+            // A concurrent load may have acquired the resource again before we obtained the lock, in which case it
+            // is still active. If it was also released again, only one of the two notifications may cache or recycle
+            // it.
+            if ((isThreadSafe && resource.isAcquired()) || resource.isReleaseHandled()) {
+                return;
+            }
+            resource.setReleaseHandled(true);
+            activeResources.remove(cacheKey);
+            if (resource.isCacheable()) {
+                cache.put(cacheKey, resource);
+                return;
+            }
         }
+        recycleResource(resource);
     }
 
     private void recycleResource(EngineResource resource) {
@@ -247,6 +439,33 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
         mainHandler.obtainMessage(ResourceRecyclerCallback.RECYCLE_RESOURCE, resource).sendToTarget();
     }
 
+    private class LowResCopier implements Runnable, Prioritized {
+        private final LowResBitmapCache lowResCache;
+        private final EngineResource resource;
+
+        public LowResCopier(LowResBitmapCache lowResCache, EngineResource resource) {
+            this.lowResCache = lowResCache;
+            this.resource = resource;
+        }
+
+        @Override
+        public void run() {
+            try {
+                // The cache may have been suspended since the copy was requested.
+                if (!lowResCache.isSuspended()) {
+                    lowResCache.put(resource.getKey(), getBitmap(resource.get()));
+                }
+            } finally {
+                recycleResource(resource);
+            }
+        }
+
+        @Override
+        public int getPriority() {
+            return Priority.LOW.ordinal();
+        }
+    }
+
     private static class ResourceRecyclerCallback implements Handler.Callback {
         public static final int RECYCLE_RESOURCE = 1;
 
@@ -270,24 +489,15 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
         }
     }
 
-    // Responsible for cleaning up the active resource map by remove weak references that have been cleared.
-    private static class RefQueueIdleHandler implements MessageQueue.IdleHandler {
-        private Map<Key, WeakReference<EngineResource>> activeResources;
-        private ReferenceQueue<EngineResource> queue;
-
-        public RefQueueIdleHandler(Map<Key, WeakReference<EngineResource>> activeResources,
-                                   ReferenceQueue<EngineResource> queue) {
-            this.activeResources = activeResources;
-            this.queue = queue;
-        }
+    // Responsible for cleaning up the active resource map by removing weak references that have been cleared. Clears
+    // the entire queue each time the thread is idle, loads clear any remaining references in smaller batches.
+    private class RefQueueIdleHandler implements MessageQueue.IdleHandler {
 
         @Override
         public boolean queueIdle() {
-            ResourceWeakReference ref = (ResourceWeakReference) queue.poll();
-            if (ref != null) {
-                activeResources.remove(ref.key);
+            synchronized (lock) {
+                clearReferenceQueue(Integer.MAX_VALUE);
             }
-
             return true;
         }
     }
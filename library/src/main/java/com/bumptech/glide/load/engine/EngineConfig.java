@@ -0,0 +1,67 @@
+package com.bumptech.glide.load.engine;
+
+import com.bumptech.glide.load.engine.cache.DiskCacheWriteQueue;
+import com.bumptech.glide.load.engine.cache.LowResBitmapCache;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The optional parts of an {@link com.bumptech.glide.load.engine.Engine}.
+ */
+public final class EngineConfig {
+    /**
+     * A config for an Engine that must be used on the main thread and has no low resolution cache, disk cache write
+     * queue or source service.
+     */
+    public static final EngineConfig DEFAULT = new EngineConfig(null, null, null, false);
+
+    private final LowResBitmapCache lowResCache;
+    private final DiskCacheWriteQueue writeQueue;
+    private final ExecutorService sourceService;
+    private final boolean isThreadSafe;
+
+    /**
+     * Constructor for EngineConfig.
+     *
+     * <p>
+     *     A thread safe Engine allows {@link Engine#load}, {@link Engine#release(Resource)} and the various job and
+     *     resource callbacks to be called from any thread. The main thread is then only used to deliver the results of
+     *     new loads. The Engine's {@link com.bumptech.glide.load.engine.cache.MemoryCache} must also be safe to access
+     *     from multiple threads if the Engine is thread safe.
+     * </p>
+     *
+     * @param lowResCache An optional cache to store low resolution copies of {@link android.graphics.Bitmap}s evicted
+     *                    from the memory cache in, or null.
+     * @param writeQueue An optional queue to write transformed resources to the disk cache in the background after
+     *                   they are loaded, or null to write them before the load completes.
+     * @param sourceService An optional service to fetch data that isn't in the disk cache on, typically with more
+     *                      threads than the resize service since fetches mostly wait on the network. Fetched data is
+     *                      then decoded on the resize service. If null, data is fetched and decoded on the resize
+     *                      service.
+     * @param isThreadSafe True if loads may be started and resources released from any thread, false if both must
+     *                     happen on the main thread.
+     */
+    public EngineConfig(LowResBitmapCache lowResCache, DiskCacheWriteQueue writeQueue, ExecutorService sourceService,
+            boolean isThreadSafe) {
+        this.lowResCache = lowResCache;
+        this.writeQueue = writeQueue;
+        this.sourceService = sourceService;
+        this.isThreadSafe = isThreadSafe;
+    }
+
+    LowResBitmapCache getLowResCache() {
+        return lowResCache;
+    }
+
+    DiskCacheWriteQueue getWriteQueue() {
+        return writeQueue;
+    }
+
+    ExecutorService getSourceService() {
+        return sourceService;
+    }
+
+    boolean isThreadSafe() {
+        return isThreadSafe;
+    }
+}
@@ -16,7 +16,8 @@ import java.util.List;
  */
 class EngineJob implements ResourceCallback {
     private static final String TAG = "EngineJob";
-    private static final EngineResourceFactory DEFAULT_FACTORY = new DefaultEngineResourceFactory();
+    private static final EngineResourceFactory DEFAULT_FACTORY = new DefaultEngineResourceFactory(false);
+    private static final EngineResourceFactory THREAD_SAFE_FACTORY = new DefaultEngineResourceFactory(true);
 
     private final List<ResourceCallback> cbs = new ArrayList<ResourceCallback>();
     private final EngineResourceFactory engineResourceFactory;
@@ -24,43 +25,108 @@ class EngineJob implements ResourceCallback {
     private final Key key;
     private final Handler mainHandler;
     private final boolean isCacheable;
-
-    private boolean isCancelled;
-    private boolean isComplete;
-
-    public EngineJob(Key key, Handler mainHandler, boolean isCacheable, EngineJobListener listener) {
-        this(key, mainHandler, isCacheable, listener, DEFAULT_FACTORY);
-    }
-
-    public EngineJob(Key key, Handler mainHandler, boolean isCacheable, EngineJobListener listener,
-                     EngineResourceFactory engineResourceFactory) {
+    private final boolean isThreadSafe;
+
+    private volatile boolean isCancelled;
+    private volatile boolean isComplete;
+
+    /**
+     * @param isThreadSafe True if callbacks may be added and removed from any thread, false if they must be added and
+     *                     removed on the main thread.
+     * @param engineResourceFactory The factory to wrap loaded resources with, or null to use the default.
+     */
+    EngineJob(Key key, Handler mainHandler, boolean isCacheable, boolean isThreadSafe, EngineJobListener listener,
+            EngineResourceFactory engineResourceFactory) {
+        if (engineResourceFactory == null) {
+            engineResourceFactory = isThreadSafe ? THREAD_SAFE_FACTORY : DEFAULT_FACTORY;
+        }
         this.key = key;
         this.isCacheable = isCacheable;
+        this.isThreadSafe = isThreadSafe;
         this.listener = listener;
         this.mainHandler = mainHandler;
         this.engineResourceFactory = engineResourceFactory;
     }
 
+    /**
+     * Adds the given callback to the set of callbacks that will be notified when the load completes. Must be called
+     * on the main thread unless this job is thread safe.
+     */
     public void addCallback(ResourceCallback cb) {
-        Util.assertMainThread();
-        cbs.add(cb);
+        assertThread();
+        synchronized (cbs) {
+            cbs.add(cb);
+        }
     }
 
+    /**
+     * Removes the given callback and cancels the load if no callbacks remain. Must be called on the main thread
+     * unless this job is thread safe.
+     */
     public void removeCallback(ResourceCallback cb) {
-        Util.assertMainThread();
-        cbs.remove(cb);
-        if (cbs.isEmpty()) {
-            cancel();
+        assertThread();
+        final boolean isNewlyCancelled;
+        synchronized (cbs) {
+            cbs.remove(cb);
+            isNewlyCancelled = cbs.isEmpty() && markCancelled();
+        }
+        if (isNewlyCancelled) {
+            listener.onEngineJobCancelled(this, key);
+        }
+    }
+
+    private void assertThread() {
+        if (!isThreadSafe) {
+            Util.assertMainThread();
+        }
+    }
+
+    private List<ResourceCallback> getCallbacks() {
+        synchronized (cbs) {
+            return new ArrayList<ResourceCallback>(cbs);
         }
     }
 
     // Exposed for testing.
     void cancel() {
+        final boolean isNewlyCancelled;
+        synchronized (cbs) {
+            isNewlyCancelled = markCancelled();
+        }
+        if (isNewlyCancelled) {
+            listener.onEngineJobCancelled(this, key);
+        }
+    }
+
+    // Must be called while holding the callbacks lock so that cancelling and completing are atomic with respect to
+    // callbacks being removed. Returns true if the job wasn't already cancelled or complete.
+    private boolean markCancelled() {
         if (isComplete || isCancelled) {
-            return;
+            return false;
         }
         isCancelled = true;
-        listener.onEngineJobCancelled(this, key);
+        return true;
+    }
+
+    // Returns true and marks the job complete if it hasn't been cancelled. A job with no callbacks left is treated as
+    // cancelled, since in a thread safe job the last callback may be removed on another thread just before the job
+    // completes.
+    private boolean markCompleteIfNotCancelled() {
+        final boolean isNewlyCancelled;
+        synchronized (cbs) {
+            if (isCancelled) {
+                return false;
+            }
+            if (!cbs.isEmpty()) {
+                isComplete = true;
+                return true;
+            }
+            isNewlyCancelled = markCancelled();
+        }
+        if (isNewlyCancelled) {
+            listener.onEngineJobCancelled(this, key);
+        }
+        return false;
     }
 
     // Exposed for testing.
@@ -78,13 +144,10 @@ class EngineJob implements ResourceCallback {
                     Log.v(TAG, "Posted to main thread in onResourceReady in " + LogTime.getElapsedMillis(start)
                             + " cancelled: " + isCancelled);
                 }
-                if (isCancelled) {
+                if (!markCompleteIfNotCancelled()) {
                     resource.recycle();
                     return;
-                } else if (cbs.isEmpty()) {
-                    throw new IllegalStateException("Received a resource without any callbacks to notify");
                 }
-                isComplete = true;
                 EngineResource engineResource = engineResourceFactory.build(resource);
                 engineResource.setCacheable(isCacheable);
 
@@ -92,8 +155,10 @@ class EngineJob implements ResourceCallback {
                 // synchronously released by one of the callbacks.
                 engineResource.acquire(1);
                 listener.onEngineJobComplete(key, engineResource);
-                engineResource.acquire(cbs.size());
-                for (ResourceCallback cb : cbs) {
+                // Once the listener has been notified no new callbacks can be added, so it's safe to snapshot them.
+                List<ResourceCallback> toNotify = getCallbacks();
+                engineResource.acquire(toNotify.size());
+                for (ResourceCallback cb : toNotify) {
                     cb.onResourceReady(engineResource);
                 }
                 // Our request is complete, so we can release the resource.
@@ -115,15 +180,12 @@ class EngineJob implements ResourceCallback {
                     Log.v(TAG, "posted to main thread in onException in " + LogTime.getElapsedMillis(start)
                             + " cancelled: " + isCancelled);
                 }
-                if (isCancelled) {
+                if (!markCompleteIfNotCancelled()) {
                     return;
-                } else if (cbs.isEmpty()) {
-                    throw new IllegalStateException("Received an exception without any callbacks to notify");
                 }
-                isComplete = true;
 
                 listener.onEngineJobComplete(key, null);
-                for (ResourceCallback cb : cbs) {
+                for (ResourceCallback cb : getCallbacks()) {
                     cb.onException(e);
                 }
                 if (Log.isLoggable(TAG, Log.VERBOSE)) {
@@ -138,10 +200,15 @@ class EngineJob implements ResourceCallback {
     }
 
     private static final class DefaultEngineResourceFactory implements EngineResourceFactory {
+        private final boolean isThreadSafe;
+
+        public DefaultEngineResourceFactory(boolean isThreadSafe) {
+            this.isThreadSafe = isThreadSafe;
+        }
 
         @Override
         public <R> EngineResource<R> build(Resource<R> resource) {
-            return new EngineResource<R>(resource);
+            return new EngineResource<R>(resource, isThreadSafe);
         }
     }
 }
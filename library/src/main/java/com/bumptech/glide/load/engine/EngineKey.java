@@ -6,24 +6,42 @@ import com.bumptech.glide.load.ResourceDecoder;
 import com.bumptech.glide.load.ResourceEncoder;
 import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.resource.transcode.ResourceTranscoder;
+import com.bumptech.glide.util.Util;
 
 import java.io.UnsupportedEncodingException;
-import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 
+/**
+ * The key for a load and for the resource it produces in the memory and disk caches.
+ *
+ * <p>
+ *     The id of each component is resolved to a small integer by {@link ComponentIds} when the key is built, so
+ *     comparing keys during memory cache and in progress load lookups only compares integers and the data id rather
+ *     than each component's id string. The id strings are still used for {@link #toString()} and the disk cache key.
+ * </p>
+ *
+ * <p>
+ *     Keys may be reused by {@link EngineKeyFactory} once they have been released, so keys must not be released while
+ *     they are used by any map, job or resource.
+ * </p>
+ */
 @SuppressWarnings("rawtypes")
 class EngineKey implements Key {
-    private static final String FORMAT = "UTF-8";
-
-    private final String id;
-    private final int width;
-    private final int height;
-    private final ResourceDecoder cacheDecoder;
-    private final ResourceDecoder decoder;
-    private final Transformation transformation;
-    private final ResourceEncoder encoder;
-    private final ResourceTranscoder transcoder;
-    private final Encoder sourceEncoder;
+    private String id;
+    private int width;
+    private int height;
+    private ResourceDecoder cacheDecoder;
+    private ResourceDecoder decoder;
+    private Transformation transformation;
+    private ResourceEncoder encoder;
+    private ResourceTranscoder transcoder;
+    private Encoder sourceEncoder;
+    private int cacheDecoderId;
+    private int decoderId;
+    private int transformationId;
+    private int encoderId;
+    private int transcoderId;
+    private int sourceEncoderId;
     private String stringKey;
     private int hashCode;
     private OriginalEngineKey originalKey;
@@ -31,6 +49,12 @@ class EngineKey implements Key {
     public EngineKey(String id, int width, int height, ResourceDecoder cacheDecoder, ResourceDecoder decoder,
             Transformation transformation, ResourceEncoder encoder, ResourceTranscoder transcoder,
             Encoder sourceEncoder) {
+        init(id, width, height, cacheDecoder, decoder, transformation, encoder, transcoder, sourceEncoder);
+    }
+
+    void init(String id, int width, int height, ResourceDecoder cacheDecoder, ResourceDecoder decoder,
+            Transformation transformation, ResourceEncoder encoder, ResourceTranscoder transcoder,
+            Encoder sourceEncoder) {
         this.id = id;
         this.width = width;
         this.height = height;
@@ -40,6 +64,15 @@ class EngineKey implements Key {
         this.encoder = encoder;
         this.transcoder = transcoder;
         this.sourceEncoder = sourceEncoder;
+        cacheDecoderId   = ComponentIds.intern(cacheDecoder   != null ? cacheDecoder  .getId() : null);
+        decoderId        = ComponentIds.intern(decoder        != null ? decoder       .getId() : null);
+        transformationId = ComponentIds.intern(transformation != null ? transformation.getId() : null);
+        encoderId        = ComponentIds.intern(encoder        != null ? encoder       .getId() : null);
+        transcoderId     = ComponentIds.intern(transcoder     != null ? transcoder    .getId() : null);
+        sourceEncoderId  = ComponentIds.intern(sourceEncoder  != null ? sourceEncoder .getId() : null);
+        stringKey = null;
+        hashCode = 0;
+        originalKey = null;
     }
 
     public Key getOriginalKey() {
@@ -60,38 +93,16 @@ class EngineKey implements Key {
 
         EngineKey engineKey = (EngineKey) o;
 
-        if (!id.equals(engineKey.id)) {
-            return false;
-        } else if (height != engineKey.height) {
-            return false;
-        } else if (width != engineKey.width) {
-            return false;
-        } else if (transformation == null ^ engineKey.transformation == null) {
-            return false;
-        } else if (transformation != null && !transformation.getId().equals(engineKey.transformation.getId())) {
-            return false;
-        } else if (decoder == null ^ engineKey.decoder == null) {
-            return false;
-        } else if (decoder != null && !decoder.getId().equals(engineKey.decoder.getId())) {
-            return false;
-        } else if (cacheDecoder == null ^ engineKey.cacheDecoder == null) {
-            return false;
-        } else if (cacheDecoder != null && !cacheDecoder.getId().equals(engineKey.cacheDecoder.getId())) {
-            return false;
-        } else if (encoder == null ^ engineKey.encoder == null) {
-            return false;
-        } else if (encoder != null && !encoder.getId().equals(engineKey.encoder.getId())) {
-            return false;
-        } else if (transcoder == null ^ engineKey.transcoder == null) {
-            return false;
-        } else if (transcoder != null && !transcoder.getId().equals(engineKey.transcoder.getId())) {
-            return false;
-        } else if (sourceEncoder == null ^ engineKey.sourceEncoder == null) {
-            return false;
-        } else if (sourceEncoder != null && !sourceEncoder.getId().equals(engineKey.sourceEncoder.getId())) {
-            return false;
-        }
-        return true;
+        // The data id is compared last because it's the only comparison that isn't constant time.
+        return width == engineKey.width
+                && height == engineKey.height
+                && transformationId == engineKey.transformationId
+                && decoderId == engineKey.decoderId
+                && cacheDecoderId == engineKey.cacheDecoderId
+                && encoderId == engineKey.encoderId
+                && transcoderId == engineKey.transcoderId
+                && sourceEncoderId == engineKey.sourceEncoderId
+                && id.equals(engineKey.id);
     }
 
     @Override
@@ -100,12 +111,12 @@ class EngineKey implements Key {
             hashCode = id.hashCode();
             hashCode = 31 * hashCode + width;
             hashCode = 31 * hashCode + height;
-            hashCode = 31 * hashCode + (cacheDecoder   != null ? cacheDecoder  .getId().hashCode() : 0);
-            hashCode = 31 * hashCode + (decoder        != null ? decoder       .getId().hashCode() : 0);
-            hashCode = 31 * hashCode + (transformation != null ? transformation.getId().hashCode() : 0);
-            hashCode = 31 * hashCode + (encoder        != null ? encoder       .getId().hashCode() : 0);
-            hashCode = 31 * hashCode + (transcoder     != null ? transcoder    .getId().hashCode() : 0);
-            hashCode = 31 * hashCode + (sourceEncoder  != null ? sourceEncoder .getId().hashCode() : 0);
+            hashCode = 31 * hashCode + cacheDecoderId;
+            hashCode = 31 * hashCode + decoderId;
+            hashCode = 31 * hashCode + transformationId;
+            hashCode = 31 * hashCode + encoderId;
+            hashCode = 31 * hashCode + transcoderId;
+            hashCode = 31 * hashCode + sourceEncoderId;
         }
         return hashCode;
     }
@@ -130,17 +141,15 @@ class EngineKey implements Key {
 
     @Override
     public void updateDiskCacheKey(MessageDigest messageDigest) throws UnsupportedEncodingException {
-        byte[] dimensions = ByteBuffer.allocate(8)
-                .putInt(width)
-                .putInt(height)
-                .array();
-        messageDigest.update(id.getBytes(FORMAT));
-        messageDigest.update(dimensions);
-        messageDigest.update((cacheDecoder   != null ? cacheDecoder  .getId() : "").getBytes(FORMAT));
-        messageDigest.update((decoder        != null ? decoder       .getId() : "").getBytes(FORMAT));
-        messageDigest.update((transformation != null ? transformation.getId() : "").getBytes(FORMAT));
-        messageDigest.update((encoder        != null ? encoder       .getId() : "").getBytes(FORMAT));
+        // Produces the same digest as updating with the UTF-8 bytes of each id, but without allocating.
+        Util.updateDigestUtf8(messageDigest, id);
+        Util.updateDigest(messageDigest, width);
+        Util.updateDigest(messageDigest, height);
+        Util.updateDigestUtf8(messageDigest, cacheDecoder   != null ? cacheDecoder  .getId() : "");
+        Util.updateDigestUtf8(messageDigest, decoder        != null ? decoder       .getId() : "");
+        Util.updateDigestUtf8(messageDigest, transformation != null ? transformation.getId() : "");
+        Util.updateDigestUtf8(messageDigest, encoder        != null ? encoder       .getId() : "");
         // transcoder is not playing in disk cache key, since it's after in the workflow
-        messageDigest.update((sourceEncoder  != null ? sourceEncoder .getId() : "").getBytes(FORMAT));
+        Util.updateDigestUtf8(messageDigest, sourceEncoder  != null ? sourceEncoder .getId() : "");
     }
 }
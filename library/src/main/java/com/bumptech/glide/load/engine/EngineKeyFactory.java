@@ -5,15 +5,52 @@ import com.bumptech.glide.load.ResourceDecoder;
 import com.bumptech.glide.load.ResourceEncoder;
 import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.resource.transcode.ResourceTranscoder;
+import com.bumptech.glide.util.Util;
 
+import java.util.Queue;
+
+/**
+ * Builds {@link com.bumptech.glide.load.engine.EngineKey}s, reusing keys that have been released.
+ *
+ * <p>
+ *     Most loads are satisfied by an active resource or join an in progress load, in which case their key is only
+ *     used for lookups and can be released and reused by the next load instead of being garbage collected.
+ * </p>
+ */
 class EngineKeyFactory {
+    // The Engine releases each key before it builds another on the same thread, so only a few keys are ever pooled.
+    private static final int MAX_POOLED_KEYS = 4;
+    private final Queue<EngineKey> pool = Util.createQueue(MAX_POOLED_KEYS);
 
     @SuppressWarnings("rawtypes")
     public EngineKey buildKey(String id, int width, int height, ResourceDecoder cacheDecoder,
             ResourceDecoder sourceDecoder, Transformation transformation, ResourceEncoder encoder,
             ResourceTranscoder transcoder, Encoder sourceEncoder) {
-        return new EngineKey(id, width, height, cacheDecoder, sourceDecoder, transformation, encoder, transcoder,
-                sourceEncoder);
+        EngineKey result;
+        synchronized (pool) {
+            result = pool.poll();
+        }
+        if (result == null) {
+            result = new EngineKey(id, width, height, cacheDecoder, sourceDecoder, transformation, encoder,
+                    transcoder, sourceEncoder);
+        } else {
+            result.init(id, width, height, cacheDecoder, sourceDecoder, transformation, encoder, transcoder,
+                    sourceEncoder);
+        }
+        return result;
     }
 
+    /**
+     * Makes the given key available to be reused by a later call to {@link #buildKey}.
+     *
+     * @param key A key returned by {@link #buildKey} that is not referenced by any map, job or resource and that will
+     *            not be used again by the caller.
+     */
+    public void release(EngineKey key) {
+        synchronized (pool) {
+            if (pool.size() < MAX_POOLED_KEYS) {
+                pool.offer(key);
+            }
+        }
+    }
 }
@@ -11,18 +11,27 @@ import com.bumptech.glide.load.Key;
  */
 public class EngineResource<Z> implements Resource<Z> {
     private final Resource<Z> resource;
+    private final boolean isThreadSafe;
     private volatile int acquired;
     private volatile boolean isRecycled;
     private ResourceListener listener;
     private Key key;
     private boolean isCacheable;
+    // Guarded by the Engine's lock. Releases notify the listener outside of any lock, so two notifications for the
+    // same resource may race. Only the first one the Engine handles after the resource was last acquired acts.
+    private boolean isReleaseHandled;
 
     interface ResourceListener {
         public void onResourceReleased(Key key, EngineResource<?> resource);
     }
 
     EngineResource(Resource<Z> toWrap) {
+        this(toWrap, false);
+    }
+
+    EngineResource(Resource<Z> toWrap, boolean isThreadSafe) {
         resource = toWrap;
+        this.isThreadSafe = isThreadSafe;
     }
 
     void setResourceListener(Key key, ResourceListener listener) {
@@ -30,6 +39,10 @@ public class EngineResource<Z> implements Resource<Z> {
         this.listener = listener;
     }
 
+    Key getKey() {
+        return key;
+    }
+
     void setCacheable(boolean isCacheable) {
         this.isCacheable = isCacheable;
     }
@@ -38,6 +51,18 @@ public class EngineResource<Z> implements Resource<Z> {
         return isCacheable;
     }
 
+    boolean isAcquired() {
+        return acquired > 0;
+    }
+
+    void setReleaseHandled(boolean isReleaseHandled) {
+        this.isReleaseHandled = isReleaseHandled;
+    }
+
+    boolean isReleaseHandled() {
+        return isReleaseHandled;
+    }
+
     @Override
     public Z get() {
         return resource.get();
@@ -78,7 +103,8 @@ public class EngineResource<Z> implements Resource<Z> {
     }
 
     /**
-     * Increments the number of consumers using the wrapped resource. Must be called on the main thread.
+     * Increments the number of consumers using the wrapped resource. Must be called on the main thread unless this
+     * resource was created by a thread safe {@link com.bumptech.glide.load.engine.Engine}.
      *
      * <p>
      *     This must be called with a number corresponding to the number of new consumers each time new consumers
@@ -95,6 +121,12 @@ public class EngineResource<Z> implements Resource<Z> {
         if (times <= 0) {
             throw new IllegalArgumentException("Must acquire a number of times >= 0");
         }
+        if (isThreadSafe) {
+            synchronized (this) {
+                acquired += times;
+            }
+            return;
+        }
         if (!Looper.getMainLooper().equals(Looper.myLooper())) {
             throw new IllegalThreadStateException("Must call acquire on the main thread");
         }
@@ -102,7 +134,8 @@ public class EngineResource<Z> implements Resource<Z> {
     }
 
     /**
-     * Decrements the number of consumers using the wrapped resource. Must be called on the main thread.
+     * Decrements the number of consumers using the wrapped resource. Must be called on the main thread unless this
+     * resource was created by a thread safe {@link com.bumptech.glide.load.engine.Engine}.
      *
      * <p>
      *     This must only be called when a consumer that called the {@link #acquire(int)} method is now done with the
@@ -111,6 +144,21 @@ public class EngineResource<Z> implements Resource<Z> {
      * </p>
      */
     public void release() {
+        if (isThreadSafe) {
+            final boolean isReleased;
+            synchronized (this) {
+                if (acquired <= 0) {
+                    throw new IllegalStateException("Cannot release a recycled or not yet acquired resource");
+                }
+                isReleased = --acquired == 0;
+            }
+            // Notify outside of our lock, the listener may need to acquire its own lock and may call back into this
+            // resource.
+            if (isReleased) {
+                listener.onResourceReleased(key, this);
+            }
+            return;
+        }
         if (acquired <= 0) {
             throw new IllegalStateException("Cannot release a recycled or not yet acquired resource");
         }
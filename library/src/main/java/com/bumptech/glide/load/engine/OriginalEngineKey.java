@@ -1,6 +1,7 @@
 package com.bumptech.glide.load.engine;
 
 import com.bumptech.glide.load.Key;
+import com.bumptech.glide.util.Util;
 
 import java.io.UnsupportedEncodingException;
 import java.security.MessageDigest;
@@ -37,6 +38,6 @@ class OriginalEngineKey implements Key {
 
     @Override
     public void updateDiskCacheKey(MessageDigest messageDigest) throws UnsupportedEncodingException {
-        messageDigest.update(id.getBytes("UTF-8"));
+        Util.updateDigestUtf8(messageDigest, id);
     }
 }
@@ -0,0 +1,63 @@
+package com.bumptech.glide.load.engine;
+
+/**
+ * A wrapper resource that is shared by multiple owners and only recycles the wrapped resource once every owner has
+ * called {@link #recycle()}.
+ *
+ * <p>
+ *     Used to keep a resource alive while it is written to the disk cache in the background without making the
+ *     consumers of the resource aware of the write.
+ * </p>
+ *
+ * @param <Z> The type of the wrapped resource.
+ */
+class ReferenceCountedResource<Z> implements Resource<Z> {
+    private final Resource<Z> resource;
+    private int owners = 1;
+
+    /**
+     * Constructor for a ReferenceCountedResource with a single owner.
+     *
+     * @param toWrap The resource to wrap.
+     */
+    public ReferenceCountedResource(Resource<Z> toWrap) {
+        this.resource = toWrap;
+    }
+
+    /**
+     * Adds an owner that must also call {@link #recycle()} before the wrapped resource is recycled.
+     */
+    public synchronized ReferenceCountedResource<Z> acquire() {
+        if (owners <= 0) {
+            throw new IllegalStateException("Cannot acquire a recycled resource");
+        }
+        owners++;
+        return this;
+    }
+
+    @Override
+    public Z get() {
+        return resource.get();
+    }
+
+    @Override
+    public int getSize() {
+        return resource.getSize();
+    }
+
+    /**
+     * Removes an owner and recycles the wrapped resource if there are no owners left.
+     */
+    @Override
+    public void recycle() {
+        synchronized (this) {
+            if (owners <= 0) {
+                throw new IllegalStateException("Cannot recycle a resource that has no owners");
+            }
+            if (--owners > 0) {
+                return;
+            }
+        }
+        resource.recycle();
+    }
+}
@@ -1,13 +1,15 @@
 package com.bumptech.glide.load.engine;
 
-import android.os.SystemClock;
 import android.util.Log;
 
 import com.bumptech.glide.Priority;
 import com.bumptech.glide.load.ResourceDecoder;
 import com.bumptech.glide.load.Transformation;
+import com.bumptech.glide.load.engine.StageTimings.Stage;
+import com.bumptech.glide.load.engine.executor.FifoPriorityThreadPoolExecutor;
 import com.bumptech.glide.load.engine.executor.Prioritized;
 import com.bumptech.glide.load.resource.transcode.ResourceTranscoder;
+import com.bumptech.glide.util.LogTime;
 
 import java.io.File;
 import java.util.concurrent.ExecutorService;
@@ -29,7 +31,7 @@ class ResourceRunner<Z, R> implements Runnable, Prioritized {
     private final ResourceTranscoder<Z, R> transcoder;
     private final SourceResourceRunner<?, Z, R> sourceRunner;
     private final EngineJob job;
-    private final Priority priority;
+    private volatile Priority priority;
     private final ResourceDecoder<File, Z> cacheDecoder;
     private final int width;
     private final int height;
@@ -37,14 +39,17 @@ class ResourceRunner<Z, R> implements Runnable, Prioritized {
     private final ExecutorService diskCacheService;
     private final DiskCacheStrategy diskCacheStrategy;
     private final ExecutorService resizeService;
+    private final StageTimings stageTimings;
     private volatile Future<?> future;
+    // The service the current future was submitted to.
+    private volatile ExecutorService currentService;
     private volatile boolean isCancelled;
 
-    public ResourceRunner(EngineKey key, int width, int height, CacheLoader cacheLoader,
+    ResourceRunner(EngineKey key, int width, int height, CacheLoader cacheLoader,
             ResourceDecoder<File, Z> cacheDecoder, Transformation<Z> transformation,
             ResourceTranscoder<Z, R> transcoder, SourceResourceRunner<?, Z, R> sourceRunner,
             ExecutorService diskCacheService, DiskCacheStrategy diskCacheStrategy, ExecutorService resizeService,
-            EngineJob job, Priority priority) {
+            StageTimings stageTimings, EngineJob job, Priority priority) {
         this.key = key;
         this.width = width;
         this.height = height;
@@ -56,6 +61,7 @@ class ResourceRunner<Z, R> implements Runnable, Prioritized {
         this.diskCacheService = diskCacheService;
         this.diskCacheStrategy = diskCacheStrategy;
         this.resizeService = resizeService;
+        this.stageTimings = stageTimings;
         this.job = job;
         this.priority = priority;
     }
@@ -72,7 +78,29 @@ class ResourceRunner<Z, R> implements Runnable, Prioritized {
         sourceRunner.cancel();
     }
 
+    /**
+     * Changes the priority of this load, moving it within the queue of the executor it is waiting on if that
+     * executor is a {@link com.bumptech.glide.load.engine.executor.FifoPriorityThreadPoolExecutor}, including the
+     * decode service once a fetched load is waiting to be decoded. Once a stage of the load has started, the new
+     * priority applies to the remaining stages.
+     *
+     * @param priority The new priority.
+     */
+    public void setPriority(Priority priority) {
+        if (this.priority == priority) {
+            return;
+        }
+        this.priority = priority;
+        sourceRunner.setPriority(priority);
+        ExecutorService service = currentService;
+        Future<?> current = future;
+        if (service instanceof FifoPriorityThreadPoolExecutor && current != null) {
+            ((FifoPriorityThreadPoolExecutor) service).setPriority(current, priority.ordinal());
+        }
+    }
+
     public void queue() {
+        currentService = diskCacheService;
         future = diskCacheService.submit(this);
     }
 
@@ -91,7 +119,11 @@ class ResourceRunner<Z, R> implements Runnable, Prioritized {
             }
         }
 
-        if (result != null) {
+        if (isCancelled) {
+            if (result != null) {
+                result.recycle();
+            }
+        } else if (result != null) {
             job.onResourceReady(result);
         } else {
             submitSourceRunner();
@@ -101,26 +133,52 @@ class ResourceRunner<Z, R> implements Runnable, Prioritized {
     private Resource<R> runWrapped() throws Exception {
         Resource<Z> fromCache = null;
         if (diskCacheStrategy.cacheResult()) {
-            long start = SystemClock.currentThreadTimeMillis();
+            long start = LogTime.getLogTime();
             fromCache = cacheLoader.load(key, cacheDecoder, width, height);
+            double elapsed = stageTimings.record(Stage.RESULT_CACHE, start);
             if (Log.isLoggable(TAG, Log.VERBOSE)) {
-                Log.v(TAG, "loaded from disk cache in " + (SystemClock.currentThreadTimeMillis() - start));
+                Log.v(TAG, "loaded from disk cache in " + elapsed);
             }
          }
 
-        Resource<R> transcoded = null;
-        if (fromCache != null) {
-            Resource<Z> transformed = transformation.transform(fromCache, width, height);
-            if (transformed != fromCache) {
-                fromCache.recycle();
+        if (fromCache == null) {
+            return null;
+        }
+        if (isCancelledBefore(Stage.TRANSFORM)) {
+            fromCache.recycle();
+            return null;
+        }
+        long start = LogTime.getLogTime();
+        Resource<Z> transformed = transformation.transform(fromCache, width, height);
+        if (transformed != fromCache) {
+            fromCache.recycle();
+        }
+        stageTimings.record(Stage.TRANSFORM, start);
+
+        if (isCancelledBefore(Stage.TRANSCODE)) {
+            if (transformed != null) {
+                transformed.recycle();
             }
-            transcoded = transcoder.transcode(transformed);
+            return null;
         }
+        start = LogTime.getLogTime();
+        Resource<R> transcoded = transcoder.transcode(transformed);
+        stageTimings.record(Stage.TRANSCODE, start);
         return transcoded;
     }
 
+    // Returns true and records the cancellation if the load was cancelled before the given stage could start.
+    private boolean isCancelledBefore(Stage stage) {
+        if (isCancelled) {
+            stageTimings.recordCancelled(stage);
+            return true;
+        }
+        return false;
+    }
+
     private void submitSourceRunner() {
         try {
+            currentService = resizeService;
             future = resizeService.submit(sourceRunner);
         } catch (RuntimeException e) {
             // A variety of exceptions can be thrown here, particularly related to when/if the pool is shutdown.
@@ -10,27 +10,44 @@ import com.bumptech.glide.load.ResourceEncoder;
 import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.data.DataFetcher;
 import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.StageTimings.Stage;
+import com.bumptech.glide.load.engine.cache.DiskCacheWriteQueue;
+import com.bumptech.glide.load.engine.executor.FifoPriorityThreadPoolExecutor;
 import com.bumptech.glide.load.engine.executor.Prioritized;
 import com.bumptech.glide.load.resource.transcode.ResourceTranscoder;
 import com.bumptech.glide.request.ResourceCallback;
+import com.bumptech.glide.util.ByteBufferInputStream;
+import com.bumptech.glide.util.CancellableInputStream;
+import com.bumptech.glide.util.LogTime;
+import com.bumptech.glide.util.TeeInputStream;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * A background {@link java.lang.Runnable} responsible for loading a resource from its original data if the resource is
  * not in cache.
  *
+ * <p>
+ *     If a decode service is given, this runnable only starts the fetch, which for network loads means waiting for the
+ *     connection and the response headers, and then submits decoding, transforming and transcoding the fetched data to
+ *     the decode service. The fetched stream is handed off as is rather than read into memory, so the decode service
+ *     reads the rest of the data as it decodes it, copying it to the disk cache at the same time if the source is
+ *     cached.
+ * </p>
+ *
  * @param <T> The type of the data the resource will be decoded from.
  * @param <Z> The type of the resource that will be decoded.
  * @param <R> The type of the resource that will be transcoded to from the decoded resource.
  */
 class SourceResourceRunner<T, Z, R> implements Runnable, Prioritized {
-    private static final WriterFactory DEFAULT_WRITER_FACTORY = new DefaultWriterFactory();
-
     private static final String TAG = "SourceRunner";
     private final EngineKey key;
     private final int width;
@@ -44,32 +61,24 @@ class SourceResourceRunner<T, Z, R> implements Runnable, Prioritized {
     private final ResourceEncoder<Z> encoder;
     private final ResourceTranscoder<Z, R> transcoder;
     private final DiskCache diskCache;
-    private final Priority priority;
+    private final DiskCacheWriteQueue writeQueue;
+    private final ExecutorService decodeService;
+    private final StageTimings stageTimings;
+    private volatile Priority priority;
+    // The decode stage's future once it is submitted to the decode service.
+    private volatile Future<?> decodeFuture;
     private DiskCacheStrategy diskCacheStrategy;
     private final ResourceCallback cb;
-    private WriterFactory writerFactory;
+    private final WriterFactory writerFactory;
 
     private volatile boolean isCancelled;
-
-    public SourceResourceRunner(EngineKey key,
-                         int width,
-                         int height,
-                         CacheLoader cacheLoader,
-                         ResourceDecoder<File, Z> cacheDecoder,
-                         DataFetcher<T> dataFetcher,
-                         Encoder<T> sourceEncoder,
-                         ResourceDecoder<T, Z> decoder,
-                         Transformation<Z> transformation,
-                         ResourceEncoder<Z> encoder,
-                         ResourceTranscoder<Z, R> transcoder,
-                         DiskCache diskCache,
-                         Priority priority,
-                         DiskCacheStrategy diskCacheStrategy,
-                         ResourceCallback cb) {
-        this(key, width, height, cacheLoader, cacheDecoder, dataFetcher, sourceEncoder, decoder,
-                transformation, encoder, transcoder, diskCache, priority, diskCacheStrategy, cb,
-                DEFAULT_WRITER_FACTORY);
-    }
+    private final CancellableInputStream.CancellationToken cancellationToken =
+            new CancellableInputStream.CancellationToken() {
+                @Override
+                public boolean isCancelled() {
+                    return isCancelled;
+                }
+            };
 
     SourceResourceRunner(EngineKey key,
                          int width,
@@ -86,7 +95,7 @@ class SourceResourceRunner<T, Z, R> implements Runnable, Prioritized {
                          Priority priority,
                          DiskCacheStrategy diskCacheStrategy,
                          ResourceCallback cb,
-                         WriterFactory writerFactory) {
+                         Config config) {
         this.key = key;
         this.width = width;
         this.height = height;
@@ -99,10 +108,27 @@ class SourceResourceRunner<T, Z, R> implements Runnable, Prioritized {
         this.encoder = encoder;
         this.transcoder = transcoder;
         this.diskCache = diskCache;
+        this.writeQueue = config.writeQueue;
+        this.decodeService = config.decodeService;
+        this.stageTimings = config.stageTimings;
         this.priority = priority;
         this.diskCacheStrategy = diskCacheStrategy;
         this.cb = cb;
-        this.writerFactory = writerFactory;
+        this.writerFactory = config.writerFactory;
+    }
+
+    /**
+     * Changes the priority reported by {@link #getPriority()} and moves the decode stage within the decode service's
+     * queue if it is waiting there and the decode service is a
+     * {@link com.bumptech.glide.load.engine.executor.FifoPriorityThreadPoolExecutor}. Has no effect on a fetch or
+     * decode that has already started.
+     */
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+        Future<?> current = decodeFuture;
+        if (decodeService instanceof FifoPriorityThreadPoolExecutor && current != null) {
+            ((FifoPriorityThreadPoolExecutor) decodeService).setPriority(current, priority.ordinal());
+        }
     }
 
     public void cancel() {
@@ -118,81 +144,264 @@ class SourceResourceRunner<T, Z, R> implements Runnable, Prioritized {
             return;
         }
 
+        if (decodeService != null) {
+            fetchThenSubmitDecode();
+            return;
+        }
+
         final Resource<R> result;
         try {
             result = runWrapped();
         } catch (Exception e) {
-            cb.onException(e);
+            notifyException(e);
             return;
         }
+        notifyResult(result);
+    }
 
-        if (result != null) {
+    private void notifyResult(Resource<R> result) {
+        if (isCancelled) {
+            // Nobody is waiting for the result any more.
+            if (result != null) {
+                result.recycle();
+            }
+        } else if (result != null) {
             cb.onResourceReady(result);
         } else {
             cb.onException(null);
         }
     }
 
+    private void notifyException(Exception e) {
+        if (!isCancelled) {
+            cb.onException(e);
+        }
+    }
+
+    // Returns true and records the cancellation if the load was cancelled before the given stage could start.
+    private boolean isCancelledBefore(Stage stage) {
+        if (isCancelled) {
+            stageTimings.recordCancelled(stage);
+            return true;
+        }
+        return false;
+    }
+
     private Resource<R> runWrapped() throws Exception {
-        long start = SystemClock.currentThreadTimeMillis();
         Resource<Z> decoded = null;
         if (diskCacheStrategy.cacheSource()) {
-            decoded = cacheLoader.load(key.getOriginalKey(), cacheDecoder, width, height);
+            decoded = loadSourceFromCache();
         }
 
         if (decoded == null) {
+            if (isCancelledBefore(Stage.FETCH)) {
+                return null;
+            }
             decoded = decodeFromSource();
-            if (Log.isLoggable(TAG, Log.VERBOSE)) {
-                Log.v(TAG, "Decoded from source in " + (SystemClock.currentThreadTimeMillis() - start) + " cache");
-                start = SystemClock.currentThreadTimeMillis();
+        }
+
+        return transformAndTranscode(decoded);
+    }
+
+    private Resource<Z> loadSourceFromCache() {
+        long start = LogTime.getLogTime();
+        Resource<Z> decoded = cacheLoader.load(key.getOriginalKey(), cacheDecoder, width, height);
+        double elapsed = stageTimings.record(Stage.SOURCE_CACHE, start);
+        if (Log.isLoggable(TAG, Log.VERBOSE)) {
+            Log.v(TAG, "loaded source from cache in " + elapsed);
+        }
+        return decoded;
+    }
+
+    // Checks for cancellation between stages so that loads cancelled part way through don't waste any more work.
+    private Resource<R> transformAndTranscode(Resource<Z> decoded) {
+        if (decoded == null) {
+            return null;
+        }
+        if (isCancelledBefore(Stage.TRANSFORM)) {
+            decoded.recycle();
+            return null;
+        }
+        long start = LogTime.getLogTime();
+        Resource<Z> transformed = transformation.transform(decoded, width, height);
+        if (decoded != transformed) {
+            decoded.recycle();
+        }
+        double elapsed = stageTimings.record(Stage.TRANSFORM, start);
+        if (Log.isLoggable(TAG, Log.VERBOSE)) {
+            Log.v(TAG, "transformed in " + elapsed);
+        }
+        if (transformed == null) {
+            return null;
+        }
+
+        final boolean writeBehind = writeQueue != null && diskCacheStrategy.cacheResult();
+        if (!writeBehind && diskCacheStrategy.cacheResult()) {
+            if (isCancelledBefore(Stage.ENCODE)) {
+                transformed.recycle();
+                return null;
             }
+            start = LogTime.getLogTime();
+            diskCache.put(key, writerFactory.build(encoder, transformed));
+            stageTimings.record(Stage.ENCODE, start);
         }
 
-        Resource<Z> transformed = null;
-        if (decoded != null) {
-            transformed = transformation.transform(decoded, width, height);
-            if (decoded != transformed) {
-                decoded.recycle();
+        if (isCancelledBefore(Stage.TRANSCODE)) {
+            transformed.recycle();
+            return null;
+        }
+        Resource<Z> toTranscode = transformed;
+        ReferenceCountedResource<Z> writeReference = null;
+        if (writeBehind) {
+            // Transcoders may recycle the resource they are given, for example after compressing it, so the queued
+            // write holds its own reference to the transformed resource until it finishes.
+            ReferenceCountedResource<Z> shared = new ReferenceCountedResource<Z>(transformed);
+            writeReference = shared.acquire();
+            toTranscode = shared;
+        }
+        start = LogTime.getLogTime();
+        final Resource<R> transcoded;
+        try {
+            transcoded = transcoder.transcode(toTranscode);
+        } catch (RuntimeException e) {
+            if (writeReference != null) {
+                writeReference.recycle();
             }
+            throw e;
+        }
+        elapsed = stageTimings.record(Stage.TRANSCODE, start);
+        if (Log.isLoggable(TAG, Log.VERBOSE)) {
+            Log.v(TAG, "transcoded in " + elapsed);
+        }
+        if (writeReference == null) {
+            return transcoded;
+        }
+        // Transcoders may also return a new resource that shares the transformed resource's data, for example a
+        // drawable wrapping the same Bitmap, and recycles that data itself. The queued write holds a reference to the
+        // transcoded resource too so that it isn't recycled until the write finishes.
+        ReferenceCountedResource<R> result = new ReferenceCountedResource<R>(transcoded);
+        writeQueue.enqueue(diskCache, key, writerFactory.build(encoder, transformed),
+                new QueuedWriteReference<Z, R>(writeReference, result.acquire()));
+        return result;
+    }
+
+    // Runs on the source service, does as much of the I/O as possible before handing off to the decode service.
+    private void fetchThenSubmitDecode() {
+        final DecodeStage stage;
+        try {
+            long start = LogTime.getLogTime();
+            stage = fetch();
+            double elapsed = stageTimings.record(Stage.FETCH, start);
             if (Log.isLoggable(TAG, Log.VERBOSE)) {
-                Log.v(TAG, "transformed in " + (SystemClock.currentThreadTimeMillis() - start));
+                Log.v(TAG, "fetched in " + elapsed);
             }
+        } catch (Exception e) {
+            notifyException(e);
+            return;
+        }
+        if (stage == null) {
+            notifyResult(null);
+            return;
         }
+        if (isCancelledBefore(Stage.DECODE)) {
+            stage.cleanup();
+            return;
+        }
+        try {
+            decodeFuture = decodeService.submit(stage);
+        } catch (RuntimeException e) {
+            // A variety of exceptions can be thrown here, particularly related to when/if the pool is shutdown.
+            stage.cleanup();
+            notifyException(e);
+        }
+    }
 
-        Resource<R> transcoded = null;
-        if (transformed != null) {
-            if (diskCacheStrategy.cacheResult()) {
-                diskCache.put(key, writerFactory.build(encoder, transformed));
+    // Returns null if the fetcher returned no data.
+    private DecodeStage fetch() throws Exception {
+        if (diskCacheStrategy.cacheSource() && diskCache.get(key.getOriginalKey()) != null) {
+            return new DecodeStage(null, false /*needsCleanup*/);
+        }
+
+        boolean isHandedOff = false;
+        try {
+            final T data = stopReadsOnCancel(fetcher.loadData(priority));
+            if (data == null) {
+                return null;
             }
-            start = SystemClock.currentThreadTimeMillis();
-            transcoded = transcoder.transcode(transformed);
-            if (Log.isLoggable(TAG, Log.VERBOSE)) {
-                Log.d(TAG, "transcoded in " + (SystemClock.currentThreadTimeMillis() - start));
+            isHandedOff = true;
+            return new DecodeStage(data, true /*needsCleanup*/);
+        } finally {
+            if (!isHandedOff) {
+                fetcher.cleanup();
             }
         }
-        return transcoded;
+    }
+
+    // Makes reads from the fetched data's stream fail once this runner is cancelled so that in progress downloads and
+    // decodes stop early.
+    private T stopReadsOnCancel(T data) {
+        InputStream stream = SourceTee.getStream(data);
+        // Streams that are already in memory are quick to read and wrapping them would stop the decoder from using them
+        // directly.
+        if (stream == null || stream instanceof ByteBufferInputStream) {
+            return data;
+        }
+        return SourceTee.replaceStream(data, new CancellableInputStream(stream, cancellationToken));
     }
 
     private Resource<Z> decodeFromSource() throws Exception {
         try {
-            final T data = fetcher.loadData(priority);
-            if (data != null) {
-                if (diskCacheStrategy.cacheSource()) {
-                    return encodeSourceAndDecodeFromCache(data);
-                } else {
-                    return decoder.decode(data, width, height);
-                }
+            long start = LogTime.getLogTime();
+            final T data = stopReadsOnCancel(fetcher.loadData(priority));
+            stageTimings.record(Stage.FETCH, start);
+            if (data == null || isCancelledBefore(Stage.DECODE)) {
+                return null;
             }
+            return decodeFetchedData(data);
         } finally {
             fetcher.cleanup();
         }
+    }
 
-        return null;
+    private Resource<Z> decodeFetchedData(T data) throws IOException {
+        long start = LogTime.getLogTime();
+        final Resource<Z> decoded;
+        if (diskCacheStrategy.cacheSource()) {
+            decoded = encodeSourceAndDecodeFromCache(data);
+        } else {
+            decoded = decoder.decode(data, width, height);
+        }
+        double elapsed = stageTimings.record(Stage.DECODE, start);
+        if (Log.isLoggable(TAG, Log.VERBOSE)) {
+            Log.v(TAG, "decoded from source in " + elapsed);
+        }
+        return decoded;
     }
 
-    private Resource<Z> encodeSourceAndDecodeFromCache(final T data) {
+    private Resource<Z> encodeSourceAndDecodeFromCache(final T data) throws IOException {
+        InputStream stream = SourceTee.getStream(sourceEncoder, data);
+        if (stream != null) {
+            return decodeWhileWritingSource(data, stream);
+        }
         diskCache.put(key.getOriginalKey(), writerFactory.build(sourceEncoder, data));
-        return cacheLoader.load(key.getOriginalKey(), cacheDecoder, width, height);
+        Resource<Z> decoded = cacheLoader.load(key.getOriginalKey(), cacheDecoder, width, height);
+        if (decoded == null && SourceTee.getStream(data) == null) {
+            // The disk cache was unable to write the data, but data without a stream wasn't consumed by the encoder
+            // and can still be decoded directly.
+            decoded = decoder.decode(data, width, height);
+        }
+        return decoded;
+    }
+
+    // Avoids reading the source data back from the disk cache by decoding it while it is written.
+    private Resource<Z> decodeWhileWritingSource(T data, InputStream stream) throws IOException {
+        DecodingSourceWriter writer = new DecodingSourceWriter(data, stream);
+        diskCache.put(key.getOriginalKey(), writer);
+        if (writer.isDecodeAttempted()) {
+            return writer.getResult();
+        }
+        // The disk cache was unable to write the data, so we won't be able to read it back either.
+        return decoder.decode(data, width, height);
     }
 
     @Override
@@ -200,6 +409,196 @@ class SourceResourceRunner<T, Z, R> implements Runnable, Prioritized {
         return priority.ordinal();
     }
 
+    /**
+     * Decodes, transforms and transcodes data that has already been fetched, either from the given data or, if no
+     * data is given, from the source data in the disk cache.
+     */
+    private class DecodeStage implements Runnable, Prioritized {
+        private final T data;
+        private final boolean needsCleanup;
+
+        public DecodeStage(T data, boolean needsCleanup) {
+            this.data = data;
+            this.needsCleanup = needsCleanup;
+        }
+
+        @Override
+        public void run() {
+            if (isCancelledBefore(Stage.DECODE)) {
+                cleanup();
+                return;
+            }
+
+            final Resource<R> result;
+            try {
+                result = transformAndTranscode(decode());
+            } catch (Exception e) {
+                notifyException(e);
+                return;
+            }
+            notifyResult(result);
+        }
+
+        private Resource<Z> decode() throws Exception {
+            if (data == null) {
+                Resource<Z> decoded = loadSourceFromCache();
+                if (decoded == null) {
+                    // The cached source couldn't be read back, so nothing has been fetched yet and it must be fetched
+                    // here.
+                    decoded = decodeFromSource();
+                }
+                return decoded;
+            }
+
+            try {
+                return decodeFetchedData(data);
+            } finally {
+                cleanup();
+            }
+        }
+
+        public void cleanup() {
+            if (needsCleanup) {
+                fetcher.cleanup();
+            }
+        }
+
+        @Override
+        public int getPriority() {
+            return priority.ordinal();
+        }
+    }
+
+    /**
+     * Decodes source data while copying the bytes read from its {@link java.io.InputStream} into the disk cache. The
+     * copy is only committed if the data is decoded successfully and every byte was read and written.
+     */
+    private class DecodingSourceWriter implements DiskCache.Writer {
+        private final T data;
+        private final InputStream stream;
+        private boolean isDecodeAttempted;
+        private Resource<Z> result;
+        private IOException exception;
+
+        public DecodingSourceWriter(T data, InputStream stream) {
+            this.data = data;
+            this.stream = stream;
+        }
+
+        @Override
+        public boolean write(File file) {
+            long start = SystemClock.currentThreadTimeMillis();
+            boolean isCopyComplete = false;
+            OutputStream os = null;
+            try {
+                os = new BufferedOutputStream(new FileOutputStream(file));
+                TeeInputStream tee = new TeeInputStream(stream, os);
+                isDecodeAttempted = true;
+                result = decoder.decode(SourceTee.replaceStream(data, tee), width, height);
+                if (result != null) {
+                    // Decoders may stop before the end of the data, the rest must still be written.
+                    tee.drain();
+                }
+                if (tee.getReadException() != null) {
+                    // The decoder may have ignored the exception and returned a partially decoded resource.
+                    throw tee.getReadException();
+                }
+                isCopyComplete = tee.isCopyComplete();
+            } catch (IOException e) {
+                if (Log.isLoggable(TAG, Log.DEBUG)) {
+                    Log.d(TAG, "Failed to decode source while writing to disk cache", e);
+                }
+                exception = e;
+                if (result != null) {
+                    result.recycle();
+                    result = null;
+                }
+            } finally {
+                if (os != null) {
+                    try {
+                        os.close();
+                    } catch (IOException e) {
+                        isCopyComplete = false;
+                    }
+                }
+            }
+            if (Log.isLoggable(TAG, Log.VERBOSE)) {
+                Log.v(TAG, "decoded while writing to disk cache in " + (SystemClock.currentThreadTimeMillis() - start));
+            }
+            return result != null && isCopyComplete;
+        }
+
+        public boolean isDecodeAttempted() {
+            return isDecodeAttempted;
+        }
+
+        public Resource<Z> getResult() throws IOException {
+            if (exception != null) {
+                throw exception;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The references a queued disk cache write holds to the transformed resource it writes and to the resource
+     * transcoded from it, both of which are released when the write finishes.
+     */
+    private static class QueuedWriteReference<Z, R> implements Resource<Z> {
+        private final Resource<Z> transformed;
+        private final Resource<R> transcoded;
+
+        public QueuedWriteReference(Resource<Z> transformed, Resource<R> transcoded) {
+            this.transformed = transformed;
+            this.transcoded = transcoded;
+        }
+
+        @Override
+        public Z get() {
+            return transformed.get();
+        }
+
+        @Override
+        public int getSize() {
+            return transformed.getSize();
+        }
+
+        @Override
+        public void recycle() {
+            transcoded.recycle();
+            transformed.recycle();
+        }
+    }
+
+    /**
+     * The optional parts of a source runner, shared by all of the runners built by a
+     * {@link com.bumptech.glide.load.engine.ResourceRunnerFactory}.
+     */
+    static class Config {
+        private static final WriterFactory DEFAULT_WRITER_FACTORY = new DefaultWriterFactory();
+
+        private final DiskCacheWriteQueue writeQueue;
+        private final ExecutorService decodeService;
+        private final StageTimings stageTimings;
+        private final WriterFactory writerFactory;
+
+        /**
+         * @param writeQueue An optional queue to write transformed resources to the disk cache on after the load
+         *                   completes, or null to write them before the load completes.
+         * @param decodeService An optional service to decode fetched data on, or null to decode data on the thread
+         *                      that fetched it.
+         * @param stageTimings Records the timings of the stages of each load.
+         * @param writerFactory The factory to build disk cache writers with, or null to use the default.
+         */
+        Config(DiskCacheWriteQueue writeQueue, ExecutorService decodeService, StageTimings stageTimings,
+                WriterFactory writerFactory) {
+            this.writeQueue = writeQueue;
+            this.decodeService = decodeService;
+            this.stageTimings = stageTimings;
+            this.writerFactory = writerFactory != null ? writerFactory : DEFAULT_WRITER_FACTORY;
+        }
+    }
+
     private static class DefaultWriterFactory implements WriterFactory {
 
         @Override
@@ -0,0 +1,67 @@
+package com.bumptech.glide.load.engine;
+
+import com.bumptech.glide.load.Encoder;
+import com.bumptech.glide.load.model.ImageVideoWrapper;
+import com.bumptech.glide.load.model.ImageVideoWrapperEncoder;
+import com.bumptech.glide.load.model.StreamEncoder;
+
+import java.io.InputStream;
+
+/**
+ * Utilities for decoding source data from its {@link java.io.InputStream} while copying the stream to the disk cache,
+ * which is only equivalent to encoding the source data with its source {@link com.bumptech.glide.load.Encoder} if the
+ * {@link com.bumptech.glide.load.Encoder} writes the stream's bytes unchanged.
+ */
+final class SourceTee {
+
+    private SourceTee() {
+        // Utility class.
+    }
+
+    /**
+     * Returns the {@link java.io.InputStream} in the given data that can be copied to the disk cache while the data is
+     * decoded, or null if the data must be encoded with the given {@link com.bumptech.glide.load.Encoder}.
+     *
+     * @param sourceEncoder The encoder that would otherwise write the data to the disk cache.
+     * @param data The source data.
+     */
+    static InputStream getStream(Encoder<?> sourceEncoder, Object data) {
+        if (data instanceof InputStream && sourceEncoder instanceof StreamEncoder) {
+            return (InputStream) data;
+        } else if (data instanceof ImageVideoWrapper && sourceEncoder instanceof ImageVideoWrapperEncoder
+                && ((ImageVideoWrapperEncoder) sourceEncoder).getStreamEncoder() instanceof StreamEncoder) {
+            return ((ImageVideoWrapper) data).getStream();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the {@link java.io.InputStream} in the given data, or null if the data doesn't contain a stream.
+     *
+     * @param data The source data.
+     */
+    static InputStream getStream(Object data) {
+        if (data instanceof InputStream) {
+            return (InputStream) data;
+        } else if (data instanceof ImageVideoWrapper) {
+            return ((ImageVideoWrapper) data).getStream();
+        }
+        return null;
+    }
+
+    /**
+     * Returns data equivalent to the given data but that reads from the given {@link java.io.InputStream}.
+     *
+     * @param data Data that {@link #getStream(com.bumptech.glide.load.Encoder, Object)} returned a stream for.
+     * @param stream The stream to read from instead.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T replaceStream(T data, InputStream stream) {
+        if (data instanceof InputStream) {
+            return (T) stream;
+        } else if (data instanceof ImageVideoWrapper) {
+            return (T) new ImageVideoWrapper(stream, ((ImageVideoWrapper) data).getFileDescriptor());
+        }
+        throw new IllegalArgumentException("Unable to replace stream in data: " + data);
+    }
+}
@@ -0,0 +1,93 @@
+package com.bumptech.glide.load.engine;
+
+import com.bumptech.glide.util.LogTime;
+
+/**
+ * Records how long each stage of the loads started by an {@link com.bumptech.glide.load.engine.Engine} takes and how
+ * often loads are cancelled before a stage is started. Safe to use from multiple threads.
+ */
+public final class StageTimings {
+
+    /**
+     * The stages of a load, in the order they run.
+     */
+    public enum Stage {
+        /** Loading and decoding a transformed resource from the disk cache. */
+        RESULT_CACHE,
+        /** Loading and decoding original data from the disk cache. */
+        SOURCE_CACHE,
+        /**
+         * Fetching original data. If data is fetched and decoded on the same service, decoders read from the fetched
+         * data, so any time spent reading from the network is included in {@link #DECODE} instead.
+         */
+        FETCH,
+        /** Decoding fetched original data. */
+        DECODE,
+        /** Transforming a decoded resource. */
+        TRANSFORM,
+        /** Writing a transformed resource to the disk cache. */
+        ENCODE,
+        /** Transcoding a transformed resource. */
+        TRANSCODE
+    }
+
+    private final long[] counts = new long[Stage.values().length];
+    private final long[] cancelledCounts = new long[Stage.values().length];
+    private final double[] totalMillis = new double[Stage.values().length];
+    private final double[] maxMillis = new double[Stage.values().length];
+
+    /**
+     * Records that the given stage finished.
+     *
+     * @param stage The stage.
+     * @param startTime The time the stage started, from {@link com.bumptech.glide.util.LogTime#getLogTime()}.
+     * @return The time the stage took in milliseconds.
+     */
+    double record(Stage stage, long startTime) {
+        double elapsed = LogTime.getElapsedMillis(startTime);
+        int index = stage.ordinal();
+        synchronized (this) {
+            counts[index]++;
+            totalMillis[index] += elapsed;
+            maxMillis[index] = Math.max(maxMillis[index], elapsed);
+        }
+        return elapsed;
+    }
+
+    /**
+     * Records that a load was cancelled before the given stage started.
+     */
+    synchronized void recordCancelled(Stage stage) {
+        cancelledCounts[stage.ordinal()]++;
+    }
+
+    /**
+     * Returns the number of times the given stage has run.
+     */
+    public synchronized long getCount(Stage stage) {
+        return counts[stage.ordinal()];
+    }
+
+    /**
+     * Returns the number of loads that were cancelled before the given stage started, and so skipped the stage and
+     * all stages after it.
+     */
+    public synchronized long getCancelledCount(Stage stage) {
+        return cancelledCounts[stage.ordinal()];
+    }
+
+    /**
+     * Returns the average time in milliseconds the given stage took, or 0 if the stage hasn't run.
+     */
+    public synchronized double getAverageMillis(Stage stage) {
+        int index = stage.ordinal();
+        return counts[index] == 0 ? 0 : totalMillis[index] / counts[index];
+    }
+
+    /**
+     * Returns the longest time in milliseconds the given stage took.
+     */
+    public synchronized double getMaxMillis(Stage stage) {
+        return maxMillis[stage.ordinal()];
+    }
+}
@@ -0,0 +1,146 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+/**
+ * An immutable snapshot of the counters and sizes of a {@link com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool}
+ * that can be used to choose pool sizes from real hit ratios.
+ *
+ * <p>
+ *     Pooled {@link android.graphics.Bitmap}s are counted in a histogram of power of two size buckets, bucket {@code i}
+ *     contains the number of pooled {@link android.graphics.Bitmap}s whose size in bytes is at least {@code 2^i} and
+ *     less than {@code 2^(i + 1)}.
+ * </p>
+ */
+public final class BitmapPoolStats {
+    /**
+     * The number of buckets in the size histogram, enough for any size that fits in an int.
+     */
+    public static final int SIZE_BUCKET_COUNT = 32;
+
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+    private final long evictionCount;
+    private final long evictedBytes;
+    private final int currentSize;
+    private final int maxSize;
+    private final int[] sizeHistogram;
+
+    /**
+     * Constructor for BitmapPoolStats.
+     *
+     * @param hitCount The number of gets that returned a {@link android.graphics.Bitmap}.
+     * @param missCount The number of gets that returned null.
+     * @param putCount The number of {@link android.graphics.Bitmap}s accepted by the pool.
+     * @param evictionCount The number of {@link android.graphics.Bitmap}s evicted from the pool.
+     * @param evictedBytes The total size in bytes of the {@link android.graphics.Bitmap}s evicted from the pool.
+     * @param currentSize The total size in bytes of the {@link android.graphics.Bitmap}s in the pool.
+     * @param maxSize The current maximum size of the pool in bytes.
+     * @param sizeHistogram The number of pooled {@link android.graphics.Bitmap}s in each size bucket, or null if the
+     *                      pool doesn't track sizes. The array is copied.
+     */
+    public BitmapPoolStats(long hitCount, long missCount, long putCount, long evictionCount, long evictedBytes,
+            int currentSize, int maxSize, int[] sizeHistogram) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.evictionCount = evictionCount;
+        this.evictedBytes = evictedBytes;
+        this.currentSize = currentSize;
+        this.maxSize = maxSize;
+        this.sizeHistogram = new int[SIZE_BUCKET_COUNT];
+        if (sizeHistogram != null) {
+            System.arraycopy(sizeHistogram, 0, this.sizeHistogram, 0,
+                    Math.min(sizeHistogram.length, SIZE_BUCKET_COUNT));
+        }
+    }
+
+    /**
+     * Returns the index of the histogram bucket for a {@link android.graphics.Bitmap} of the given size.
+     *
+     * @param size The size of the {@link android.graphics.Bitmap} in bytes.
+     */
+    public static int getSizeBucket(int size) {
+        return size <= 1 ? 0 : 31 - Integer.numberOfLeadingZeros(size);
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getEvictedBytes() {
+        return evictedBytes;
+    }
+
+    public int getCurrentSize() {
+        return currentSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of pooled {@link android.graphics.Bitmap}s in the given size bucket.
+     *
+     * @see #getSizeBucket(int)
+     */
+    public int getBitmapCount(int sizeBucket) {
+        return sizeHistogram[sizeBucket];
+    }
+
+    /**
+     * Returns the total number of {@link android.graphics.Bitmap}s in the pool.
+     */
+    public int getBitmapCount() {
+        int result = 0;
+        for (int count : sizeHistogram) {
+            result += count;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the fraction of gets that returned a {@link android.graphics.Bitmap}, or 0 if there have been no gets.
+     */
+    public float getHitRatio() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0f : (float) hitCount / requestCount;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder()
+                .append("BitmapPoolStats{hits=").append(hitCount)
+                .append(", misses=").append(missCount)
+                .append(", puts=").append(putCount)
+                .append(", evictions=").append(evictionCount)
+                .append(", evictedBytes=").append(evictedBytes)
+                .append(", currentSize=").append(currentSize)
+                .append(", maxSize=").append(maxSize)
+                .append(", sizes={");
+        boolean isFirst = true;
+        for (int i = 0; i < SIZE_BUCKET_COUNT; i++) {
+            if (sizeHistogram[i] == 0) {
+                continue;
+            }
+            if (!isFirst) {
+                result.append(", ");
+            }
+            isFirst = false;
+            result.append(1L << i).append('+').append(':').append(sizeHistogram[i]);
+        }
+        return result.append("}}").toString();
+    }
+}
@@ -0,0 +1,12 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+/**
+ * An optional interface for {@link com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool}s that keep counters that
+ * can be used to choose pool sizes from real hit ratios.
+ */
+public interface BitmapPoolStatsProvider {
+    /**
+     * Returns a snapshot of the pool's counters and sizes.
+     */
+    public BitmapPoolStats getStats();
+}
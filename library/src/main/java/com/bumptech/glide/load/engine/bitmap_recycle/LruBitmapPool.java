@@ -16,19 +16,22 @@ import java.util.Set;
  * eviction policy to evict {@link android.graphics.Bitmap}s from the least recently used bucket in order to keep
  * the pool below a given maximum size limit.
  */
-public class LruBitmapPool implements BitmapPool {
+public class LruBitmapPool implements BitmapPool, BitmapPoolStatsProvider {
     private static final String TAG = "LruBitmapPool";
 
     private final LruPoolStrategy strategy;
     private final int initialMaxSize;
     private final BitmapTracker tracker;
 
+    private final int[] sizeHistogram = new int[BitmapPoolStats.SIZE_BUCKET_COUNT];
+
     private int maxSize;
     private int currentSize;
-    private int hits;
-    private int misses;
-    private int puts;
-    private int evictions;
+    private long hits;
+    private long misses;
+    private long puts;
+    private long evictions;
+    private long evictedBytes;
 
     // Exposed for testing only.
     LruBitmapPool(int maxSize, LruPoolStrategy strategy) {
@@ -44,11 +47,25 @@ public class LruBitmapPool implements BitmapPool {
      * @param maxSize The initial maximum size of the pool in bytes.
      */
     public LruBitmapPool(int maxSize) {
-        this(maxSize, getDefaultStrategy());
+        this(maxSize, SizeStrategy.DEFAULT_MAX_WASTE_RATIO);
+    }
+
+    /**
+     * Constructor for LruBitmapPool.
+     *
+     * @param maxSize The initial maximum size of the pool in bytes.
+     * @param maxWasteRatio On KitKat and above, the largest multiple of the requested size of a
+     *                      {@link android.graphics.Bitmap} that may be reused, must be >= 1. Larger values increase
+     *                      the hit rate at the cost of holding larger allocations for smaller images. Ignored on
+     *                      earlier versions, where only {@link android.graphics.Bitmap}s of the requested dimensions
+     *                      are reused.
+     */
+    public LruBitmapPool(int maxSize, float maxWasteRatio) {
+        this(maxSize, getDefaultStrategy(maxWasteRatio));
     }
 
     @Override
-    public void setSizeMultiplier(float sizeMultiplier) {
+    public synchronized void setSizeMultiplier(float sizeMultiplier) {
         maxSize = Math.round(initialMaxSize * sizeMultiplier);
         evict();
     }
@@ -65,6 +82,7 @@ public class LruBitmapPool implements BitmapPool {
 
         puts++;
         currentSize += size;
+        sizeHistogram[BitmapPoolStats.getSizeBucket(size)]++;
 
         if (Log.isLoggable(TAG, Log.DEBUG)) {
             Log.d(TAG, "Put bitmap in pool=" + strategy.logBitmap(bitmap));
@@ -90,7 +108,9 @@ public class LruBitmapPool implements BitmapPool {
             misses++;
         } else {
             hits++;
-            currentSize -= strategy.getSize(result);
+            final int size = strategy.getSize(result);
+            currentSize -= size;
+            sizeHistogram[BitmapPoolStats.getSizeBucket(size)]--;
             tracker.remove(result);
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB_MR1) {
                 result.setHasAlpha(true);
@@ -105,13 +125,13 @@ public class LruBitmapPool implements BitmapPool {
     }
 
     @Override
-    public void clearMemory() {
+    public synchronized void clearMemory() {
         trimToSize(0);
     }
 
     @SuppressLint("InlinedApi")
     @Override
-    public void trimMemory(int level) {
+    public synchronized void trimMemory(int level) {
         if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
             clearMemory();
         } else if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
@@ -121,29 +141,59 @@ public class LruBitmapPool implements BitmapPool {
 
     private void trimToSize(int size) {
         while (currentSize > size) {
-            final Bitmap removed = strategy.removeLast();
-            tracker.remove(removed);
-            currentSize -= strategy.getSize(removed);
-            removed.recycle();
-            evictions++;
-            if (Log.isLoggable(TAG, Log.DEBUG)) {
-                Log.d(TAG, "Evicting bitmap=" + strategy.logBitmap(removed));
-            }
-            dump();
+            evictLast();
+        }
+    }
+
+    /**
+     * Evicts the least recently used {@link android.graphics.Bitmap} and returns its size, or returns 0 if the pool is
+     * empty.
+     */
+    synchronized int evictLeastRecentlyUsed() {
+        return currentSize > 0 ? evictLast() : 0;
+    }
+
+    /**
+     * Returns the size the pool's strategy uses for the given {@link android.graphics.Bitmap}.
+     */
+    int getSize(Bitmap bitmap) {
+        return strategy.getSize(bitmap);
+    }
+
+    private int evictLast() {
+        final Bitmap removed = strategy.removeLast();
+        tracker.remove(removed);
+        final int removedSize = strategy.getSize(removed);
+        currentSize -= removedSize;
+        sizeHistogram[BitmapPoolStats.getSizeBucket(removedSize)]--;
+        removed.recycle();
+        evictions++;
+        evictedBytes += removedSize;
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+            Log.d(TAG, "Evicting bitmap=" + strategy.logBitmap(removed));
         }
+        dump();
+        return removedSize;
+    }
+
+    /**
+     * Returns a snapshot of the pool's counters and sizes. The pool is only locked while the counters are copied.
+     */
+    @Override
+    public synchronized BitmapPoolStats getStats() {
+        return new BitmapPoolStats(hits, misses, puts, evictions, evictedBytes, currentSize, maxSize, sizeHistogram);
     }
 
     private void dump() {
         if (Log.isLoggable(TAG, Log.VERBOSE)) {
-            Log.v(TAG, "Hits=" + hits + " misses=" + misses + " puts=" + puts + " evictions=" + evictions
-                    + " currentSize=" + currentSize + " maxSize=" + maxSize + "\nStrategy=" + strategy);
+            Log.v(TAG, getStats().toString());
         }
     }
 
-    private static LruPoolStrategy getDefaultStrategy() {
+    private static LruPoolStrategy getDefaultStrategy(float maxWasteRatio) {
         final LruPoolStrategy strategy;
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-            strategy = new SizeStrategy();
+            strategy = new SizeStrategy(maxWasteRatio);
         } else {
             strategy = new AttributeStrategy();
         }
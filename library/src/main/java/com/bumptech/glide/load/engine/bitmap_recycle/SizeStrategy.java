@@ -4,27 +4,52 @@ import android.annotation.TargetApi;
 import android.graphics.Bitmap;
 import android.os.Build;
 
-import java.util.TreeMap;
+import com.bumptech.glide.util.Util;
 
 /**
  * A strategy for reusing bitmaps that relies on {@link Bitmap#reconfigure(int, int, Bitmap.Config)}.
  * Requires {@link Build.VERSION_CODES#KITKAT KitKat} (API {@value Build.VERSION_CODES#KITKAT}) or higher.
+ *
+ * <p>
+ *     Bitmaps larger than the requested size are only reused if they are at most a given multiple of the requested
+ *     size, so that small requests don't hold on to much larger allocations.
+ * </p>
  */
 @TargetApi(Build.VERSION_CODES.KITKAT)
 class SizeStrategy implements LruPoolStrategy {
-    private static final int MAX_SIZE_MULTIPLE = 4;
+    /**
+     * The default largest multiple of the requested size of a reused bitmap.
+     */
+    static final float DEFAULT_MAX_WASTE_RATIO = 2f;
     private final KeyPool keyPool = new KeyPool();
     private final GroupedLinkedMap<Key, Bitmap> groupedMap = new GroupedLinkedMap<Key, Bitmap>();
-    private final TreeMap<Integer, Integer> sortedSizes = new TreeMap<Integer, Integer>();
+    private final SortedSizeCounts sortedSizes = new SortedSizeCounts();
+    private final float maxWasteRatio;
+
+    public SizeStrategy() {
+        this(DEFAULT_MAX_WASTE_RATIO);
+    }
+
+    /**
+     * Constructor for SizeStrategy.
+     *
+     * @param maxWasteRatio The largest multiple of the requested size of a bitmap that may be reused, must be >= 1.
+     */
+    public SizeStrategy(float maxWasteRatio) {
+        if (maxWasteRatio < 1f) {
+            throw new IllegalArgumentException("Max waste ratio must be >= 1");
+        }
+        this.maxWasteRatio = maxWasteRatio;
+    }
 
     @Override
     public void put(Bitmap bitmap) {
-        final Key key = keyPool.get(bitmap.getAllocationByteCount());
+        final int size = bitmap.getAllocationByteCount();
+        final Key key = keyPool.get(size);
 
         groupedMap.put(key, bitmap);
 
-        Integer current = sortedSizes.get(key.size);
-        sortedSizes.put(key.size, current == null ? 1 : current + 1);
+        sortedSizes.increment(size);
     }
 
     @Override
@@ -32,17 +57,20 @@ class SizeStrategy implements LruPoolStrategy {
         final int size = getSize(width, height, config);
         Key key = keyPool.get(size);
 
-        Integer possibleSize = sortedSizes.ceilingKey(size);
-        if (possibleSize != null && possibleSize != size && possibleSize <= size * MAX_SIZE_MULTIPLE) {
+        int resultSize = size;
+        int possibleSize = sortedSizes.ceilingSize(size);
+        if (possibleSize != SortedSizeCounts.NONE && possibleSize != size
+                && possibleSize <= (long) (size * (double) maxWasteRatio)) {
             keyPool.offer(key);
             key = keyPool.get(possibleSize);
+            resultSize = possibleSize;
         }
 
         // Do a get even if we know we don't have a bitmap so that the key moves to the front in the lru pool
         final Bitmap result = groupedMap.get(key);
         if (result != null) {
             result.reconfigure(width, height, config);
-            decrementBitmapOfSize(possibleSize);
+            sortedSizes.decrement(resultSize);
         }
 
         return result;
@@ -52,21 +80,11 @@ class SizeStrategy implements LruPoolStrategy {
     public Bitmap removeLast() {
         Bitmap removed = groupedMap.removeLast();
         if (removed != null) {
-            final int removedSize = removed.getAllocationByteCount();
-            decrementBitmapOfSize(removedSize);
+            sortedSizes.decrement(removed.getAllocationByteCount());
         }
         return removed;
     }
 
-    private void decrementBitmapOfSize(Integer size) {
-        Integer current = sortedSizes.get(size);
-        if (current == 1) {
-            sortedSizes.remove(size);
-        } else {
-            sortedSizes.put(size, current - 1);
-        }
-    }
-
     @Override
     public String logBitmap(Bitmap bitmap) {
         return getBitmapString(bitmap);
@@ -84,16 +102,7 @@ class SizeStrategy implements LruPoolStrategy {
 
     @Override
     public String toString() {
-        String result = "SizeStrategy:\n  " + groupedMap + "\n  SortedSizes( ";
-        boolean hadAtLeastOneKey = false;
-        for (Integer size : sortedSizes.keySet()) {
-            hadAtLeastOneKey = true;
-            result += "{" + getBitmapString(size) + ":" + sortedSizes.get(size) + "}, ";
-        }
-        if (hadAtLeastOneKey) {
-            result = result.substring(0, result.length() - 2);
-        }
-        return result + " )";
+        return "SizeStrategy:\n  " + groupedMap + "\n  " + sortedSizes;
     }
 
     private static String getBitmapString(Bitmap bitmap) {
@@ -105,30 +114,7 @@ class SizeStrategy implements LruPoolStrategy {
     }
 
     private static int getSize(int width, int height, Bitmap.Config config) {
-        return width * height * getBytesPerPixel(config);
-    }
-
-    private static int getBytesPerPixel(Bitmap.Config config) {
-        // a bitmap by decoding a gif has null "config" in certain environments.
-        if (config == null) {
-            return 4;
-        }
-
-        switch (config) {
-            case ARGB_8888:
-                return 4;
-            case RGB_565:
-                return 2;
-            case ARGB_4444:
-                return 2;
-            case ALPHA_8:
-                return 1;
-            default:
-                // We only use this to calculate sizes to get, so choosing 4 bytes per pixel is conservative and
-                // probably forces us to get a larger bitmap than we really need. Since we can't tell for sure, probably
-                // better safe than sorry.
-                return 4;
-        }
+        return Util.getBitmapByteSize(width, height, config);
     }
 
     private static class KeyPool extends BaseKeyPool<Key> {
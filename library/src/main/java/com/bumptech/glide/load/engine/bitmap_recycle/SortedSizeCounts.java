@@ -0,0 +1,118 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+/**
+ * Counts the number of pooled {@link android.graphics.Bitmap}s of each size and finds the smallest size at least as
+ * large as a given size.
+ *
+ * <p>
+ *     Sizes are kept in sorted primitive arrays, so counting and lookups never box. Pools rarely hold more than a few
+ *     dozen distinct sizes, so shifting the arrays on insert and remove is cheap.
+ * </p>
+ */
+final class SortedSizeCounts {
+    /**
+     * Returned by {@link #ceilingSize(int)} when there is no large enough size.
+     */
+    static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] sizes = new int[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int sizeCount;
+
+    /**
+     * Adds one to the count for the given size.
+     */
+    public void increment(int size) {
+        int index = indexOf(size);
+        if (index >= 0) {
+            counts[index]++;
+            return;
+        }
+
+        index = -(index + 1);
+        if (sizeCount == sizes.length) {
+            sizes = grow(sizes);
+            counts = grow(counts);
+        }
+        System.arraycopy(sizes, index, sizes, index + 1, sizeCount - index);
+        System.arraycopy(counts, index, counts, index + 1, sizeCount - index);
+        sizes[index] = size;
+        counts[index] = 1;
+        sizeCount++;
+    }
+
+    /**
+     * Subtracts one from the count for the given size, which must have been incremented.
+     */
+    public void decrement(int size) {
+        int index = indexOf(size);
+        if (index < 0) {
+            throw new IllegalStateException("Cannot decrement missing size: " + size);
+        }
+        if (counts[index] > 1) {
+            counts[index]--;
+            return;
+        }
+        System.arraycopy(sizes, index + 1, sizes, index, sizeCount - index - 1);
+        System.arraycopy(counts, index + 1, counts, index, sizeCount - index - 1);
+        sizeCount--;
+    }
+
+    /**
+     * Returns the smallest size with a count greater than zero that is greater than or equal to the given size, or
+     * {@link #NONE}.
+     */
+    public int ceilingSize(int size) {
+        int index = indexOf(size);
+        if (index >= 0) {
+            return size;
+        }
+        index = -(index + 1);
+        return index < sizeCount ? sizes[index] : NONE;
+    }
+
+    /**
+     * Returns the count for the given size.
+     */
+    public int getCount(int size) {
+        int index = indexOf(size);
+        return index >= 0 ? counts[index] : 0;
+    }
+
+    // Returns the index of the given size, or -(insertion point + 1) if it isn't present. Arrays.binarySearch with a
+    // range isn't available before Gingerbread.
+    private int indexOf(int size) {
+        int low = 0;
+        int high = sizeCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (sizes[mid] < size) {
+                low = mid + 1;
+            } else if (sizes[mid] > size) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int[] grow(int[] array) {
+        int[] result = new int[array.length * 2];
+        System.arraycopy(array, 0, result, 0, array.length);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("SortedSizes( ");
+        for (int i = 0; i < sizeCount; i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append("{[").append(sizes[i]).append("]:").append(counts[i]).append('}');
+        }
+        return result.append(" )").toString();
+    }
+}
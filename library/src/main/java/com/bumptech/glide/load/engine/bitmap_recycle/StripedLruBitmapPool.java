@@ -0,0 +1,177 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import android.annotation.SuppressLint;
+import android.graphics.Bitmap;
+
+import com.bumptech.glide.util.Util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool} for apps that decode on multiple threads at once.
+ *
+ * <p>
+ *     {@link android.graphics.Bitmap}s are divided between a number of independently locked
+ *     {@link com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool} stripes by size class, so threads getting and
+ *     putting {@link android.graphics.Bitmap}s of different sizes never contend with each other. A single maximum size
+ *     is shared by all stripes and tracked without locking. When the pool is too large, stripes evict their least
+ *     recently used {@link android.graphics.Bitmap} in turn, so the least recently used
+ *     {@link android.graphics.Bitmap} overall is not necessarily the first to be evicted.
+ * </p>
+ *
+ * <p>
+ *     Size classes are powers of two. Because {@link android.graphics.Bitmap}s up to a few times larger than requested
+ *     can be reused on KitKat and above, gets search the stripe for the requested size and the stripes for the next
+ *     two size classes.
+ * </p>
+ */
+public class StripedLruBitmapPool implements BitmapPool, BitmapPoolStatsProvider {
+    /**
+     * The number of stripes used by {@link #StripedLruBitmapPool(int)}.
+     */
+    public static final int DEFAULT_STRIPE_COUNT = 4;
+    private static final int SIZE_CLASSES_SEARCHED = 3;
+
+    private final LruBitmapPool[] stripes;
+    private final int initialMaxSize;
+    private final AtomicInteger currentSize = new AtomicInteger();
+    private final AtomicInteger nextStripeToEvict = new AtomicInteger();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile int maxSize;
+
+    /**
+     * Constructor for StripedLruBitmapPool that uses {@link #DEFAULT_STRIPE_COUNT} stripes.
+     *
+     * @param maxSize The initial maximum size of the pool in bytes.
+     */
+    public StripedLruBitmapPool(int maxSize) {
+        this(maxSize, DEFAULT_STRIPE_COUNT);
+    }
+
+    /**
+     * Constructor for StripedLruBitmapPool.
+     *
+     * @param maxSize The initial maximum size of the pool in bytes.
+     * @param stripeCount The number of independently locked stripes to divide the pool into.
+     */
+    public StripedLruBitmapPool(int maxSize, int stripeCount) {
+        this(maxSize, createStripes(stripeCount));
+    }
+
+    // Exposed for testing only.
+    StripedLruBitmapPool(int maxSize, LruBitmapPool[] stripes) {
+        this.initialMaxSize = maxSize;
+        this.maxSize = maxSize;
+        this.stripes = stripes;
+    }
+
+    private static LruBitmapPool[] createStripes(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be > 0");
+        }
+        LruBitmapPool[] result = new LruBitmapPool[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            // The shared maximum size is enforced here, stripes must never evict on their own or the shared size
+            // would no longer match the sum of their sizes.
+            result[i] = new LruBitmapPool(Integer.MAX_VALUE);
+        }
+        return result;
+    }
+
+    @Override
+    public void setSizeMultiplier(float sizeMultiplier) {
+        maxSize = Math.round(initialMaxSize * sizeMultiplier);
+        trimToSize(maxSize);
+    }
+
+    @Override
+    public boolean put(Bitmap bitmap) {
+        final int size = stripes[0].getSize(bitmap);
+        if (size > maxSize || !getStripe(BitmapPoolStats.getSizeBucket(size)).put(bitmap)) {
+            return false;
+        }
+        if (currentSize.addAndGet(size) > maxSize) {
+            trimToSize(maxSize);
+        }
+        return true;
+    }
+
+    @Override
+    public Bitmap get(int width, int height, Bitmap.Config config) {
+        final int sizeBucket = BitmapPoolStats.getSizeBucket(Util.getBitmapByteSize(width, height, config));
+        final int stripesSearched = Math.min(SIZE_CLASSES_SEARCHED, stripes.length);
+        for (int i = 0; i < stripesSearched; i++) {
+            LruBitmapPool stripe = getStripe(sizeBucket + i);
+            Bitmap result = stripe.get(width, height, config);
+            if (result != null) {
+                currentSize.addAndGet(-stripe.getSize(result));
+                hits.incrementAndGet();
+                return result;
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    @Override
+    public void clearMemory() {
+        trimToSize(0);
+    }
+
+    @SuppressLint("InlinedApi")
+    @Override
+    public void trimMemory(int level) {
+        if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            clearMemory();
+        } else if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            trimToSize(maxSize / 2);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the pool's counters and sizes, summed over all stripes. Each stripe is only locked while
+     * its own counters are copied, so the snapshot is not atomic across stripes.
+     */
+    @Override
+    public BitmapPoolStats getStats() {
+        long puts = 0;
+        long evictions = 0;
+        long evictedBytes = 0;
+        int size = 0;
+        int[] sizeHistogram = new int[BitmapPoolStats.SIZE_BUCKET_COUNT];
+        for (LruBitmapPool stripe : stripes) {
+            BitmapPoolStats stripeStats = stripe.getStats();
+            puts += stripeStats.getPutCount();
+            evictions += stripeStats.getEvictionCount();
+            evictedBytes += stripeStats.getEvictedBytes();
+            size += stripeStats.getCurrentSize();
+            for (int i = 0; i < sizeHistogram.length; i++) {
+                sizeHistogram[i] += stripeStats.getBitmapCount(i);
+            }
+        }
+        // Stripes are searched in turn, so their hits and misses don't match those of the pool.
+        return new BitmapPoolStats(hits.get(), misses.get(), puts, evictions, evictedBytes, size, maxSize,
+                sizeHistogram);
+    }
+
+    private LruBitmapPool getStripe(int sizeBucket) {
+        return stripes[sizeBucket % stripes.length];
+    }
+
+    private void trimToSize(int size) {
+        while (currentSize.get() > size) {
+            int evicted = 0;
+            for (int i = 0; i < stripes.length && evicted == 0; i++) {
+                int index = (nextStripeToEvict.getAndIncrement() & Integer.MAX_VALUE) % stripes.length;
+                evicted = stripes[index].evictLeastRecentlyUsed();
+            }
+            if (evicted == 0) {
+                // Every stripe is empty, Bitmaps being put concurrently haven't been added to the current size yet.
+                return;
+            }
+            currentSize.addAndGet(-evicted);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.bumptech.glide.load.engine.cache;
+
+import com.bumptech.glide.util.Util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps a lock for each safe disk cache key that is in use so that operations on the same key in
+ * {@link DiskLruCacheWrapper} happen one at a time while operations on different keys can run concurrently.
+ *
+ * <p>
+ *     Locks are reference counted and are returned to a small pool once no thread holds or is waiting for them, so the
+ *     number of locks is bounded by the number of concurrent operations rather than the number of keys.
+ * </p>
+ */
+class DiskCacheKeyLocker {
+    private static final int MAX_POOL_SIZE = 10;
+
+    private final Map<String, KeyLock> locks = new HashMap<String, KeyLock>();
+    private final Queue<KeyLock> pool = Util.createQueue(0);
+
+    /**
+     * Blocks until no other thread holds the lock for the given key, then acquires it.
+     *
+     * @param safeKey The safe key to lock.
+     */
+    public void acquire(String safeKey) {
+        KeyLock keyLock;
+        synchronized (this) {
+            keyLock = locks.get(safeKey);
+            if (keyLock == null) {
+                keyLock = pool.poll();
+                if (keyLock == null) {
+                    keyLock = new KeyLock();
+                }
+                locks.put(safeKey, keyLock);
+            }
+            keyLock.interestedThreads++;
+        }
+        keyLock.lock.lock();
+    }
+
+    /**
+     * Releases the lock for the given key that must previously have been acquired by the calling thread.
+     *
+     * @param safeKey The safe key to unlock.
+     */
+    public void release(String safeKey) {
+        KeyLock keyLock;
+        synchronized (this) {
+            keyLock = locks.get(safeKey);
+            if (keyLock == null || keyLock.interestedThreads <= 0) {
+                throw new IllegalStateException("Cannot release a lock that is not held, key: " + safeKey);
+            }
+            if (--keyLock.interestedThreads == 0) {
+                locks.remove(safeKey);
+                if (pool.size() < MAX_POOL_SIZE) {
+                    pool.offer(keyLock);
+                }
+            }
+        }
+        keyLock.lock.unlock();
+    }
+
+    /**
+     * Returns the number of keys that are currently locked or waited on.
+     */
+    synchronized int getLockedKeyCount() {
+        return locks.size();
+    }
+
+    private static class KeyLock {
+        final Lock lock = new ReentrantLock();
+        int interestedThreads;
+    }
+}
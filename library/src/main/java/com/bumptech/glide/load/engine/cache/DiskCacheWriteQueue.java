@@ -0,0 +1,218 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.executor.FifoPriorityThreadPoolExecutor;
+import com.bumptech.glide.load.engine.executor.Prioritized;
+import com.bumptech.glide.util.LogTime;
+import com.bumptech.glide.util.Util;
+
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A bounded queue of writes to a {@link com.bumptech.glide.load.engine.cache.DiskCache} that are performed in the
+ * background after a load completes so that encoding a resource doesn't delay displaying it.
+ *
+ * <p>
+ *     Each queued write holds on to the {@link com.bumptech.glide.load.engine.Resource} it encodes and recycles it once
+ *     the write finishes or is dropped. Callers should therefore pass a reference counted resource that is only
+ *     actually recycled when both the write and every other consumer are done with it. Recycling happens on the main
+ *     thread.
+ * </p>
+ *
+ * <p>
+ *     If writes are queued faster than they can be performed, the oldest queued write is dropped each time a new write
+ *     would exceed the maximum backlog. Dropped writes simply mean the resource isn't available in the disk cache and
+ *     will be loaded from source again next time.
+ * </p>
+ */
+public class DiskCacheWriteQueue {
+    private static final String TAG = "DiskCacheWriteQueue";
+    private static final int DEFAULT_MAX_BACKLOG = 20;
+
+    private final Queue<PendingWrite> backlog = Util.createQueue(0);
+    private final ExecutorService executor;
+    private final Handler mainHandler;
+    private final int maxBacklog;
+    private final Runnable drainer = new Drainer();
+    private boolean isDraining;
+
+    private int maxQueueDepth;
+    private long completedWriteCount;
+    private long droppedWriteCount;
+    private double totalWriteLatencyMillis;
+    private double maxWriteLatencyMillis;
+
+    /**
+     * Constructor for a DiskCacheWriteQueue that performs writes on a single background thread and holds at most
+     * {@value #DEFAULT_MAX_BACKLOG} pending writes.
+     */
+    public DiskCacheWriteQueue() {
+        this(new FifoPriorityThreadPoolExecutor(1), DEFAULT_MAX_BACKLOG);
+    }
+
+    /**
+     * Constructor for DiskCacheWriteQueue.
+     *
+     * @param executor The service to perform writes on. Writes are performed one at a time in the order they were
+     *                 queued regardless of the number of threads the service has.
+     * @param maxBacklog The maximum number of writes that can be waiting to be performed, must be greater than 0.
+     */
+    public DiskCacheWriteQueue(ExecutorService executor, int maxBacklog) {
+        this(executor, maxBacklog, new Handler(Looper.getMainLooper()));
+    }
+
+    DiskCacheWriteQueue(ExecutorService executor, int maxBacklog, Handler mainHandler) {
+        if (maxBacklog <= 0) {
+            throw new IllegalArgumentException("Max backlog must be > 0");
+        }
+        this.executor = executor;
+        this.maxBacklog = maxBacklog;
+        this.mainHandler = mainHandler;
+    }
+
+    /**
+     * Queues a write to the given disk cache.
+     *
+     * @param diskCache The cache to write to.
+     * @param key The key to write to.
+     * @param writer The writer that will write the data to the cache.
+     * @param resource The resource the writer encodes, recycled once the write completes or is dropped.
+     */
+    public void enqueue(DiskCache diskCache, Key key, DiskCache.Writer writer, Resource<?> resource) {
+        final PendingWrite dropped;
+        final boolean startDraining;
+        synchronized (this) {
+            dropped = backlog.size() >= maxBacklog ? backlog.poll() : null;
+            if (dropped != null) {
+                droppedWriteCount++;
+            }
+            backlog.offer(new PendingWrite(diskCache, key, writer, resource));
+            maxQueueDepth = Math.max(maxQueueDepth, backlog.size());
+            startDraining = !isDraining;
+            isDraining = true;
+        }
+
+        if (dropped != null) {
+            if (Log.isLoggable(TAG, Log.DEBUG)) {
+                Log.d(TAG, "Dropped disk cache write for key: " + dropped.key);
+            }
+            release(dropped.resource);
+        }
+        if (startDraining) {
+            // Use submit so that priority executors wrap the drainer in a comparable task.
+            executor.submit(drainer);
+        }
+    }
+
+    /**
+     * Returns the number of writes currently waiting to be performed.
+     */
+    public synchronized int getQueueDepth() {
+        return backlog.size();
+    }
+
+    /**
+     * Returns the largest number of writes that have ever been waiting to be performed at once.
+     */
+    public synchronized int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * Returns the number of writes that have been performed, successful or not.
+     */
+    public synchronized long getCompletedWriteCount() {
+        return completedWriteCount;
+    }
+
+    /**
+     * Returns the number of writes that were dropped because the backlog was full.
+     */
+    public synchronized long getDroppedWriteCount() {
+        return droppedWriteCount;
+    }
+
+    /**
+     * Returns the average time in milliseconds between a write being queued and finishing, or 0 if no writes have
+     * been performed.
+     */
+    public synchronized double getAverageWriteLatencyMillis() {
+        return completedWriteCount == 0 ? 0 : totalWriteLatencyMillis / completedWriteCount;
+    }
+
+    /**
+     * Returns the longest time in milliseconds between a write being queued and finishing.
+     */
+    public synchronized double getMaxWriteLatencyMillis() {
+        return maxWriteLatencyMillis;
+    }
+
+    private void release(final Resource<?> resource) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                resource.recycle();
+            }
+        });
+    }
+
+    private class Drainer implements Runnable, Prioritized {
+
+        @Override
+        public void run() {
+            while (true) {
+                final PendingWrite write;
+                synchronized (DiskCacheWriteQueue.this) {
+                    write = backlog.poll();
+                    if (write == null) {
+                        isDraining = false;
+                        return;
+                    }
+                }
+
+                try {
+                    write.diskCache.put(write.key, write.writer);
+                } catch (RuntimeException e) {
+                    // Keep draining, otherwise the remaining writes would never be performed or released.
+                    if (Log.isLoggable(TAG, Log.WARN)) {
+                        Log.w(TAG, "Failed to write to disk cache", e);
+                    }
+                }
+                double latency = LogTime.getElapsedMillis(write.startTime);
+                synchronized (DiskCacheWriteQueue.this) {
+                    completedWriteCount++;
+                    totalWriteLatencyMillis += latency;
+                    maxWriteLatencyMillis = Math.max(maxWriteLatencyMillis, latency);
+                }
+                release(write.resource);
+            }
+        }
+
+        @Override
+        public int getPriority() {
+            return Priority.LOW.ordinal();
+        }
+    }
+
+    private static class PendingWrite {
+        private final DiskCache diskCache;
+        private final Key key;
+        private final DiskCache.Writer writer;
+        private final Resource<?> resource;
+        private final long startTime = LogTime.getLogTime();
+
+        public PendingWrite(DiskCache diskCache, Key key, DiskCache.Writer writer, Resource<?> resource) {
+            this.diskCache = diskCache;
+            this.key = key;
+            this.writer = writer;
+            this.resource = resource;
+        }
+    }
+}
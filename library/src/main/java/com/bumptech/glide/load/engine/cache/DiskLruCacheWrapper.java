@@ -16,6 +16,13 @@ import java.io.IOException;
  * The default DiskCache implementation. There must be no more than one active instance for a given
  * directory at a time.
  *
+ * <p>
+ *     Safe to use from multiple threads. Calls to {@link #get(com.bumptech.glide.load.Key)},
+ *     {@link #put(com.bumptech.glide.load.Key, com.bumptech.glide.load.engine.cache.DiskCache.Writer)} and
+ *     {@link #delete(com.bumptech.glide.load.Key)} for the same key are run one at a time, calls for different keys
+ *     may run concurrently.
+ * </p>
+ *
  * @see #get(java.io.File, int)
  */
 public class DiskLruCacheWrapper implements DiskCache {
@@ -25,6 +32,7 @@ public class DiskLruCacheWrapper implements DiskCache {
     private static final int VALUE_COUNT = 1;
     private static DiskLruCacheWrapper wrapper = null;
     private final SafeKeyGenerator safeKeyGenerator;
+    private final DiskCacheKeyLocker keyLocker = new DiskCacheKeyLocker();
 
     /**
      * Get a DiskCache in the given directory and size. If a disk cache has alread been created with
@@ -65,6 +73,7 @@ public class DiskLruCacheWrapper implements DiskCache {
     public File get(Key key) {
         String safeKey = safeKeyGenerator.getSafeKey(key);
         File result = null;
+        keyLocker.acquire(safeKey);
         try {
             //It is possible that the there will be a put in between these two gets. If so that shouldn't be a problem
             //because we will always put the same value at the same key so our input streams will still represent
@@ -77,6 +86,8 @@ public class DiskLruCacheWrapper implements DiskCache {
             if (Log.isLoggable(TAG, Log.WARN)) {
                 Log.w(TAG, "Unable to get from disk cache", e);
             }
+        } finally {
+            keyLocker.release(safeKey);
         }
         return result;
     }
@@ -84,9 +95,11 @@ public class DiskLruCacheWrapper implements DiskCache {
     @Override
     public void put(Key key, Writer writer) {
         String safeKey = safeKeyGenerator.getSafeKey(key);
+        keyLocker.acquire(safeKey);
         try {
             DiskLruCache.Editor editor = getDiskCache().edit(safeKey);
-            // Editor will be null if there are two concurrent puts. In the worst case we will just silently fail.
+            // Editor will be null if another instance is editing the same key. In the worst case we will just
+            // silently fail.
             if (editor != null) {
                 try {
                     File file = editor.getFile(0);
@@ -101,18 +114,23 @@ public class DiskLruCacheWrapper implements DiskCache {
             if (Log.isLoggable(TAG, Log.WARN)) {
                 Log.w(TAG, "Unable to put to disk cache", e);
             }
+        } finally {
+            keyLocker.release(safeKey);
         }
     }
 
     @Override
     public void delete(Key key) {
         String safeKey = safeKeyGenerator.getSafeKey(key);
+        keyLocker.acquire(safeKey);
         try {
             getDiskCache().remove(safeKey);
         } catch (IOException e) {
             if (Log.isLoggable(TAG, Log.WARN)) {
                 Log.w(TAG, "Unable to delete from disk cache", e);
             }
+        } finally {
+            keyLocker.release(safeKey);
         }
     }
 }
@@ -0,0 +1,101 @@
+package com.bumptech.glide.load.engine.cache;
+
+/**
+ * A probabilistic set of approximate access frequencies for keys, used by {@link TinyLfuResourceCache} to decide
+ * whether or not a new resource is worth caching at the expense of an existing resource.
+ *
+ * <p>
+ *     Uses a count-min sketch of four bit counters, so frequencies are capped at 15. Once the number of increments
+ *     reaches a multiple of the table size, all counters are halved so that the sketch reflects recent accesses more
+ *     strongly than old ones.
+ * </p>
+ */
+class FrequencySketch {
+    private static final long[] SEEDS = new long[] {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    // Clears the high bit of each four bit counter after a right shift.
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_FREQUENCY = 15;
+    private static final int SAMPLE_SIZE_MULTIPLIER = 10;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * Constructor for FrequencySketch.
+     *
+     * @param expectedEntries The approximate maximum number of keys expected to be tracked at any one time.
+     */
+    public FrequencySketch(int expectedEntries) {
+        int tableSize = 16;
+        while (tableSize < expectedEntries && tableSize < (1 << 30)) {
+            tableSize <<= 1;
+        }
+        table = new long[tableSize];
+        tableMask = tableSize - 1;
+        sampleSize = SAMPLE_SIZE_MULTIPLIER * tableSize;
+    }
+
+    /**
+     * Returns the approximate number of times the given key has been recorded, between 0 and 15 inclusive.
+     */
+    public int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        // Each long holds sixteen counters, the low bits of the hash pick which group of four to use.
+        int start = (hash & 3) << 2;
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an access of the given key.
+     */
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int hash, int i) {
+        long hashed = (hash + SEEDS[i]) * SEEDS[i];
+        hashed += hashed >>> 32;
+        return (int) hashed & tableMask;
+    }
+
+    private static int spread(int hash) {
+        int result = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        result = ((result >>> 16) ^ result) * 0x45d9f3b;
+        return (result >>> 16) ^ result;
+    }
+}
@@ -0,0 +1,175 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.annotation.SuppressLint;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.Log;
+
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.util.LruCache;
+import com.bumptech.glide.util.Util;
+
+/**
+ * A second tier in memory cache that holds cheap, low resolution copies of {@link android.graphics.Bitmap}s that
+ * have been evicted from the primary {@link com.bumptech.glide.load.engine.cache.MemoryCache} so that they can be
+ * displayed as placeholders while the full resolution {@link android.graphics.Bitmap} is loaded again.
+ *
+ * <p>
+ *     Copies are half the width and height of the original and use {@link android.graphics.Bitmap.Config#RGB_565}
+ *     if the original has no alpha channel, so each copy uses between one eighth and one quarter of the memory of the
+ *     original. Copies are never recycled or returned to a pool by this cache because they are handed to views, they
+ *     are simply dropped when evicted. This class is safe to access from multiple threads.
+ * </p>
+ */
+public class LowResBitmapCache {
+    private static final String TAG = "LowResBitmapCache";
+    private static final int DOWNSCALE_FACTOR = 2;
+
+    private final BitmapCache cache;
+    private int suspendCount;
+
+    /**
+     * Constructor for LowResBitmapCache.
+     *
+     * @param size The maximum size in bytes of all copies held by the cache.
+     */
+    public LowResBitmapCache(int size) {
+        cache = new BitmapCache(size);
+    }
+
+    /**
+     * Adds a low resolution copy of the given {@link android.graphics.Bitmap} to the cache. The given
+     * {@link android.graphics.Bitmap} is not retained and may be recycled as soon as this method returns.
+     *
+     * @param key The key of the resource the {@link android.graphics.Bitmap} was loaded for.
+     * @param bitmap The full resolution {@link android.graphics.Bitmap}.
+     */
+    public void put(Key key, Bitmap bitmap) {
+        if (bitmap.isRecycled()) {
+            return;
+        }
+        final int width = Math.max(1, bitmap.getWidth() / DOWNSCALE_FACTOR);
+        final int height = Math.max(1, bitmap.getHeight() / DOWNSCALE_FACTOR);
+        final Bitmap.Config config = bitmap.hasAlpha() ? Bitmap.Config.ARGB_8888 : Bitmap.Config.RGB_565;
+        // Avoid allocating copies that could never fit.
+        final int bytesPerPixel = config == Bitmap.Config.RGB_565 ? 2 : 4;
+        synchronized (this) {
+            if (suspendCount > 0 || width * height * bytesPerPixel >= cache.getMaxSize()) {
+                return;
+            }
+        }
+
+        final Bitmap copy;
+        try {
+            copy = Bitmap.createBitmap(width, height, config);
+        } catch (OutOfMemoryError e) {
+            if (Log.isLoggable(TAG, Log.WARN)) {
+                Log.w(TAG, "Failed to allocate low resolution copy", e);
+            }
+            return;
+        }
+        Canvas canvas = new Canvas(copy);
+        canvas.drawBitmap(bitmap, null, new Rect(0, 0, width, height), new Paint(Paint.FILTER_BITMAP_FLAG));
+
+        synchronized (this) {
+            cache.put(key, copy);
+        }
+    }
+
+    /**
+     * Stops copies from being added until a matching call to {@link #resume()}, so that
+     * {@link android.graphics.Bitmap}s evicted while memory is being freed aren't copied. Calls may be nested.
+     */
+    public synchronized void suspend() {
+        suspendCount++;
+    }
+
+    /**
+     * Undoes a previous call to {@link #suspend()}.
+     */
+    public synchronized void resume() {
+        if (suspendCount <= 0) {
+            throw new IllegalStateException("Cannot resume a cache that isn't suspended");
+        }
+        suspendCount--;
+    }
+
+    /**
+     * Returns true if copies are not currently being added because of a call to {@link #suspend()}.
+     */
+    public synchronized boolean isSuspended() {
+        return suspendCount > 0;
+    }
+
+    /**
+     * Removes and returns the low resolution copy for the given key, or null if no copy exists.
+     *
+     * <p>
+     *     Ownership of the returned {@link android.graphics.Bitmap} passes to the caller.
+     * </p>
+     *
+     * @param key The key of the resource to return a low resolution copy of.
+     */
+    public synchronized Bitmap remove(Key key) {
+        return cache.remove(key);
+    }
+
+    /**
+     * Returns the sum of the sizes in bytes of all copies in the cache.
+     */
+    public synchronized int getCurrentSize() {
+        return cache.getCurrentSize();
+    }
+
+    /**
+     * Adjust the maximum size of the cache by multiplying the original size of the cache by the given multiplier.
+     *
+     * @see com.bumptech.glide.load.engine.cache.MemoryCache#setSizeMultiplier(float)
+     *
+     * @param multiplier A size multiplier >= 0.
+     */
+    public synchronized void setSizeMultiplier(float multiplier) {
+        cache.setSizeMultiplier(multiplier);
+    }
+
+    /**
+     * Evict all copies from the cache.
+     */
+    public synchronized void clearMemory() {
+        cache.clearMemory();
+    }
+
+    /**
+     * Trim the cache to the appropriate level. Typically called on the callback onTrimMemory.
+     *
+     * @param level This integer represents a trim level as specified in {@link android.content.ComponentCallbacks2}.
+     */
+    @SuppressLint("InlinedApi")
+    public synchronized void trimMemory(int level) {
+        // Copies are only a nicety, so give them up before anything else.
+        if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            clearMemory();
+        } else if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            cache.trimToSize(cache.getCurrentSize() / 2);
+        }
+    }
+
+    private static class BitmapCache extends LruCache<Key, Bitmap> {
+
+        public BitmapCache(int size) {
+            super(size);
+        }
+
+        @Override
+        protected int getSize(Bitmap item) {
+            return Util.getSize(item);
+        }
+
+        @Override
+        protected void trimToSize(int size) {
+            super.trimToSize(size);
+        }
+    }
+}
@@ -9,8 +9,13 @@ import com.bumptech.glide.util.LruCache;
 /**
  * An LRU in memory cache for {@link com.bumptech.glide.load.engine.Resource}s.
  */
-public class LruResourceCache extends LruCache<Key, EngineResource<?>> implements MemoryCache {
+public class LruResourceCache extends LruCache<Key, EngineResource<?>> implements MemoryCache,
+        MemoryCacheStatsProvider {
     private ResourceRemovedListener listener;
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    private long evictionCount;
 
     /**
      * Constructor for LruResourceCache.
@@ -26,8 +31,31 @@ public class LruResourceCache extends LruCache<Key, EngineResource<?>> implement
         this.listener = listener;
     }
 
+    @Override
+    public EngineResource<?> remove(Key key) {
+        EngineResource<?> result = super.remove(key);
+        if (result != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return result;
+    }
+
+    @Override
+    public EngineResource<?> put(Key key, EngineResource<?> item) {
+        putCount++;
+        return super.put(key, item);
+    }
+
+    @Override
+    public MemoryCacheStats getStats() {
+        return new MemoryCacheStats(hitCount, missCount, putCount, evictionCount, getCurrentSize(), getMaxSize());
+    }
+
     @Override
     protected void onItemEvicted(Key key, EngineResource<?> item) {
+        evictionCount++;
         if (listener != null) {
             listener.onResourceRemoved(item);
         }
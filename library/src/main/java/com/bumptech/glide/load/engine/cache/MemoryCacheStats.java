@@ -0,0 +1,73 @@
+package com.bumptech.glide.load.engine.cache;
+
+/**
+ * An immutable snapshot of the counters and sizes of a {@link com.bumptech.glide.load.engine.cache.MemoryCache} that
+ * can be used to choose cache sizes from real hit ratios.
+ */
+public final class MemoryCacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+    private final long evictionCount;
+    private final int currentSize;
+    private final int maxSize;
+
+    /**
+     * Constructor for MemoryCacheStats.
+     *
+     * @param hitCount The number of removes that returned a resource.
+     * @param missCount The number of removes that returned null.
+     * @param putCount The number of resources put in the cache.
+     * @param evictionCount The number of resources evicted from the cache, including those that were too large to be
+     *                      cached.
+     * @param currentSize The total size in bytes of the resources in the cache.
+     * @param maxSize The current maximum size of the cache in bytes.
+     */
+    public MemoryCacheStats(long hitCount, long missCount, long putCount, long evictionCount, int currentSize,
+            int maxSize) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.evictionCount = evictionCount;
+        this.currentSize = currentSize;
+        this.maxSize = maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public int getCurrentSize() {
+        return currentSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the fraction of removes that returned a resource, or 0 if there have been no removes.
+     */
+    public float getHitRatio() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0f : (float) hitCount / requestCount;
+    }
+
+    @Override
+    public String toString() {
+        return "MemoryCacheStats{hits=" + hitCount + ", misses=" + missCount + ", puts=" + putCount + ", evictions="
+                + evictionCount + ", currentSize=" + currentSize + ", maxSize=" + maxSize + "}";
+    }
+}
@@ -0,0 +1,12 @@
+package com.bumptech.glide.load.engine.cache;
+
+/**
+ * An optional interface for {@link com.bumptech.glide.load.engine.cache.MemoryCache}s that keep counters that can be
+ * used to choose cache sizes from real hit ratios.
+ */
+public interface MemoryCacheStatsProvider {
+    /**
+     * Returns a snapshot of the cache's counters and sizes.
+     */
+    public MemoryCacheStats getStats();
+}
@@ -17,11 +17,14 @@ public class MemorySizeCalculator {
     static final int BYTES_PER_ARGB_8888_PIXEL = 4;
     static final int MEMORY_CACHE_TARGET_SCREENS = 2;
     static final int BITMAP_POOL_TARGET_SCREENS = 3;
+    // Low resolution copies are at most a quarter of the size of the originals.
+    static final int LOW_RES_CACHE_MEMORY_CACHE_DIVISOR = 4;
 
     static final float MAX_SIZE_MULTIPLIER = 0.4f;
     static final float LOW_MEMORY_MAX_SIZE_MULTIPLIER = 0.33f;
     private final int bitmapPoolSize;
     private final int memoryCacheSize;
+    private final int lowResCacheSize;
 
     interface ScreenDimensions {
         public int getWidthPixels();
@@ -50,6 +53,8 @@ public class MemorySizeCalculator {
             memoryCacheSize = part * MEMORY_CACHE_TARGET_SCREENS;
             bitmapPoolSize = part * BITMAP_POOL_TARGET_SCREENS;
         }
+        // Split so that the low resolution cache can hold copies of everything in the rest of the memory cache.
+        lowResCacheSize = memoryCacheSize / (LOW_RES_CACHE_MEMORY_CACHE_DIVISOR + 1);
 
         if (Log.isLoggable(TAG, Log.DEBUG)) {
             Log.d(TAG, "Calculated memory cache size: " + toMb(memoryCacheSize) + " pool size: " + toMb(bitmapPoolSize)
@@ -66,6 +71,15 @@ public class MemorySizeCalculator {
         return memoryCacheSize;
     }
 
+    /**
+     * Returns the recommended memory cache size for the device it is run on in bytes if a
+     * {@link com.bumptech.glide.load.engine.cache.LowResBitmapCache} of the size given by
+     * {@link #getLowResCacheSize()} is also used.
+     */
+    public int getMemoryCacheSizeWithLowResCache() {
+        return memoryCacheSize - lowResCacheSize;
+    }
+
     /**
      * Returns the recommended bitmap pool size for the device it is run on in bytes.
      */
@@ -73,6 +87,20 @@ public class MemorySizeCalculator {
         return bitmapPoolSize;
     }
 
+    /**
+     * Returns the recommended size for the optional {@link com.bumptech.glide.load.engine.cache.LowResBitmapCache}
+     * in bytes.
+     *
+     * <p>
+     *     The low resolution cache is taken out of the memory cache's budget rather than added on top of it, so the
+     *     memory cache should be given {@link #getMemoryCacheSizeWithLowResCache()} when both are used. Enough to hold
+     *     low resolution copies of everything in a memory cache of that size.
+     * </p>
+     */
+    public int getLowResCacheSize() {
+        return lowResCacheSize;
+    }
+
     private static int getMaxSize(ActivityManager activityManager) {
         final int memoryClassBytes = activityManager.getMemoryClass() * 1024 * 1024;
         final boolean isLowMemoryDevice = isLowMemoryDevice(activityManager);
@@ -10,29 +10,63 @@ import java.security.NoSuchAlgorithmException;
 
 /**
  * A class that generates and caches safe and unique string file names from {@link com.bumptech.glide.load.Key}s.
+ *
+ * <p>
+ *     Safe to use from multiple threads. Cached names are split across several independently locked LRU caches by
+ *     key hash so that threads looking up different keys rarely wait for each other, and each thread reuses its own
+ *     {@link java.security.MessageDigest}.
+ * </p>
  */
 class SafeKeyGenerator {
-    private final LruCache<Key, String> loadIdToSafeHash = new LruCache<Key, String>(1000);
+    private static final int MAX_SIZE = 1000;
+    // Must be a power of two.
+    private static final int STRIPE_COUNT = 8;
+    private static final ThreadLocal<MessageDigest> DIGEST = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    private final LruCache<Key, String>[] loadIdToSafeHash = new LruCache[STRIPE_COUNT];
+
+    public SafeKeyGenerator() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            loadIdToSafeHash[i] = new LruCache<Key, String>(MAX_SIZE / STRIPE_COUNT);
+        }
+    }
 
     public String getSafeKey(Key key) {
+        final LruCache<Key, String> stripe = getStripe(key);
         String safeKey;
-        synchronized (loadIdToSafeHash) {
-            safeKey = loadIdToSafeHash.get(key);
+        synchronized (stripe) {
+            safeKey = stripe.get(key);
         }
         if (safeKey == null) {
+            MessageDigest messageDigest = DIGEST.get();
+            // Clears any partial state left behind if a previous key threw part way through.
+            messageDigest.reset();
             try {
-                MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
                 key.updateDiskCacheKey(messageDigest);
                 safeKey = Util.sha256BytesToHex(messageDigest.digest());
             } catch (UnsupportedEncodingException e) {
                 e.printStackTrace();
-            } catch (NoSuchAlgorithmException e) {
-                e.printStackTrace();
             }
-            synchronized (loadIdToSafeHash) {
-                loadIdToSafeHash.put(key, safeKey);
+            synchronized (stripe) {
+                stripe.put(key, safeKey);
             }
         }
         return safeKey;
     }
+
+    private LruCache<Key, String> getStripe(Key key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return loadIdToSafeHash[hash & (STRIPE_COUNT - 1)];
+    }
 }
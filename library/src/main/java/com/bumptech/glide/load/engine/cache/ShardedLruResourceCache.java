@@ -0,0 +1,215 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.annotation.SuppressLint;
+
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.EngineResource;
+import com.bumptech.glide.util.LruCache;
+
+/**
+ * An in memory cache for {@link com.bumptech.glide.load.engine.Resource}s that is safe to access from multiple threads.
+ *
+ * <p>
+ *     Keys are divided between a number of independently locked LRU segments, each of which is given an equal share of
+ *     the total size. Threads accessing keys in different segments never contend with each other. Because each
+ *     segment evicts independently, the least recently used resource overall is not necessarily the first to be
+ *     evicted, and any single resource larger than one segment's share of the total size will never be cached.
+ * </p>
+ */
+public class ShardedLruResourceCache implements MemoryCache, MemoryCacheStatsProvider {
+    /**
+     * The number of segments used by {@link #ShardedLruResourceCache(int)}.
+     */
+    public static final int DEFAULT_SEGMENT_COUNT = 4;
+
+    private final Segment[] segments;
+    private volatile ResourceRemovedListener listener;
+
+    /**
+     * Constructor for ShardedLruResourceCache that uses {@link #DEFAULT_SEGMENT_COUNT} segments.
+     *
+     * @param size The maximum size in bytes the in memory cache can use.
+     */
+    public ShardedLruResourceCache(int size) {
+        this(size, DEFAULT_SEGMENT_COUNT);
+    }
+
+    /**
+     * Constructor for ShardedLruResourceCache.
+     *
+     * @param size The maximum size in bytes the in memory cache can use.
+     * @param segmentCount The number of independently locked segments to divide the cache into.
+     */
+    public ShardedLruResourceCache(int size, int segmentCount) {
+        if (segmentCount <= 0) {
+            throw new IllegalArgumentException("Segment count must be > 0");
+        }
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(size / segmentCount);
+        }
+    }
+
+    @Override
+    public void setResourceRemovedListener(ResourceRemovedListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void setSizeMultiplier(float multiplier) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.setSizeMultiplier(multiplier);
+            }
+        }
+    }
+
+    @Override
+    public EngineResource<?> remove(Key key) {
+        Segment segment = getSegment(key);
+        synchronized (segment) {
+            return segment.remove(key);
+        }
+    }
+
+    @Override
+    public EngineResource<?> put(Key key, EngineResource<?> resource) {
+        Segment segment = getSegment(key);
+        synchronized (segment) {
+            return segment.put(key, resource);
+        }
+    }
+
+    /**
+     * Returns true if there is a resource for the given key in the cache.
+     *
+     * @param key The key to check.
+     */
+    public boolean contains(Key key) {
+        Segment segment = getSegment(key);
+        synchronized (segment) {
+            return segment.contains(key);
+        }
+    }
+
+    /**
+     * Returns the sum of the sizes of all resources in all segments of the cache.
+     */
+    public int getCurrentSize() {
+        int result = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                result += segment.getCurrentSize();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a snapshot of the cache's counters and sizes, summed over all segments. Each segment is only locked
+     * while its own counters are copied, so the snapshot is not atomic across segments.
+     */
+    @Override
+    public MemoryCacheStats getStats() {
+        long hitCount = 0;
+        long missCount = 0;
+        long putCount = 0;
+        long evictionCount = 0;
+        int currentSize = 0;
+        int maxSize = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                hitCount += segment.hitCount;
+                missCount += segment.missCount;
+                putCount += segment.putCount;
+                evictionCount += segment.evictionCount;
+                currentSize += segment.getCurrentSize();
+                maxSize += segment.getMaxSize();
+            }
+        }
+        return new MemoryCacheStats(hitCount, missCount, putCount, evictionCount, currentSize, maxSize);
+    }
+
+    @Override
+    public void clearMemory() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clearMemory();
+            }
+        }
+    }
+
+    @SuppressLint("InlinedApi")
+    @Override
+    public void trimMemory(int level) {
+        if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            // Nearing middle of list of cached background apps
+            // Evict our entire bitmap cache
+            clearMemory();
+        } else if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            // Entering list of cached background apps
+            // Evict oldest half of each segment
+            for (Segment segment : segments) {
+                synchronized (segment) {
+                    segment.trimToSize(segment.getCurrentSize() / 2);
+                }
+            }
+        }
+    }
+
+    private Segment getSegment(Key key) {
+        int hash = key.hashCode();
+        // Spread the higher bits downward so keys with poor hash codes are still distributed between segments.
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return segments[(hash & Integer.MAX_VALUE) % segments.length];
+    }
+
+    // Must only be accessed while holding its own lock.
+    private class Segment extends LruCache<Key, EngineResource<?>> {
+        private long hitCount;
+        private long missCount;
+        private long putCount;
+        private long evictionCount;
+
+        public Segment(int size) {
+            super(size);
+        }
+
+        @Override
+        public EngineResource<?> remove(Key key) {
+            EngineResource<?> result = super.remove(key);
+            if (result != null) {
+                hitCount++;
+            } else {
+                missCount++;
+            }
+            return result;
+        }
+
+        @Override
+        public EngineResource<?> put(Key key, EngineResource<?> item) {
+            putCount++;
+            return super.put(key, item);
+        }
+
+        @Override
+        protected void onItemEvicted(Key key, EngineResource<?> item) {
+            evictionCount++;
+            ResourceRemovedListener current = listener;
+            if (current != null) {
+                current.onResourceRemoved(item);
+            }
+        }
+
+        @Override
+        protected int getSize(EngineResource<?> item) {
+            return item.getSize();
+        }
+
+        @Override
+        protected void trimToSize(int size) {
+            super.trimToSize(size);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.bumptech.glide.load.engine.cache;
 
 import com.bumptech.glide.load.Key;
+import com.bumptech.glide.util.Util;
 
 import java.io.UnsupportedEncodingException;
 import java.security.MessageDigest;
@@ -45,6 +46,6 @@ public class StringKey implements Key {
 
     @Override
     public void updateDiskCacheKey(MessageDigest messageDigest) throws UnsupportedEncodingException {
-        messageDigest.update(key.getBytes("UTF-8"));
+        Util.updateDigestUtf8(messageDigest, key);
     }
 }
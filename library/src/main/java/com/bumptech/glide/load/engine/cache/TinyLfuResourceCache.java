@@ -0,0 +1,326 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.annotation.SuppressLint;
+
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.EngineResource;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A scan resistant in memory cache for {@link com.bumptech.glide.load.engine.Resource}s that uses the W-TinyLFU
+ * admission policy.
+ *
+ * <p>
+ *     New resources are placed in a small LRU admission window. When the window is full, its least recently used
+ *     resource competes for a place in the main cache with the main cache's eviction candidate, and only the resource
+ *     that has been requested more often according to a {@link FrequencySketch} is kept. Resources that are put back
+ *     after being returned from the main cache are put directly in its protected segment. As a result, quickly
+ *     scrolling past many resources that are only ever shown once will not evict resources that are shown repeatedly.
+ * </p>
+ *
+ * <p>
+ *     All sizes are in bytes as returned by {@link com.bumptech.glide.load.engine.EngineResource#getSize()}. This
+ *     class is safe to access from multiple threads.
+ * </p>
+ */
+public class TinyLfuResourceCache implements MemoryCache, MemoryCacheStatsProvider {
+    // Larger than the 1% typically used for small entries so that the window can hold at least a few bitmaps.
+    private static final int WINDOW_PERCENT = 10;
+    private static final int PROTECTED_PERCENT_OF_MAIN = 80;
+    // Used to estimate the number of entries the frequency sketch must track.
+    private static final int ESTIMATED_BYTES_PER_ENTRY = 32 * 1024;
+
+    private final LinkedHashMap<Key, EngineResource<?>> window = new LinkedHashMap<Key, EngineResource<?>>();
+    private final LinkedHashMap<Key, EngineResource<?>> probation = new LinkedHashMap<Key, EngineResource<?>>();
+    private final LinkedHashMap<Key, EngineResource<?>> protectedSegment =
+            new LinkedHashMap<Key, EngineResource<?>>();
+    // Keys of resources returned from the main cache that will go to the protected segment when they are put back.
+    private final Set<Key> promoted = new HashSet<Key>();
+    private final FrequencySketch sketch;
+    private final int maxPromoted;
+    private final int initialMaxSize;
+    private ResourceRemovedListener listener;
+
+    private int maxSize;
+    private int windowMaxSize;
+    private int mainMaxSize;
+    private int protectedMaxSize;
+    private int windowSize;
+    private int probationSize;
+    private int protectedSize;
+
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    private long evictionCount;
+    private long rejectedCount;
+
+    /**
+     * Constructor for TinyLfuResourceCache.
+     *
+     * @param size The maximum size in bytes the in memory cache can use.
+     */
+    public TinyLfuResourceCache(int size) {
+        this(size, size / ESTIMATED_BYTES_PER_ENTRY);
+    }
+
+    /**
+     * Constructor for TinyLfuResourceCache.
+     *
+     * @param size The maximum size in bytes the in memory cache can use.
+     * @param expectedEntries The approximate number of resources expected to fit in the cache, used to size the
+     *                        frequency sketch.
+     */
+    public TinyLfuResourceCache(int size, int expectedEntries) {
+        initialMaxSize = size;
+        sketch = new FrequencySketch(expectedEntries);
+        maxPromoted = Math.max(expectedEntries, 16);
+        setMaxSize(size);
+    }
+
+    @Override
+    public synchronized void setResourceRemovedListener(ResourceRemovedListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public synchronized void setSizeMultiplier(float multiplier) {
+        if (multiplier < 0) {
+            throw new IllegalArgumentException("Multiplier must be >= 0");
+        }
+        setMaxSize(Math.round(initialMaxSize * multiplier));
+        evictProtected();
+        evictWindow();
+        trimToSize(maxSize);
+    }
+
+    @Override
+    public synchronized EngineResource<?> remove(Key key) {
+        sketch.increment(key);
+        final boolean isInMainCache = probation.containsKey(key) || protectedSegment.containsKey(key);
+        EngineResource<?> result = removeFromSegments(key);
+        if (result != null) {
+            if (isInMainCache) {
+                // Resources that are returned and never put back (because they are never released) would otherwise
+                // leak keys here.
+                if (promoted.size() >= maxPromoted) {
+                    promoted.clear();
+                }
+                promoted.add(key);
+            }
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized EngineResource<?> put(Key key, EngineResource<?> resource) {
+        // Only requests for resources are counted as accesses in the sketch, every put is preceded by a request
+        // for the same key.
+        putCount++;
+        final EngineResource<?> previous = removeFromSegments(key);
+        final int size = resource.getSize();
+        if (size >= maxSize) {
+            onItemEvicted(resource);
+            return previous;
+        }
+
+        if (promoted.remove(key) && size <= protectedMaxSize) {
+            protectedSegment.put(key, resource);
+            protectedSize += size;
+            evictProtected();
+        } else {
+            window.put(key, resource);
+            windowSize += size;
+            evictWindow();
+        }
+        trimToSize(maxSize);
+        return previous;
+    }
+
+    /**
+     * Returns true if there is a resource for the given key in the cache.
+     *
+     * @param key The key to check.
+     */
+    public synchronized boolean contains(Key key) {
+        return window.containsKey(key) || probation.containsKey(key) || protectedSegment.containsKey(key);
+    }
+
+    /**
+     * Returns the sum of the sizes of all resources in the cache.
+     */
+    public synchronized int getCurrentSize() {
+        return windowSize + probationSize + protectedSize;
+    }
+
+    /**
+     * Returns the number of times {@link #remove(com.bumptech.glide.load.Key)} has returned a resource.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of times {@link #remove(com.bumptech.glide.load.Key)} has returned null.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of resources that were evicted without ever entering the main cache because they were
+     * requested less often than the resource they would have replaced.
+     */
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Returns the fraction of requests to the cache that returned a resource, or 0 if there have been no requests.
+     */
+    public synchronized float getHitRatio() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0f : (float) hitCount / requestCount;
+    }
+
+    @Override
+    public synchronized MemoryCacheStats getStats() {
+        return new MemoryCacheStats(hitCount, missCount, putCount, evictionCount, getCurrentSize(), maxSize);
+    }
+
+    @Override
+    public synchronized void clearMemory() {
+        promoted.clear();
+        trimToSize(0);
+    }
+
+    @SuppressLint("InlinedApi")
+    @Override
+    public synchronized void trimMemory(int level) {
+        if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            // Nearing middle of list of cached background apps
+            // Evict our entire bitmap cache
+            clearMemory();
+        } else if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            // Entering list of cached background apps
+            // Evict least valuable half of our bitmap cache
+            trimToSize(getCurrentSize() / 2);
+        }
+    }
+
+    private void setMaxSize(int size) {
+        maxSize = size;
+        windowMaxSize = size * WINDOW_PERCENT / 100;
+        mainMaxSize = size - windowMaxSize;
+        protectedMaxSize = mainMaxSize * PROTECTED_PERCENT_OF_MAIN / 100;
+    }
+
+    private EngineResource<?> removeFromSegments(Key key) {
+        EngineResource<?> result = window.remove(key);
+        if (result != null) {
+            windowSize -= result.getSize();
+            return result;
+        }
+        result = probation.remove(key);
+        if (result != null) {
+            probationSize -= result.getSize();
+            return result;
+        }
+        result = protectedSegment.remove(key);
+        if (result != null) {
+            protectedSize -= result.getSize();
+        }
+        return result;
+    }
+
+    // Demotes the least recently used protected resources to probation until the protected segment fits.
+    private void evictProtected() {
+        while (protectedSize > protectedMaxSize) {
+            Map.Entry<Key, EngineResource<?>> eldest = protectedSegment.entrySet().iterator().next();
+            EngineResource<?> demoted = eldest.getValue();
+            protectedSegment.remove(eldest.getKey());
+            protectedSize -= demoted.getSize();
+            probation.put(eldest.getKey(), demoted);
+            probationSize += demoted.getSize();
+        }
+    }
+
+    // Moves the least recently used window resources into the main cache if they are admitted, or evicts them.
+    private void evictWindow() {
+        while (windowSize > windowMaxSize) {
+            Map.Entry<Key, EngineResource<?>> eldest = window.entrySet().iterator().next();
+            Key candidateKey = eldest.getKey();
+            EngineResource<?> candidate = eldest.getValue();
+            window.remove(candidateKey);
+            windowSize -= candidate.getSize();
+            admit(candidateKey, candidate);
+        }
+    }
+
+    private void admit(Key candidateKey, EngineResource<?> candidate) {
+        final int candidateSize = candidate.getSize();
+        if (candidateSize > mainMaxSize) {
+            reject(candidate);
+            return;
+        }
+        final int candidateFrequency = sketch.frequency(candidateKey);
+        while (probationSize + protectedSize + candidateSize > mainMaxSize) {
+            LinkedHashMap<Key, EngineResource<?>> victims = !probation.isEmpty() ? probation : protectedSegment;
+            Map.Entry<Key, EngineResource<?>> victim = victims.entrySet().iterator().next();
+            if (candidateFrequency <= sketch.frequency(victim.getKey())) {
+                reject(candidate);
+                return;
+            }
+            victims.remove(victim.getKey());
+            if (victims == probation) {
+                probationSize -= victim.getValue().getSize();
+            } else {
+                protectedSize -= victim.getValue().getSize();
+            }
+            onItemEvicted(victim.getValue());
+        }
+        probation.put(candidateKey, candidate);
+        probationSize += candidateSize;
+    }
+
+    private void reject(EngineResource<?> candidate) {
+        rejectedCount++;
+        onItemEvicted(candidate);
+    }
+
+    // Evicts from probation, then the window, then the protected segment until the cache is smaller than size.
+    private void trimToSize(int size) {
+        while (getCurrentSize() > size) {
+            if (!probation.isEmpty()) {
+                probationSize -= evictEldest(probation);
+            } else if (!window.isEmpty()) {
+                windowSize -= evictEldest(window);
+            } else {
+                protectedSize -= evictEldest(protectedSegment);
+            }
+        }
+    }
+
+    private int evictEldest(LinkedHashMap<Key, EngineResource<?>> segment) {
+        Iterator<Map.Entry<Key, EngineResource<?>>> iterator = segment.entrySet().iterator();
+        EngineResource<?> evicted = iterator.next().getValue();
+        iterator.remove();
+        onItemEvicted(evicted);
+        return evicted.getSize();
+    }
+
+    private void onItemEvicted(EngineResource<?> item) {
+        evictionCount++;
+        if (listener != null) {
+            listener.onResourceRemoved(item);
+        }
+    }
+}
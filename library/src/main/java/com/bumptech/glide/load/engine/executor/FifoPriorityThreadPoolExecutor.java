@@ -1,5 +1,9 @@
 package com.bumptech.glide.load.engine.executor;
 
+import com.bumptech.glide.util.Util;
+
+import java.util.Queue;
+import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.RunnableFuture;
@@ -7,15 +11,30 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A FIFO priority {@link ThreadPoolExecutor} that prioritizes submitted {@link Runnable}s by assuming they implement
  * {@link Prioritized}. {@link Prioritized} runnables that return lower values for {@link Prioritized#getPriority()}
  * will be executed before those that return higher values. Priorities only apply when multiple items are queued at the
- * same time. Runnables with the same priority will be executed in FIFO order.
+ * same time. Runnables with the same priority will be executed in FIFO order unless a different
+ * {@link OrderingPolicy} is given.
+ *
+ * <p>
+ *     The priority of a {@link Prioritized} runnable is read when it is submitted. If it changes while the runnable
+ *     is queued, {@link #setPriority(java.util.concurrent.Future, int)} must be called to move it in the queue.
+ * </p>
  */
 public class FifoPriorityThreadPoolExecutor extends ThreadPoolExecutor {
     AtomicInteger ordering = new AtomicInteger();
+    private final AtomicLong priorityInversionCount = new AtomicLong();
+    private final OrderingPolicy orderingPolicy;
+    // Tasks in the order they were submitted, only used to find tasks past their deadline.
+    private final Queue<FifoPriorityLoadTask<?>> submitOrder = Util.createQueue(0);
+    private final Object waitStatsLock = new Object();
+    private long startedTaskCount;
+    private long totalQueueWaitNanos;
+    private long maxQueueWaitNanos;
 
     /**
      * Constructor to build a fixed thread pool with the given pool size using
@@ -24,17 +43,151 @@ public class FifoPriorityThreadPoolExecutor extends ThreadPoolExecutor {
      * @param poolSize The number of threads.
      */
     public FifoPriorityThreadPoolExecutor(int poolSize) {
-        this(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, new DefaultThreadFactory());
+        this(poolSize, OrderingPolicy.FIFO);
+    }
+
+    /**
+     * Constructor to build a fixed thread pool with the given pool size using
+     * {@link com.bumptech.glide.load.engine.executor.FifoPriorityThreadPoolExecutor.DefaultThreadFactory} that
+     * orders tasks with the same priority using the given policy.
+     *
+     * @param poolSize The number of threads.
+     * @param orderingPolicy The order in which to run tasks with the same priority.
+     */
+    public FifoPriorityThreadPoolExecutor(int poolSize, OrderingPolicy orderingPolicy) {
+        this(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, new DefaultThreadFactory(), orderingPolicy);
     }
 
     public FifoPriorityThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAlive, TimeUnit timeUnit,
             ThreadFactory threadFactory) {
+        this(corePoolSize, maximumPoolSize, keepAlive, timeUnit, threadFactory, OrderingPolicy.FIFO);
+    }
+
+    public FifoPriorityThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAlive, TimeUnit timeUnit,
+            ThreadFactory threadFactory, OrderingPolicy orderingPolicy) {
         super(corePoolSize, maximumPoolSize, keepAlive, timeUnit, new PriorityBlockingQueue<Runnable>(), threadFactory);
+        this.orderingPolicy = orderingPolicy;
     }
 
     @Override
     protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
-        return new FifoPriorityLoadTask<T>(runnable, value, ordering.getAndIncrement());
+        FifoPriorityLoadTask<T> task = new FifoPriorityLoadTask<T>(runnable, value, ordering.getAndIncrement(),
+                orderingPolicy.isLifo());
+        if (orderingPolicy.hasDeadline()) {
+            synchronized (submitOrder) {
+                submitOrder.offer(task);
+            }
+        }
+        return task;
+    }
+
+    /**
+     * Changes the priority of a queued task and moves it to its new position in the queue. Tasks with the same
+     * priority still run in the order they were submitted.
+     *
+     * @param future A {@link java.util.concurrent.Future} returned by one of this executor's submit methods.
+     * @param priority The new priority, lower values run first.
+     * @return True if the task was queued and its priority was changed, false if the task has already started, has
+     * finished, or was not submitted to this executor.
+     */
+    public boolean setPriority(Future<?> future, int priority) {
+        if (!(future instanceof FifoPriorityLoadTask)) {
+            return false;
+        }
+        FifoPriorityLoadTask<?> task = (FifoPriorityLoadTask<?>) future;
+        // The queue only orders tasks when they are inserted, so the task has to be removed and re-added.
+        if (!getQueue().remove(task)) {
+            return false;
+        }
+        task.priority = priority;
+        getQueue().offer(task);
+        return true;
+    }
+
+    /**
+     * Returns the number of tasks that started while the next queued task reported a higher current priority.
+     *
+     * <p>
+     *     Only the task at the head of the queue is checked when each task starts, so this is a lower bound. Inversions
+     *     happen when the priority of a {@link Prioritized} runnable changes after it is submitted without a
+     *     corresponding call to {@link #setPriority(java.util.concurrent.Future, int)}.
+     * </p>
+     */
+    public long getPriorityInversionCount() {
+        return priorityInversionCount.get();
+    }
+
+    /**
+     * Returns the number of tasks waiting to be run.
+     */
+    public int getQueuedTaskCount() {
+        return getQueue().size();
+    }
+
+    /**
+     * Returns the average time in milliseconds tasks waited in the queue before they were started, or 0 if no tasks
+     * have been started.
+     */
+    public double getAverageQueueWaitMillis() {
+        synchronized (waitStatsLock) {
+            return startedTaskCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalQueueWaitNanos / startedTaskCount)
+                    / 1000d;
+        }
+    }
+
+    /**
+     * Returns the longest time in milliseconds any task waited in the queue before it was started.
+     */
+    public double getMaxQueueWaitMillis() {
+        synchronized (waitStatsLock) {
+            return TimeUnit.NANOSECONDS.toMicros(maxQueueWaitNanos) / 1000d;
+        }
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable runnable) {
+        super.beforeExecute(thread, runnable);
+        if (!(runnable instanceof FifoPriorityLoadTask)) {
+            return;
+        }
+        FifoPriorityLoadTask<?> started = (FifoPriorityLoadTask<?>) runnable;
+        started.isStarted = true;
+        long now = System.nanoTime();
+        long waitNanos = now - started.queuedTimeNanos;
+        synchronized (waitStatsLock) {
+            startedTaskCount++;
+            totalQueueWaitNanos += waitNanos;
+            maxQueueWaitNanos = Math.max(maxQueueWaitNanos, waitNanos);
+        }
+
+        // Sample the next task rather than scanning the queue, tasks that are reprioritized with setPriority are
+        // already in order so inversions only come from priorities that change without it.
+        Runnable next = getQueue().peek();
+        if (next instanceof FifoPriorityLoadTask
+                && ((FifoPriorityLoadTask<?>) next).getCurrentPriority() < started.getCurrentPriority()) {
+            priorityInversionCount.incrementAndGet();
+        }
+        if (orderingPolicy.hasDeadline()) {
+            moveExpiredTasks(now);
+        }
+    }
+
+    private void moveExpiredTasks(long now) {
+        synchronized (submitOrder) {
+            FifoPriorityLoadTask<?> oldest;
+            while ((oldest = submitOrder.peek()) != null) {
+                if (!oldest.isStarted && !oldest.isDone()
+                        && now - oldest.queuedTimeNanos <= orderingPolicy.getDeadlineNanos()) {
+                    // Every task submitted after the oldest waiting task is younger, so none are past their deadline.
+                    break;
+                }
+                submitOrder.poll();
+                if (!oldest.isStarted && !oldest.isDone() && getQueue().remove(oldest)) {
+                    oldest.isExpired = true;
+                    getQueue().offer(oldest);
+                }
+            }
+        }
     }
 
     /**
@@ -58,24 +211,43 @@ public class FifoPriorityThreadPoolExecutor extends ThreadPoolExecutor {
     }
 
     private static class FifoPriorityLoadTask<T> extends FutureTask<T> implements Comparable<FifoPriorityLoadTask<?>> {
-        private final int priority;
+        private final Prioritized prioritized;
         private final int order;
+        private final boolean isLifo;
+        private final long queuedTimeNanos = System.nanoTime();
+        // Only written while the task is out of the queue.
+        private volatile int priority;
+        private volatile boolean isExpired;
+        private volatile boolean isStarted;
 
-        public FifoPriorityLoadTask(Runnable runnable, T result, int order) {
+        public FifoPriorityLoadTask(Runnable runnable, T result, int order, boolean isLifo) {
             super(runnable, result);
             if (!(runnable instanceof Prioritized)) {
                 throw new IllegalArgumentException("FifoPriorityThreadPoolExecutor must be given Runnables that "
                         + "implement Prioritized");
             }
-            priority = ((Prioritized) runnable).getPriority();
+            prioritized = (Prioritized) runnable;
+            priority = prioritized.getPriority();
             this.order = order;
+            this.isLifo = isLifo;
+        }
+
+        int getCurrentPriority() {
+            return prioritized.getPriority();
         }
 
         @Override
         public int compareTo(FifoPriorityLoadTask<?> loadTask) {
             int result = priority - loadTask.priority;
             if (result == 0 && loadTask != this) {
-                result = order - loadTask.order;
+                if (isExpired != loadTask.isExpired) {
+                    // Tasks that have passed their deadline run before those that haven't.
+                    result = isExpired ? -1 : 1;
+                } else if (isLifo && !isExpired) {
+                    result = loadTask.order - order;
+                } else {
+                    result = order - loadTask.order;
+                }
             }
             return result;
         }
@@ -0,0 +1,65 @@
+package com.bumptech.glide.load.engine.executor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Determines the order in which a {@link FifoPriorityThreadPoolExecutor} runs queued tasks that have the same
+ * priority. Tasks with different priorities are always run in priority order.
+ */
+public final class OrderingPolicy {
+    /**
+     * Runs tasks with the same priority in the order they were submitted.
+     */
+    public static final OrderingPolicy FIFO = new OrderingPolicy(false, 0);
+
+    /**
+     * Runs the most recently submitted task with a given priority first.
+     *
+     * <p>
+     *     While a list is scrolled quickly, the most recently started loads are usually for the views that are
+     *     currently visible, while older loads are for views that have already scrolled away. Older tasks may wait
+     *     indefinitely while newer tasks keep being submitted.
+     * </p>
+     */
+    public static final OrderingPolicy LIFO = new OrderingPolicy(true, 0);
+
+    private final boolean isLifo;
+    private final long deadlineNanos;
+
+    /**
+     * Returns a policy that runs the most recently submitted task with a given priority first unless a task has been
+     * waiting for longer than the given deadline, in which case tasks past their deadline run first in the order they
+     * were submitted.
+     *
+     * <p>
+     *     Deadlines are checked each time a thread starts a task, so a task that passes its deadline may still wait
+     *     for one more task to be started before it is moved.
+     * </p>
+     *
+     * @param deadline The maximum time a task should wait before being run ahead of newer tasks, must be > 0.
+     * @param timeUnit The unit of the deadline.
+     */
+    public static OrderingPolicy lifoWithDeadline(long deadline, TimeUnit timeUnit) {
+        if (deadline <= 0) {
+            throw new IllegalArgumentException("Deadline must be > 0");
+        }
+        return new OrderingPolicy(true, timeUnit.toNanos(deadline));
+    }
+
+    private OrderingPolicy(boolean isLifo, long deadlineNanos) {
+        this.isLifo = isLifo;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    boolean isLifo() {
+        return isLifo;
+    }
+
+    boolean hasDeadline() {
+        return deadlineNanos > 0;
+    }
+
+    long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+}
@@ -0,0 +1,207 @@
+package com.bumptech.glide.load.engine.prefill;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPoolStats;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPoolStatsProvider;
+import com.bumptech.glide.util.Util;
+
+/**
+ * Allocates {@link android.graphics.Bitmap}s of expected sizes and adds them to a
+ * {@link com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool} so that the first images loaded in a freshly
+ * started process can reuse them instead of allocating their own.
+ *
+ * <p>
+ *     Allocation is spread out over a number of short runs on the main thread, each of which allocates for at most
+ *     {@value #MAX_MILLIS_PER_RUN}ms. The delay between runs starts at {@value #INITIAL_BACKOFF_MILLIS}ms and grows
+ *     after each run so that frames drawn while the app starts are left mostly undisturbed. Types are allocated in
+ *     turn, one {@link android.graphics.Bitmap} at a time, so that every type gets some
+ *     {@link android.graphics.Bitmap}s if the budget runs out.
+ * </p>
+ *
+ * <p>
+ *     At most the given fraction of the pool's maximum size, less any {@link android.graphics.Bitmap}s already in the
+ *     pool, is allocated. Nothing is allocated for pools that don't implement
+ *     {@link com.bumptech.glide.load.engine.bitmap_recycle.BitmapPoolStatsProvider}, since their sizes aren't known.
+ *     All methods must be called on the main thread.
+ * </p>
+ */
+public class BitmapPreFiller {
+    private static final String TAG = "BitmapPreFiller";
+    /**
+     * The fraction of the pool's maximum size used by {@link #BitmapPreFiller(BitmapPool)}.
+     */
+    public static final float DEFAULT_MAX_POOL_FRACTION = 0.5f;
+    static final long MAX_MILLIS_PER_RUN = 4;
+    static final long INITIAL_BACKOFF_MILLIS = 40;
+    static final int BACKOFF_RATIO = 4;
+    static final long MAX_BACKOFF_MILLIS = 1000;
+
+    private final BitmapPool bitmapPool;
+    private final float maxPoolFraction;
+    private final Handler handler;
+    private final Clock clock;
+    private PreFillRun currentRun;
+
+    /**
+     * Constructor for a BitmapPreFiller that allocates at most {@link #DEFAULT_MAX_POOL_FRACTION} of the pool's
+     * maximum size.
+     *
+     * @param bitmapPool The pool to fill.
+     */
+    public BitmapPreFiller(BitmapPool bitmapPool) {
+        this(bitmapPool, DEFAULT_MAX_POOL_FRACTION);
+    }
+
+    /**
+     * Constructor for BitmapPreFiller.
+     *
+     * @param bitmapPool The pool to fill.
+     * @param maxPoolFraction The maximum fraction of the pool's maximum size to allocate, between 0 and 1.
+     */
+    public BitmapPreFiller(BitmapPool bitmapPool, float maxPoolFraction) {
+        this(bitmapPool, maxPoolFraction, new Handler(Looper.getMainLooper()), new Clock());
+    }
+
+    BitmapPreFiller(BitmapPool bitmapPool, float maxPoolFraction, Handler handler, Clock clock) {
+        if (maxPoolFraction < 0 || maxPoolFraction > 1) {
+            throw new IllegalArgumentException("Max pool fraction must be between 0 and 1");
+        }
+        this.bitmapPool = bitmapPool;
+        this.maxPoolFraction = maxPoolFraction;
+        this.handler = handler;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts allocating {@link android.graphics.Bitmap}s of the given types, cancelling any previous pre-fill that
+     * is still in progress.
+     *
+     * @param preFillTypes The sizes, configs and numbers of {@link android.graphics.Bitmap}s to allocate.
+     */
+    public void preFill(PreFillType... preFillTypes) {
+        Util.assertMainThread();
+        cancel();
+
+        if (!(bitmapPool instanceof BitmapPoolStatsProvider)) {
+            if (Log.isLoggable(TAG, Log.DEBUG)) {
+                Log.d(TAG, "Not pre-filling a pool that doesn't report its size: " + bitmapPool);
+            }
+            return;
+        }
+        BitmapPoolStats stats = ((BitmapPoolStatsProvider) bitmapPool).getStats();
+        int budget = Math.round(stats.getMaxSize() * maxPoolFraction) - stats.getCurrentSize();
+        if (budget <= 0 || preFillTypes.length == 0) {
+            return;
+        }
+        currentRun = new PreFillRun(preFillTypes, budget);
+        handler.post(currentRun);
+    }
+
+    /**
+     * Stops allocating {@link android.graphics.Bitmap}s. {@link android.graphics.Bitmap}s already added to the pool
+     * are left in place.
+     */
+    public void cancel() {
+        Util.assertMainThread();
+        if (currentRun != null) {
+            currentRun.isCancelled = true;
+            handler.removeCallbacks(currentRun);
+            currentRun = null;
+        }
+    }
+
+    /**
+     * Returns true if there are {@link android.graphics.Bitmap}s left to allocate.
+     */
+    public boolean isRunning() {
+        return currentRun != null;
+    }
+
+    // Visible for testing.
+    static class Clock {
+        public long now() {
+            return SystemClock.uptimeMillis();
+        }
+    }
+
+    private class PreFillRun implements Runnable {
+        private final PreFillType[] types;
+        private final int[] remaining;
+        private int remainingBudget;
+        private int remainingTypes;
+        private int nextType;
+        private long backoffMillis = INITIAL_BACKOFF_MILLIS;
+        private int allocatedCount;
+        private boolean isCancelled;
+
+        public PreFillRun(PreFillType[] types, int budget) {
+            this.types = types;
+            this.remainingBudget = budget;
+            remaining = new int[types.length];
+            for (int i = 0; i < types.length; i++) {
+                remaining[i] = types[i].getCount();
+            }
+            remainingTypes = types.length;
+        }
+
+        @Override
+        public void run() {
+            if (isCancelled) {
+                return;
+            }
+            final long start = clock.now();
+            do {
+                allocateNext();
+            } while (remainingTypes > 0 && clock.now() - start < MAX_MILLIS_PER_RUN);
+
+            if (remainingTypes > 0) {
+                handler.postDelayed(this, backoffMillis);
+                backoffMillis = Math.min(backoffMillis * BACKOFF_RATIO, MAX_BACKOFF_MILLIS);
+            } else {
+                if (Log.isLoggable(TAG, Log.DEBUG)) {
+                    Log.d(TAG, "Finished pre-filling pool with " + allocatedCount + " Bitmaps");
+                }
+                currentRun = null;
+            }
+        }
+
+        private void allocateNext() {
+            while (remaining[nextType] == 0) {
+                nextType = (nextType + 1) % types.length;
+            }
+            final int index = nextType;
+            nextType = (nextType + 1) % types.length;
+
+            PreFillType type = types[index];
+            int size = Util.getBitmapByteSize(type.getWidth(), type.getHeight(), type.getConfig());
+            if (size > remainingBudget) {
+                // Smaller types may still fit.
+                finishType(index);
+                return;
+            }
+
+            Bitmap bitmap = Bitmap.createBitmap(type.getWidth(), type.getHeight(), type.getConfig());
+            if (!bitmapPool.put(bitmap)) {
+                bitmap.recycle();
+                finishType(index);
+                return;
+            }
+            allocatedCount++;
+            remainingBudget -= size;
+            if (--remaining[index] == 0) {
+                remainingTypes--;
+            }
+        }
+
+        private void finishType(int index) {
+            remaining[index] = 0;
+            remainingTypes--;
+        }
+    }
+}
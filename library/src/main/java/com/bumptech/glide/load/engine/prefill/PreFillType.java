@@ -0,0 +1,86 @@
+package com.bumptech.glide.load.engine.prefill;
+
+import android.graphics.Bitmap;
+
+/**
+ * The dimensions, {@link android.graphics.Bitmap.Config}, and number of {@link android.graphics.Bitmap}s to allocate
+ * when pre-filling a {@link com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool}.
+ *
+ * <p>
+ *     Dimensions are typically the sizes of the first screen of images, for example those returned by
+ *     {@link com.bumptech.glide.ListPreloader#getDimensions(Object)}.
+ * </p>
+ */
+public final class PreFillType {
+    private final int width;
+    private final int height;
+    private final Bitmap.Config config;
+    private final int count;
+
+    /**
+     * Constructor for PreFillType.
+     *
+     * @param width The width in pixels of the {@link android.graphics.Bitmap}s to allocate, must be greater than 0.
+     * @param height The height in pixels of the {@link android.graphics.Bitmap}s to allocate, must be greater than 0.
+     * @param config The {@link android.graphics.Bitmap.Config} of the {@link android.graphics.Bitmap}s to allocate.
+     * @param count The number of {@link android.graphics.Bitmap}s to allocate, must be greater than 0.
+     */
+    public PreFillType(int width, int height, Bitmap.Config config, int count) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be > 0");
+        }
+        if (config == null) {
+            throw new NullPointerException("Config must not be null");
+        }
+        if (count <= 0) {
+            throw new IllegalArgumentException("Count must be > 0");
+        }
+        this.width = width;
+        this.height = height;
+        this.config = config;
+        this.count = count;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public Bitmap.Config getConfig() {
+        return config;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        PreFillType other = (PreFillType) o;
+        return width == other.width && height == other.height && config == other.config && count == other.count;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = width;
+        result = 31 * result + height;
+        result = 31 * result + config.hashCode();
+        result = 31 * result + count;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "PreFillType{width=" + width + ", height=" + height + ", config=" + config + ", count=" + count + '}';
+    }
+}
@@ -32,6 +32,13 @@ public class ImageVideoWrapperEncoder implements Encoder<ImageVideoWrapper> {
         }
     }
 
+    /**
+     * Returns the {@link com.bumptech.glide.load.Encoder} used to write the wrapper's {@link java.io.InputStream}.
+     */
+    public Encoder<InputStream> getStreamEncoder() {
+        return streamEncoder;
+    }
+
     @Override
     public String getId() {
         if (id == null) {
@@ -9,6 +9,7 @@ import android.util.Log;
 import com.bumptech.glide.load.DecodeFormat;
 import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
 import com.bumptech.glide.util.ByteArrayPool;
+import com.bumptech.glide.util.ByteBufferInputStream;
 import com.bumptech.glide.util.ExceptionCatchingInputStream;
 import com.bumptech.glide.util.Util;
 
@@ -142,8 +143,10 @@ public abstract class Downsampler implements BitmapDecoder<InputStream> {
         final byte[] bytesForStream = byteArrayPool.getBytes();
         final BitmapFactory.Options options = getDefaultOptions();
         // TODO(#126): when the framework handles exceptions better, consider removing.
-        final ExceptionCatchingInputStream stream =
-                ExceptionCatchingInputStream.obtain(new RecyclableBufferedInputStream(is, bytesForStream));
+        // Memory mapped streams can already be reset to any position without copying.
+        final InputStream buffered = is instanceof ByteBufferInputStream
+                ? is : new RecyclableBufferedInputStream(is, bytesForStream);
+        final ExceptionCatchingInputStream stream = ExceptionCatchingInputStream.obtain(buffered);
         try {
             stream.mark(MARK_POSITION);
             int orientation = 0;
@@ -187,6 +190,11 @@ public abstract class Downsampler implements BitmapDecoder<InputStream> {
             // we catch exceptions reading from the stream in our ExceptionCatchingInputStream and throw them here.
             final Exception streamException = stream.getException();
             if (streamException != null) {
+                // The bitmap may be partially decoded, or reading may have been stopped because the load was
+                // cancelled, either way it won't be used.
+                if (downsampled != null && !pool.put(downsampled)) {
+                    downsampled.recycle();
+                }
                 throw new RuntimeException(streamException);
             }
 
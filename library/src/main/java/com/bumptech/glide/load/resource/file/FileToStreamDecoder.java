@@ -1,7 +1,10 @@
 package com.bumptech.glide.load.resource.file;
 
+import android.util.Log;
+
 import com.bumptech.glide.load.ResourceDecoder;
 import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.util.ByteBufferInputStream;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -12,6 +15,10 @@ import java.io.InputStream;
 /**
  * A decoder that wraps an {@link InputStream} decoder to allow it to decode from a file.
  *
+ * <p>
+ *     By default files are memory mapped and read with a {@link com.bumptech.glide.util.ByteBufferInputStream}.
+ * </p>
+ *
  * @param <T> The type of resource that the wrapped InputStream decoder decodes.
  */
 public class FileToStreamDecoder<T> implements ResourceDecoder<File, T> {
@@ -59,8 +66,18 @@ public class FileToStreamDecoder<T> implements ResourceDecoder<File, T> {
     }
 
     private static class DefaultFileOpener implements FileOpener {
+        private static final String TAG = "FileOpener";
+
         @Override
         public InputStream open(File file) throws FileNotFoundException {
+            // Decoders can read directly from mapped memory instead of copying the file through heap buffers.
+            try {
+                return ByteBufferInputStream.fromFile(file);
+            } catch (IOException e) {
+                if (Log.isLoggable(TAG, Log.DEBUG)) {
+                    Log.d(TAG, "Failed to map file, falling back to a FileInputStream", e);
+                }
+            }
             return new FileInputStream(file);
         }
     }
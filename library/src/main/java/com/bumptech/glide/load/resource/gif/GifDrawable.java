@@ -71,8 +71,8 @@ public class GifDrawable extends GlideDrawable implements GifFrameManager.FrameC
         this.state = state;
         this.decoder = new GifDecoder(state.bitmapProvider);
         decoder.setData(state.id, state.gifHeader, state.data);
-        frameManager = new GifFrameManager(state.context, decoder, state.frameTransformation, state.targetWidth,
-                state.targetHeight, state.finalFrameWidth, state.finalFrameHeight);
+        frameManager = new GifFrameManager(state.context, state.id, decoder, state.frameTransformation,
+                state.targetWidth, state.targetHeight);
     }
 
     // For testing.
@@ -128,6 +128,7 @@ public class GifDrawable extends GlideDrawable implements GifFrameManager.FrameC
 
     private void stopRunning() {
         isRunning = false;
+        frameManager.stop();
     }
 
     @Override
@@ -0,0 +1,336 @@
+package com.bumptech.glide.load.resource.gif;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.gifdecoder.GifDecoder;
+import com.bumptech.glide.load.Transformation;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.executor.Prioritized;
+import com.bumptech.glide.load.resource.bitmap.BitmapResource;
+import com.bumptech.glide.util.Util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Decodes, transforms and delivers the frames of a {@link com.bumptech.glide.gifdecoder.GifDecoder} in order to one
+ * or more {@link com.bumptech.glide.load.resource.gif.GifFrameProducer.FrameListener}s.
+ *
+ * <p>
+ *     Frames are decoded sequentially on a single background thread, up to {@value #MAX_DECODED_FRAMES} frames ahead
+ *     of the frame being displayed. Each frame is delivered on the main thread, once the previous frame has been
+ *     displayed for its delay, to every listener waiting for a frame at that time. Frames are reference counted,
+ *     listeners acquire the frames they display and release them when they are replaced, and each frame's
+ *     {@link android.graphics.Bitmap} is returned to the {@link com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool}
+ *     when its last reference is released. The producer owns its decoder, which is cleared, returning its canvas,
+ *     when the producer is cleared.
+ * </p>
+ *
+ * <p>
+ *     All methods must be called on the main thread.
+ * </p>
+ */
+class GifFrameProducer {
+    private static final String TAG = "GifFrameProducer";
+    /** 60fps is {@value #MIN_FRAME_DELAY}ms per frame. */
+    private static final long MIN_FRAME_DELAY = 1000 / 60;
+    /** The maximum number of decoded frames waiting to be displayed. */
+    static final int MAX_DECODED_FRAMES = 2;
+
+    private final String key;
+    private final BitmapPool bitmapPool;
+    private final GifDecoder decoder;
+    private final Handler mainHandler;
+    private final ExecutorService decodeService;
+    private final Transformation<Bitmap> transformation;
+    private final int targetWidth;
+    private final int targetHeight;
+    private final Queue<Frame> decodedFrames = Util.createQueue(MAX_DECODED_FRAMES);
+    private final List<FrameListener> waitingListeners = new ArrayList<FrameListener>();
+    private final Runnable deliverer = new Deliverer();
+    private int subscriberCount;
+    private boolean isDecoding;
+    private boolean isDeliveryScheduled;
+    private long nextFrameTime;
+    // Incremented by clear so that frames decoded before a clear are dropped.
+    private int generation;
+
+    /**
+     * An interface for receiving frames from a {@link com.bumptech.glide.load.resource.gif.GifFrameProducer}.
+     */
+    interface FrameListener {
+        /**
+         * Called on the main thread with the next frame. The frame must be acquired to keep it after this method
+         * returns.
+         */
+        public void onFrameReady(Frame frame);
+    }
+
+    /**
+     * Constructor for GifFrameProducer.
+     *
+     * @param key The key this producer is shared under, or null if it isn't shared.
+     */
+    GifFrameProducer(String key, BitmapPool bitmapPool, GifDecoder decoder, Handler mainHandler,
+            ExecutorService decodeService, Transformation<Bitmap> transformation, int targetWidth, int targetHeight) {
+        this.key = key;
+        this.bitmapPool = bitmapPool;
+        this.decoder = decoder;
+        this.mainHandler = mainHandler;
+        this.decodeService = decodeService;
+        this.transformation = transformation;
+        this.targetWidth = targetWidth;
+        this.targetHeight = targetHeight;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    void acquire() {
+        subscriberCount++;
+    }
+
+    /**
+     * Returns true if no subscribers are left.
+     */
+    boolean release() {
+        if (subscriberCount <= 0) {
+            throw new IllegalStateException("Cannot release a producer with no subscribers");
+        }
+        return --subscriberCount == 0;
+    }
+
+    /**
+     * Delivers the next frame to the given listener once the current frame has been displayed for its delay, and
+     * continues decoding ahead.
+     */
+    void requestNextFrame(FrameListener listener) {
+        if (!waitingListeners.contains(listener)) {
+            waitingListeners.add(listener);
+        }
+        scheduleDelivery();
+        decodeAhead();
+    }
+
+    /**
+     * Stops the given listener from receiving the next frame.
+     */
+    void cancelRequest(FrameListener listener) {
+        waitingListeners.remove(listener);
+        if (waitingListeners.isEmpty() && isDeliveryScheduled) {
+            mainHandler.removeCallbacks(deliverer);
+            isDeliveryScheduled = false;
+        }
+    }
+
+    /**
+     * Stops delivering frames, releases any decoded frames that haven't been delivered and clears the decoder.
+     */
+    void clear() {
+        generation++;
+        waitingListeners.clear();
+        mainHandler.removeCallbacks(deliverer);
+        isDeliveryScheduled = false;
+        while (!decodedFrames.isEmpty()) {
+            decodedFrames.poll().release();
+        }
+        // Cleared on the decode thread so that it runs after any frame that is still being decoded.
+        try {
+            decodeService.submit(new DecoderClearer());
+        } catch (RejectedExecutionException e) {
+            // The registry was shut down but a frame may still be decoding, so the decoder's canvas is left to the
+            // garbage collector rather than returned to the pool while it may be in use.
+            if (Log.isLoggable(TAG, Log.DEBUG)) {
+                Log.d(TAG, "Decode service shut down, not clearing decoder", e);
+            }
+        }
+    }
+
+    private void scheduleDelivery() {
+        if (waitingListeners.isEmpty() || isDeliveryScheduled || decodedFrames.isEmpty()) {
+            return;
+        }
+        isDeliveryScheduled = true;
+        mainHandler.postAtTime(deliverer, nextFrameTime);
+    }
+
+    private void decodeAhead() {
+        // A listener may have cleared this producer while a frame was delivered.
+        if (subscriberCount == 0 || isDecoding || decodedFrames.size() >= MAX_DECODED_FRAMES) {
+            return;
+        }
+        // Use submit so that priority executors wrap the decoder in a comparable task.
+        try {
+            decodeService.submit(new FrameDecoder(generation));
+        } catch (RejectedExecutionException e) {
+            // The registry was shut down, the animation stops on the current frame.
+            if (Log.isLoggable(TAG, Log.DEBUG)) {
+                Log.d(TAG, "Decode service shut down, not decoding frames", e);
+            }
+            return;
+        }
+        isDecoding = true;
+    }
+
+    private void onFrameDecoded(Frame frame) {
+        isDecoding = false;
+        if (frame.generation != generation) {
+            frame.release();
+            if (!waitingListeners.isEmpty()) {
+                decodeAhead();
+            }
+            return;
+        }
+        decodedFrames.offer(frame);
+        scheduleDelivery();
+        decodeAhead();
+    }
+
+    private void onDecodeFailed(int decodeGeneration) {
+        isDecoding = false;
+        if (decodeGeneration != generation && !waitingListeners.isEmpty()) {
+            decodeAhead();
+        }
+        // Otherwise stop decoding, the next frame depends on the failed one, so the animation can't continue.
+    }
+
+    /**
+     * A reference counted decoded frame.
+     */
+    static class Frame {
+        private final Resource<Bitmap> resource;
+        private final int index;
+        private final int delay;
+        private final int generation;
+        // Starts with the producer's reference.
+        private int references = 1;
+
+        Frame(Resource<Bitmap> resource, int index, int delay, int generation) {
+            this.resource = resource;
+            this.index = index;
+            this.delay = delay;
+            this.generation = generation;
+        }
+
+        /**
+         * Returns the frame's {@link android.graphics.Bitmap}, or null if the frame couldn't be decoded.
+         */
+        Bitmap getBitmap() {
+            return resource != null ? resource.get() : null;
+        }
+
+        int getIndex() {
+            return index;
+        }
+
+        void acquire() {
+            if (references <= 0) {
+                throw new IllegalStateException("Cannot acquire a released frame");
+            }
+            references++;
+        }
+
+        void release() {
+            if (references <= 0) {
+                throw new IllegalStateException("Cannot release a released frame");
+            }
+            if (--references == 0 && resource != null) {
+                resource.recycle();
+            }
+        }
+    }
+
+    private class Deliverer implements Runnable {
+        @Override
+        public void run() {
+            isDeliveryScheduled = false;
+            Frame frame = decodedFrames.poll();
+            nextFrameTime = SystemClock.uptimeMillis() + Math.max(MIN_FRAME_DELAY, frame.delay);
+
+            // Listeners may request the next frame or leave while the frame is delivered.
+            List<FrameListener> listeners = new ArrayList<FrameListener>(waitingListeners);
+            waitingListeners.clear();
+            for (FrameListener listener : listeners) {
+                listener.onFrameReady(frame);
+            }
+            // Drops the producer's reference, the frame is recycled now unless a listener acquired it.
+            frame.release();
+            decodeAhead();
+        }
+    }
+
+    private class DecoderClearer implements Runnable, Prioritized {
+        @Override
+        public void run() {
+            decoder.clear();
+        }
+
+        @Override
+        public int getPriority() {
+            return Priority.NORMAL.ordinal();
+        }
+    }
+
+    private class FrameDecoder implements Runnable, Prioritized {
+        private final int decodeGeneration;
+
+        public FrameDecoder(int decodeGeneration) {
+            this.decodeGeneration = decodeGeneration;
+        }
+
+        @Override
+        public void run() {
+            final Frame frame;
+            try {
+                frame = decode();
+            } catch (RuntimeException e) {
+                if (Log.isLoggable(TAG, Log.WARN)) {
+                    Log.w(TAG, "Failed to decode gif frame", e);
+                }
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onDecodeFailed(decodeGeneration);
+                    }
+                });
+                return;
+            }
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    onFrameDecoded(frame);
+                }
+            });
+        }
+
+        private Frame decode() {
+            decoder.advance();
+            int index = decoder.getCurrentFrameIndex();
+            int delay = decoder.getNextDelay();
+            Bitmap bitmap = decoder.getNextFrame();
+            Resource<Bitmap> result = null;
+            if (bitmap != null) {
+                Resource<Bitmap> decoded = new BitmapResource(bitmap, bitmapPool);
+                result = transformation.transform(decoded, targetWidth, targetHeight);
+                if (decoded != result) {
+                    decoded.recycle();
+                }
+            }
+            return new Frame(result, index, delay, decodeGeneration);
+        }
+
+        @Override
+        public int getPriority() {
+            return Priority.NORMAL.ordinal();
+        }
+    }
+}
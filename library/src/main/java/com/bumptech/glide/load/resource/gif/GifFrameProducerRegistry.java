@@ -0,0 +1,110 @@
+package com.bumptech.glide.load.resource.gif;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.bumptech.glide.gifdecoder.GifDecoder;
+import com.bumptech.glide.load.Transformation;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.executor.FifoPriorityThreadPoolExecutor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Creates {@link com.bumptech.glide.load.resource.gif.GifFrameProducer}s and shares them between
+ * {@link com.bumptech.glide.load.resource.gif.GifFrameManager}s that display the same GIF at the same size with the
+ * same transformation, so that identical animations shown in multiple views decode each frame once.
+ *
+ * <p>
+ *     Producers are reference counted and cleared once their last subscriber releases them. Each producer decodes
+ *     with its own {@link com.bumptech.glide.gifdecoder.GifDecoder} so that it doesn't depend on any one subscriber.
+ *     All producers decode on a single background thread that is stopped by {@link #shutdown()}. Owned by
+ *     {@link com.bumptech.glide.Glide}, all other methods must be called on the main thread.
+ * </p>
+ */
+public class GifFrameProducerRegistry {
+    private final Map<String, GifFrameProducer> sharedProducers = new HashMap<String, GifFrameProducer>();
+    private final BitmapPool bitmapPool;
+    private final Handler mainHandler;
+    private final ExecutorService decodeService;
+    private final DecoderFactory decoderFactory;
+
+    /**
+     * Builds the decoder a new producer decodes with from the decoder of the subscriber that created it.
+     */
+    interface DecoderFactory {
+        public GifDecoder build(GifDecoder subscriberDecoder, BitmapPool bitmapPool);
+    }
+
+    public GifFrameProducerRegistry(BitmapPool bitmapPool) {
+        this(bitmapPool, new Handler(Looper.getMainLooper()), new FifoPriorityThreadPoolExecutor(1),
+                new DefaultDecoderFactory());
+    }
+
+    GifFrameProducerRegistry(BitmapPool bitmapPool, Handler mainHandler, ExecutorService decodeService,
+            DecoderFactory decoderFactory) {
+        this.bitmapPool = bitmapPool;
+        this.mainHandler = mainHandler;
+        this.decodeService = decodeService;
+        this.decoderFactory = decoderFactory;
+    }
+
+    /**
+     * Returns a producer for the given GIF, shared with any other subscribers for the same GIF, size and
+     * transformation, and adds a subscriber to it.
+     *
+     * @param gifId An id that uniquely identifies the GIF's data, or null to use a producer that isn't shared.
+     * @param decoder The subscriber's decoder, a new producer decodes the same data with a decoder of its own.
+     */
+    GifFrameProducer acquire(String gifId, GifDecoder decoder, Transformation<Bitmap> transformation, int targetWidth,
+            int targetHeight) {
+        String key = gifId != null ? gifId + "_" + targetWidth + "x" + targetHeight + "_" + transformation.getId()
+                : null;
+        GifFrameProducer producer = key != null ? sharedProducers.get(key) : null;
+        if (producer == null) {
+            producer = new GifFrameProducer(key, bitmapPool, decoderFactory.build(decoder, bitmapPool), mainHandler,
+                    decodeService, transformation, targetWidth, targetHeight);
+            if (key != null) {
+                sharedProducers.put(key, producer);
+            }
+        }
+        producer.acquire();
+        return producer;
+    }
+
+    /**
+     * Removes a subscriber from the given producer, clearing the producer if it was the last.
+     */
+    void release(GifFrameProducer producer) {
+        if (producer.release()) {
+            producer.clear();
+            if (producer.getKey() != null) {
+                sharedProducers.remove(producer.getKey());
+            }
+        }
+    }
+
+    /**
+     * Stops the decode thread once any decodes already queued finish. Producers stop decoding new frames afterwards.
+     */
+    public void shutdown() {
+        decodeService.shutdown();
+    }
+
+    // Visible for testing.
+    int getSharedProducerCount() {
+        return sharedProducers.size();
+    }
+
+    private static class DefaultDecoderFactory implements DecoderFactory {
+        @Override
+        public GifDecoder build(GifDecoder subscriberDecoder, BitmapPool bitmapPool) {
+            GifDecoder decoder = new GifDecoder(new GifResourceDecoder.GifBitmapProvider(bitmapPool));
+            decoder.setData(subscriberDecoder.getId(), subscriberDecoder.getHeader(), subscriberDecoder.getData());
+            return decoder;
+        }
+    }
+}
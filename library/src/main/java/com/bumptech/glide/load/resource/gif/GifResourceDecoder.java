@@ -12,13 +12,16 @@ import com.bumptech.glide.load.ResourceDecoder;
 import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
 import com.bumptech.glide.load.resource.UnitTransformation;
+import com.bumptech.glide.util.ByteArrayPool;
+import com.bumptech.glide.util.ByteBufferInputStream;
 import com.bumptech.glide.util.Util;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.UUID;
 
@@ -94,20 +97,43 @@ public class GifResourceDecoder implements ResourceDecoder<InputStream, GifDrawa
     }
 
     private static byte[] inputStreamToBytes(InputStream is) {
-        final int bufferSize = 16384, initialCapacity = bufferSize;
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream(initialCapacity);
+        if (is instanceof ByteBufferInputStream) {
+            // Copy the mapped data once rather than through a growing buffer.
+            return ((ByteBufferInputStream) is).readRemaining();
+        }
+        // Read into pooled fixed size chunks and copy them once into an array of exactly the right size. A growing
+        // ByteArrayOutputStream copies the data on every expansion and again in toByteArray().
+        ByteArrayPool pool = ByteArrayPool.get();
+        List<byte[]> chunks = new ArrayList<byte[]>();
+        int size = 0;
         try {
+            byte[] chunk = pool.getBytes();
+            chunks.add(chunk);
+            int chunkSize = 0;
             int nRead;
-            byte[] data = new byte[bufferSize];
-            while ((nRead = is.read(data, 0, data.length)) != -1) {
-                buffer.write(data, 0, nRead);
+            while ((nRead = is.read(chunk, chunkSize, chunk.length - chunkSize)) != -1) {
+                chunkSize += nRead;
+                size += nRead;
+                if (chunkSize == chunk.length) {
+                    chunk = pool.getBytes();
+                    chunks.add(chunk);
+                    chunkSize = 0;
+                }
             }
-            buffer.flush();
         } catch (IOException e) {
             Log.w(TAG, "Error reading data from stream", e);
         }
+
         //TODO the returned byte[] may be partial if an IOException was thrown from read
-        return buffer.toByteArray();
+        byte[] result = new byte[size];
+        int offset = 0;
+        for (byte[] chunk : chunks) {
+            int toCopy = Math.min(chunk.length, size - offset);
+            System.arraycopy(chunk, 0, result, offset, toCopy);
+            offset += toCopy;
+            pool.releaseBytes(chunk);
+        }
+        return result;
     }
 
     interface GifHeaderParserPool {
@@ -139,7 +165,7 @@ public class GifResourceDecoder implements ResourceDecoder<InputStream, GifDrawa
         }
     }
 
-    private static class GifBitmapProvider implements GifDecoder.BitmapProvider {
+    static class GifBitmapProvider implements GifDecoder.BitmapProvider {
         private BitmapPool bitmapPool;
 
         public GifBitmapProvider(BitmapPool bitmapPool) {
@@ -150,5 +176,12 @@ public class GifResourceDecoder implements ResourceDecoder<InputStream, GifDrawa
         public Bitmap obtain(int width, int height, Bitmap.Config config) {
             return bitmapPool.get(width, height, config);
         }
+
+        @Override
+        public void release(Bitmap bitmap) {
+            if (!bitmapPool.put(bitmap)) {
+                bitmap.recycle();
+            }
+        }
     }
 }
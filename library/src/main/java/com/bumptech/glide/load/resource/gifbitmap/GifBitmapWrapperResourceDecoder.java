@@ -8,6 +8,7 @@ import com.bumptech.glide.load.resource.bitmap.ImageHeaderParser;
 import com.bumptech.glide.load.resource.bitmap.RecyclableBufferedInputStream;
 import com.bumptech.glide.load.resource.gif.GifDrawable;
 import com.bumptech.glide.util.ByteArrayPool;
+import com.bumptech.glide.util.ByteBufferInputStream;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -110,6 +111,10 @@ public class GifBitmapWrapperResourceDecoder implements ResourceDecoder<ImageVid
     private static class DefaultBufferedStreamFactory implements BufferedStreamFactory {
         @Override
         public InputStream build(InputStream is, byte[] buffer) {
+            if (is instanceof ByteBufferInputStream) {
+                // Already supports mark and reset without copying.
+                return is;
+            }
             return new RecyclableBufferedInputStream(is, buffer);
         }
     }
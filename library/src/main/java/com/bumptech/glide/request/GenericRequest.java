@@ -1,6 +1,8 @@
 package com.bumptech.glide.request;
 
 import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.util.Log;
 import com.bumptech.glide.Priority;
@@ -33,8 +35,8 @@ import java.util.Queue;
  * @param <Z> The type of the resource that will be loaded.
  * @param <R> The type of the resource that will be transcoded from the loaded resource.
  */
-public final class GenericRequest<A, T, Z, R> implements Request, SizeReadyCallback,
-        ResourceCallback {
+public final class GenericRequest<A, T, Z, R> implements Request, PrioritizableRequest,
+        SizeReadyCallback, ResourceCallback {
     private static final String TAG = "GenericRequest";
     private static final Queue<GenericRequest<?, ?, ?, ?>> REQUEST_POOL = Util.createQueue(0);
     private static final double TO_MEGABYTE = 1d / (1024d * 1024d);
@@ -70,6 +72,7 @@ public final class GenericRequest<A, T, Z, R> implements Request, SizeReadyCallb
 
     private Drawable placeholderDrawable;
     private Drawable errorDrawable;
+    private Drawable lowResPlaceholder;
     private boolean loadedFromMemoryCache;
     // doing our own type check
     private Resource<?> resource;
@@ -138,6 +141,7 @@ public final class GenericRequest<A, T, Z, R> implements Request, SizeReadyCallb
         target = null;
         placeholderDrawable = null;
         errorDrawable = null;
+        lowResPlaceholder = null;
         requestListener = null;
         requestCoordinator = null;
         transformation = null;
@@ -241,13 +245,15 @@ public final class GenericRequest<A, T, Z, R> implements Request, SizeReadyCallb
         }
 
         status = Status.WAITING_FOR_SIZE;
+        lowResPlaceholder = null;
         if (overrideWidth > 0 && overrideHeight > 0) {
             onSizeReady(overrideWidth, overrideHeight);
         } else {
             target.getSize(this);
         }
 
-        if (!isComplete() && !isFailed()) {
+        // If we've already shown a low resolution placeholder, don't replace it with the default placeholder.
+        if (!isComplete() && !isFailed() && lowResPlaceholder == null) {
             if (canNotifyStatusChanged()) {
                 target.onLoadStarted(getPlaceholderDrawable());
             }
@@ -298,6 +304,17 @@ public final class GenericRequest<A, T, Z, R> implements Request, SizeReadyCallb
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+        if (loadStatus != null) {
+            loadStatus.setPriority(priority);
+        }
+    }
+
     private void releaseResource(Resource resource) {
         engine.release(resource);
         this.resource = null;
@@ -390,11 +407,24 @@ public final class GenericRequest<A, T, Z, R> implements Request, SizeReadyCallb
         loadStatus = engine.load(width, height, cacheDecoder, dataFetcher, sourceEncoder, decoder,
                 transformation, encoder, transcoder, priority, isMemoryCacheable, diskCacheStrategy, this);
         loadedFromMemoryCache = resource != null;
+        if (loadStatus != null) {
+            onLowResPlaceholderReady(loadStatus.getLowResPlaceholder());
+        }
         if (Log.isLoggable(TAG, Log.VERBOSE)) {
             logV("finished onSizeReady in " + LogTime.getElapsedMillis(startTime));
         }
     }
 
+    private void onLowResPlaceholderReady(Bitmap bitmap) {
+        if (bitmap == null || !isRunning()) {
+            return;
+        }
+        lowResPlaceholder = new BitmapDrawable(context.getResources(), bitmap);
+        if (canNotifyStatusChanged()) {
+            target.onLoadStarted(lowResPlaceholder);
+        }
+    }
+
     private boolean canSetResource() {
         return requestCoordinator == null || requestCoordinator.canSetImage(this);
     }
@@ -0,0 +1,18 @@
+package com.bumptech.glide.request;
+
+import com.bumptech.glide.Priority;
+
+/**
+ * An optional interface for {@link com.bumptech.glide.request.Request}s whose priority can be changed after they have
+ * started.
+ */
+public interface PrioritizableRequest {
+
+    /**
+     * Changes the priority of this request, including of any load it is currently waiting on. Can be used to load
+     * requests for views that become visible before requests for views that are no longer visible.
+     *
+     * @param priority The new priority.
+     */
+    public void setPriority(Priority priority);
+}
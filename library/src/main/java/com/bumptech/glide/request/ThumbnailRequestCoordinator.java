@@ -1,10 +1,12 @@
 package com.bumptech.glide.request;
 
+import com.bumptech.glide.Priority;
+
 /**
  * A coordinator that coordinates two individual {@link Request}s that load a small thumbnail version of an image and
  * the full size version of the image at the same time.
  */
-public class ThumbnailRequestCoordinator implements RequestCoordinator, Request {
+public class ThumbnailRequestCoordinator implements RequestCoordinator, Request, PrioritizableRequest {
     private Request full;
     private Request thumb;
 
@@ -90,6 +92,39 @@ public class ThumbnailRequestCoordinator implements RequestCoordinator, Request
         return full.isFailed();
     }
 
+    /**
+     * Sets the given priority on the full request and a priority one level higher on the thumb request so that the
+     * thumbnail still starts first, as it does when the requests are built. Requests that don't implement
+     * {@link com.bumptech.glide.request.PrioritizableRequest} are left unchanged.
+     */
+    @Override
+    public void setPriority(Priority priority) {
+        if (full instanceof PrioritizableRequest) {
+            ((PrioritizableRequest) full).setPriority(priority);
+        }
+        if (thumb instanceof PrioritizableRequest) {
+            ((PrioritizableRequest) thumb).setPriority(getThumbnailPriority(priority));
+        }
+    }
+
+    /**
+     * Returns the priority of a thumbnail request for a full request with the given priority, one step higher so
+     * that the thumbnail is shown before the full request finishes.
+     *
+     * @param priority The priority of the full request.
+     */
+    public static Priority getThumbnailPriority(Priority priority) {
+        final Priority result;
+        if (priority == Priority.LOW) {
+            result = Priority.NORMAL;
+        } else if (priority == Priority.NORMAL) {
+            result = Priority.HIGH;
+        } else {
+            result = Priority.IMMEDIATE;
+        }
+        return result;
+    }
+
     /**
      * {@inheritDoc}.
      */
@@ -0,0 +1,119 @@
+package com.bumptech.glide.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An {@link java.io.InputStream} that reads from a {@link java.nio.ByteBuffer}, typically a memory mapped file.
+ *
+ * <p>
+ *     Reads never block or throw and {@link #mark(int)} is supported without any limit, so there is no need to wrap
+ *     this stream in a buffered stream, which would only copy the data into another heap buffer. Not thread safe.
+ * </p>
+ */
+public class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+    private int markPosition = -1;
+
+    /**
+     * Returns a stream that reads from a read only memory mapping of the given file. The mapping remains valid after
+     * the file is closed or deleted.
+     *
+     * @param file The file to map.
+     * @throws IOException If the file can't be opened or mapped.
+     */
+    public static ByteBufferInputStream fromFile(File file) throws IOException {
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            FileChannel channel = raf.getChannel();
+            return new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            if (raf != null) {
+                try {
+                    raf.close();
+                } catch (IOException e) {
+                    // Do nothing.
+                }
+            }
+        }
+    }
+
+    /**
+     * Constructor for ByteBufferInputStream that reads from the given buffer's position to its limit without
+     * modifying the buffer's position.
+     *
+     * @param buffer The buffer to read from.
+     */
+    public ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate();
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public int read() {
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int byteOffset, int byteCount) {
+        if (byteCount == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        int toRead = Math.min(byteCount, buffer.remaining());
+        buffer.get(bytes, byteOffset, toRead);
+        return toRead;
+    }
+
+    @Override
+    public long skip(long byteCount) {
+        if (byteCount <= 0) {
+            return 0;
+        }
+        int toSkip = (int) Math.min(byteCount, buffer.remaining());
+        buffer.position(buffer.position() + toSkip);
+        return toSkip;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public void mark(int readLimit) {
+        // The whole buffer is always available, so the limit doesn't matter.
+        markPosition = buffer.position();
+    }
+
+    @Override
+    public void reset() throws IOException {
+        if (markPosition == -1) {
+            throw new IOException("Cannot reset to unset mark position");
+        }
+        buffer.position(markPosition);
+    }
+
+    /**
+     * Returns a new array containing all of the remaining data in this stream and moves to the end of the stream.
+     */
+    public byte[] readRemaining() {
+        byte[] result = new byte[buffer.remaining()];
+        buffer.get(result);
+        return result;
+    }
+}
@@ -0,0 +1,93 @@
+package com.bumptech.glide.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An {@link java.io.InputStream} that stops reading from a wrapped {@link java.io.InputStream} once a load is
+ * cancelled by throwing an {@link java.io.IOException} from read and skip calls.
+ *
+ * <p>
+ *     Decoders already treat read failures as errors, so wrapping the stream they read from lets a cancelled load
+ *     stop in the middle of a download or decode instead of finishing work whose result will be thrown away.
+ * </p>
+ *
+ * <p>
+ *     No method is synchronized, each call is passed straight to the wrapped stream, which provides whatever thread
+ *     safety it has. Only the {@link CancellationToken} is expected to be read from other threads.
+ * </p>
+ */
+public class CancellableInputStream extends InputStream {
+    private final InputStream wrapped;
+    private final CancellationToken token;
+
+    /**
+     * Indicates whether or not the load reading from a {@link CancellableInputStream} has been cancelled.
+     */
+    public interface CancellationToken {
+        /**
+         * Returns true if reads should stop, may be called from any thread.
+         */
+        boolean isCancelled();
+    }
+
+    public CancellableInputStream(InputStream toWrap, CancellationToken token) {
+        this.wrapped = toWrap;
+        this.token = token;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return wrapped.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        wrapped.close();
+    }
+
+    @Override
+    public void mark(int readlimit) {
+        wrapped.mark(readlimit);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return wrapped.markSupported();
+    }
+
+    @Override
+    public int read() throws IOException {
+        throwIfCancelled();
+        return wrapped.read();
+    }
+
+    @Override
+    public int read(byte[] buffer) throws IOException {
+        throwIfCancelled();
+        return wrapped.read(buffer);
+    }
+
+    @Override
+    public int read(byte[] buffer, int byteOffset, int byteCount) throws IOException {
+        throwIfCancelled();
+        return wrapped.read(buffer, byteOffset, byteCount);
+    }
+
+    @Override
+    public void reset() throws IOException {
+        wrapped.reset();
+    }
+
+    @Override
+    public long skip(long byteCount) throws IOException {
+        throwIfCancelled();
+        return wrapped.skip(byteCount);
+    }
+
+    private void throwIfCancelled() throws IOException {
+        if (token.isCancelled()) {
+            throw new IOException("Load was cancelled");
+        }
+    }
+}
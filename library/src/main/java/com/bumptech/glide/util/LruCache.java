@@ -61,6 +61,13 @@ public class LruCache<T, Y> {
         // optional override
     }
 
+    /**
+     * Returns the current maximum size of the cache, including any size multiplier.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
     /**
      * Returns the sum of the sizes of all items in the cache.
      */
@@ -0,0 +1,136 @@
+package com.bumptech.glide.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * An {@link java.io.InputStream} that copies every byte read from a wrapped {@link java.io.InputStream} into an
+ * {@link java.io.OutputStream} so that data can be decoded and written somewhere else, like a disk cache, at the same
+ * time.
+ *
+ * <p>
+ *     Mark and reset are not supported, callers that need them must buffer this stream, which also ensures each byte
+ *     is only copied once. Failures to write to the {@link java.io.OutputStream} stop copying but do not interrupt
+ *     reads. Failures to read from the wrapped stream are thrown as usual but are also recorded so that incomplete
+ *     copies can be detected even if the reader ignores them.
+ * </p>
+ */
+public class TeeInputStream extends InputStream {
+    private final InputStream wrapped;
+    private final OutputStream copy;
+    private IOException readException;
+    private IOException writeException;
+
+    public TeeInputStream(InputStream toWrap, OutputStream copy) {
+        this.wrapped = toWrap;
+        this.copy = copy;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return wrapped.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        wrapped.close();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int result;
+        try {
+            result = wrapped.read();
+        } catch (IOException e) {
+            readException = e;
+            throw e;
+        }
+        if (result != -1 && writeException == null) {
+            try {
+                copy.write(result);
+            } catch (IOException e) {
+                writeException = e;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int read(byte[] buffer) throws IOException {
+        return read(buffer, 0, buffer.length);
+    }
+
+    @Override
+    public int read(byte[] buffer, int byteOffset, int byteCount) throws IOException {
+        final int read;
+        try {
+            read = wrapped.read(buffer, byteOffset, byteCount);
+        } catch (IOException e) {
+            readException = e;
+            throw e;
+        }
+        if (read > 0 && writeException == null) {
+            try {
+                copy.write(buffer, byteOffset, read);
+            } catch (IOException e) {
+                writeException = e;
+            }
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long byteCount) throws IOException {
+        // Skipped bytes must still be copied.
+        byte[] buffer = ByteArrayPool.get().getBytes();
+        try {
+            long skipped = 0;
+            while (skipped < byteCount) {
+                int read = read(buffer, 0, (int) Math.min(buffer.length, byteCount - skipped));
+                if (read == -1) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        } finally {
+            ByteArrayPool.get().releaseBytes(buffer);
+        }
+    }
+
+    /**
+     * Reads and copies any remaining data from the wrapped stream.
+     *
+     * @throws IOException If the wrapped stream throws while reading.
+     */
+    public void drain() throws IOException {
+        byte[] buffer = ByteArrayPool.get().getBytes();
+        try {
+            while (read(buffer, 0, buffer.length) != -1) {
+                // Keep reading.
+            }
+        } finally {
+            ByteArrayPool.get().releaseBytes(buffer);
+        }
+    }
+
+    /**
+     * Returns the exception thrown by the wrapped stream while reading, or null if no exception was thrown.
+     */
+    public IOException getReadException() {
+        return readException;
+    }
+
+    /**
+     * Returns true if every byte read so far was read and copied successfully.
+     */
+    public boolean isCopyComplete() {
+        return readException == null && writeException == null;
+    }
+}
@@ -5,6 +5,7 @@ import android.graphics.Bitmap;
 import android.os.Build;
 import android.os.Looper;
 
+import java.security.MessageDigest;
 import java.util.ArrayDeque;
 import java.util.LinkedList;
 import java.util.Queue;
@@ -15,16 +16,87 @@ import java.util.Queue;
 public class Util {
     private static final char[] HEX_CHAR_ARRAY = "0123456789abcdef".toCharArray();
     // 32 bytes from sha-256 -> 64 hex chars.
-    private static final char[] SHA_256_CHARS = new char[64];
+    private static final int SHA_256_CHAR_COUNT = 64;
     // 20 bytes from sha-1 -> 40 chars.
-    private static final char[] SHA_1_CHARS = new char[40];
+    private static final int SHA_1_CHAR_COUNT = 40;
+    // Large enough for most ids, longer strings are written in multiple chunks.
+    private static final int DIGEST_BUFFER_SIZE = 256;
+    // The largest number of bytes a single char can be encoded to in UTF-8 (half of a surrogate pair is encoded as
+    // part of a four byte sequence).
+    private static final int MAX_UTF_8_BYTES_PER_CHAR = 4;
+    private static final ThreadLocal<byte[]> DIGEST_BUFFER = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[DIGEST_BUFFER_SIZE];
+        }
+    };
 
     public static String sha256BytesToHex(byte[] bytes) {
-        return bytesToHex(bytes, SHA_256_CHARS);
+        // Not shared between calls so that keys can be generated on multiple threads at once.
+        return bytesToHex(bytes, new char[SHA_256_CHAR_COUNT]);
     }
 
     public static String sha1BytesToHex(byte[] bytes) {
-        return bytesToHex(bytes, SHA_1_CHARS);
+        return bytesToHex(bytes, new char[SHA_1_CHAR_COUNT]);
+    }
+
+    /**
+     * Updates the given {@link java.security.MessageDigest} with exactly the same bytes as
+     * {@code value.getBytes("UTF-8")} without allocating a new array.
+     *
+     * @param messageDigest The digest to update.
+     * @param value The String to encode.
+     */
+    public static void updateDigestUtf8(MessageDigest messageDigest, String value) {
+        final byte[] buffer = DIGEST_BUFFER.get();
+        final int length = value.length();
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (count > buffer.length - MAX_UTF_8_BYTES_PER_CHAR) {
+                messageDigest.update(buffer, 0, count);
+                count = 0;
+            }
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[count++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[count++] = (byte) (0xC0 | (c >> 6));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                // Matches the replacement String#getBytes uses for malformed input.
+                buffer[count++] = (byte) '?';
+            } else {
+                buffer[count++] = (byte) (0xE0 | (c >> 12));
+                buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        if (count > 0) {
+            messageDigest.update(buffer, 0, count);
+        }
+    }
+
+    /**
+     * Updates the given {@link java.security.MessageDigest} with the four big endian bytes of the given int without
+     * allocating a new array.
+     *
+     * @param messageDigest The digest to update.
+     * @param value The int to encode.
+     */
+    public static void updateDigest(MessageDigest messageDigest, int value) {
+        final byte[] buffer = DIGEST_BUFFER.get();
+        buffer[0] = (byte) (value >>> 24);
+        buffer[1] = (byte) (value >>> 16);
+        buffer[2] = (byte) (value >>> 8);
+        buffer[3] = (byte) value;
+        messageDigest.update(buffer, 0, 4);
     }
 
     // Taken from:
@@ -51,6 +123,40 @@ public class Util {
         }
     }
 
+    /**
+     * Returns the in memory size of a {@link Bitmap} with the given dimensions and config.
+     *
+     * @param width The width in pixels.
+     * @param height The height in pixels.
+     * @param config The {@link android.graphics.Bitmap.Config}, or null if it is not known.
+     */
+    public static int getBitmapByteSize(int width, int height, Bitmap.Config config) {
+        return width * height * getBytesPerPixel(config);
+    }
+
+    private static int getBytesPerPixel(Bitmap.Config config) {
+        // a bitmap by decoding a gif has null "config" in certain environments.
+        if (config == null) {
+            return 4;
+        }
+
+        switch (config) {
+            case ARGB_8888:
+                return 4;
+            case RGB_565:
+                return 2;
+            case ARGB_4444:
+                return 2;
+            case ALPHA_8:
+                return 1;
+            default:
+                // We only use this to calculate sizes to get, so choosing 4 bytes per pixel is conservative and
+                // probably forces us to get a larger bitmap than we really need. Since we can't tell for sure, probably
+                // better safe than sorry.
+                return 4;
+        }
+    }
+
     public static void assertMainThread() {
         if (!isOnMainThread()) {
             throw new IllegalArgumentException("You must call this method on the main thread");
@@ -25,15 +25,19 @@ package com.bumptech.glide.gifdecoder;
  */
 
 import android.graphics.Bitmap;
-import android.graphics.Color;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
 import android.util.Log;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * Reads frame data from a GIF image source and decodes it into individual frames
@@ -71,6 +75,10 @@ public class GifDecoder {
      * max decoder pixel stack size.
      */
     private static final int MAX_STACK_SIZE = 4096;
+    /**
+     * The size of the chunks used to read streams of unknown length.
+     */
+    private static final int STREAM_CHUNK_SIZE = 16384;
 
     /**
      * GIF Disposal Method meaning take no action.
@@ -88,6 +96,11 @@ public class GifDecoder {
      * GIF Disposal Method meaning clear canvas to frame before last.
      */
     private static final int DISPOSAL_PREVIOUS = 3;
+    // Replaces the pixels of reused Bitmaps rather than blending with them.
+    private static final Paint COPY_PAINT = new Paint();
+    static {
+        COPY_PAINT.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC));
+    }
 
     // Global File Header values and parsing flags.
     // Active color table.
@@ -96,8 +109,6 @@ public class GifDecoder {
     // Raw GIF data from input source.
     private ByteBuffer rawData;
 
-    // Raw data read working array.
-    private byte[] block = new byte[256];
     // LZW decoder working arrays.
     private short[] prefix;
     private byte[] suffix;
@@ -111,8 +122,14 @@ public class GifDecoder {
     private String id;
     private BitmapProvider bitmapProvider;
     private GifHeaderParser parser = new GifHeaderParser();
-    private Bitmap previousImage;
-    private boolean savePrevious;
+    // The composited canvas, only the pixels that change are written each frame. Null after a frame that covered the
+    // whole canvas, which returns the canvas itself rather than a copy.
+    private Bitmap canvasImage;
+    // Reused to copy canvasImage into each returned frame.
+    private Canvas copyCanvas;
+    // The pixels covered by savedFrame before it was drawn, used to dispose frames with DISPOSAL_PREVIOUS.
+    private int[] savedPixels;
+    private GifFrame savedFrame;
 
     /**
      * An interface that can be used to provide reused {@link android.graphics.Bitmap}s to avoid GCs from constantly
@@ -128,6 +145,13 @@ public class GifDecoder {
          * @param config The {@link android.graphics.Bitmap.Config} of the desired {@link android.graphics.Bitmap}.
          */
         public Bitmap obtain(int width, int height, Bitmap.Config config);
+
+        /**
+         * Releases the given Bitmap back to the pool once the decoder no longer needs it.
+         *
+         * @param bitmap The {@link android.graphics.Bitmap} to release.
+         */
+        public void release(Bitmap bitmap);
     }
 
     public GifDecoder(BitmapProvider provider) {
@@ -151,6 +175,10 @@ public class GifDecoder {
         return data;
     }
 
+    public GifHeader getHeader() {
+        return header;
+    }
+
     /**
      * Move the animation frame counter forward.
      */
@@ -269,16 +297,7 @@ public class GifDecoder {
     public int read(InputStream is, int contentLength) {
         if (is != null) {
             try {
-                int capacity = (contentLength > 0) ? (contentLength + 4096) : 16384;
-                ByteArrayOutputStream buffer = new ByteArrayOutputStream(capacity);
-                int nRead;
-                byte[] data = new byte[16384];
-                while ((nRead = is.read(data, 0, data.length)) != -1) {
-                    buffer.write(data, 0, nRead);
-                }
-                buffer.flush();
-
-                read(buffer.toByteArray());
+                read(readFully(is, contentLength));
             } catch (IOException e) {
                 Log.w(TAG, "Error reading data from stream", e);
             }
@@ -297,6 +316,51 @@ public class GifDecoder {
         return header.status;
     }
 
+    /**
+     * Reads the rest of the given stream into an array of exactly the stream's length.
+     *
+     * <p>
+     *     If the content length is correct, the data is read directly into the returned array without any copies.
+     *     Otherwise the data is read into fixed size chunks that are copied once into the returned array.
+     * </p>
+     */
+    private static byte[] readFully(InputStream is, int contentLength) throws IOException {
+        List<byte[]> chunks = new ArrayList<byte[]>();
+        byte[] chunk = new byte[contentLength > 0 ? contentLength : STREAM_CHUNK_SIZE];
+        chunks.add(chunk);
+        int chunkSize = 0;
+        int size = 0;
+        int nRead;
+        while ((nRead = is.read(chunk, chunkSize, chunk.length - chunkSize)) != -1) {
+            chunkSize += nRead;
+            size += nRead;
+            if (chunkSize == chunk.length) {
+                // Only allocate another chunk if there is more data, so a correct content length needs no copies.
+                int next = is.read();
+                if (next == -1) {
+                    break;
+                }
+                chunk = new byte[STREAM_CHUNK_SIZE];
+                chunks.add(chunk);
+                chunk[0] = (byte) next;
+                chunkSize = 1;
+                size++;
+            }
+        }
+
+        if (chunks.size() == 1 && size == chunks.get(0).length) {
+            return chunks.get(0);
+        }
+        byte[] result = new byte[size];
+        int offset = 0;
+        for (byte[] current : chunks) {
+            int toCopy = Math.min(current.length, size - offset);
+            System.arraycopy(current, 0, result, offset, toCopy);
+            offset += toCopy;
+        }
+        return result;
+    }
+
     public void setData(String id, GifHeader header, byte[] data) {
         this.id = id;
         this.header = header;
@@ -306,18 +370,33 @@ public class GifDecoder {
         rawData.rewind();
         rawData.order(ByteOrder.LITTLE_ENDIAN);
 
-        // No point in specially saving an old frame if we're never going to use it.
-        savePrevious = false;
-        for (GifFrame frame : header.frames) {
-            if (frame.dispose == DISPOSAL_PREVIOUS) {
-                savePrevious = true;
-                break;
-            }
-        }
 
         // Now that we know the size, init scratch arrays.
-        mainPixels = new byte[header.width * header.height];
-        mainScratch = new int[header.width * header.height];
+        resetCanvas();
+    }
+
+    private void resetCanvas() {
+        // Allocated on the first decode so that decoders that are never advanced, for example because the frames are
+        // shared with another decoder for the same image, stay cheap.
+        mainPixels = null;
+        mainScratch = null;
+        // The canvas may be a different size or config and nothing drawn on it belongs to the new image.
+        if (canvasImage != null) {
+            bitmapProvider.release(canvasImage);
+        }
+        canvasImage = null;
+        // Drops the reference to the last frame drawn into.
+        copyCanvas = null;
+        savedFrame = null;
+    }
+
+    /**
+     * Releases the canvas and scratch buffers used to decode frames. The decoder can still be used, the next call to
+     * {@link #advance()} restarts the animation from the first frame.
+     */
+    public void clear() {
+        resetCanvas();
+        framePointer = -1;
     }
 
     /**
@@ -336,17 +415,8 @@ public class GifDecoder {
             rawData.order(ByteOrder.LITTLE_ENDIAN);
 
             // Now that we know the size, init scratch arrays.
-            mainPixels = new byte[header.width * header.height];
-            mainScratch = new int[header.width * header.height];
-
-            // No point in specially saving an old frame if we're never going to use it.
-            savePrevious = false;
-            for (GifFrame frame : header.frames) {
-                if (frame.dispose == DISPOSAL_PREVIOUS) {
-                    savePrevious = true;
-                    break;
-                }
-            }
+            resetCanvas();
+
         }
 
         return header.status;
@@ -354,6 +424,14 @@ public class GifDecoder {
 
     /**
      * Creates new frame image from current data (and previous frames as specified by their disposition codes).
+     *
+     * <p>
+     *     The composited canvas is kept in mainScratch and canvasImage between frames. Only the area disposed by the
+     *     previous frame and the area drawn by the current frame are updated. The returned frame is a full native copy
+     *     of canvasImage because frames are displayed while the following frames are drawn on the canvas. Frames
+     *     that change the whole canvas are written straight into canvasImage, which is then returned rather than
+     *     copied, and a new canvas is only made when a later frame changes part of the canvas.
+     * </p>
      */
     private Bitmap setPixels(int frameIndex) {
         GifFrame currentFrame = header.frames.get(frameIndex);
@@ -366,23 +444,60 @@ public class GifDecoder {
         int height = header.height;
 
         // Final location of blended pixels.
+        final boolean isScratchEmpty = mainScratch == null;
+        if (isScratchEmpty) {
+            mainScratch = new int[width * height];
+        }
         final int[] dest = mainScratch;
 
+        // The area of the canvas that changes in this frame.
+        int dirtyLeft = Math.min(currentFrame.ix, width);
+        int dirtyTop = Math.min(currentFrame.iy, height);
+        int dirtyRight = Math.min(currentFrame.ix + currentFrame.iw, width);
+        int dirtyBottom = Math.min(currentFrame.iy + currentFrame.ih, height);
+
         // fill in starting image contents based on last image's dispose code
-        if (previousFrame != null && previousFrame.dispose > DISPOSAL_UNSPECIFIED) {
+        if (previousFrame == null) {
+            // Starting or restarting the animation, nothing drawn by the last frame may carry over.
+            if (!isScratchEmpty) {
+                Arrays.fill(dest, 0);
+            }
+            dirtyLeft = 0;
+            dirtyTop = 0;
+            dirtyRight = width;
+            dirtyBottom = height;
+        } else if (previousFrame.dispose == DISPOSAL_BACKGROUND
+                || (previousFrame.dispose == DISPOSAL_PREVIOUS && savedFrame == previousFrame)) {
             // We don't need to do anything for DISPOSAL_NONE, if it has the correct pixels so will our mainScratch
-            // and therefore so will our dest array.
+            // and therefore so will our dest array. Otherwise only the area drawn by the previous frame is disposed.
+            int left = Math.min(previousFrame.ix, width);
+            int top = Math.min(previousFrame.iy, height);
+            int right = Math.min(previousFrame.ix + previousFrame.iw, width);
+            int bottom = Math.min(previousFrame.iy + previousFrame.ih, height);
             if (previousFrame.dispose == DISPOSAL_BACKGROUND) {
-                // Start with a canvas filled with the background color
+                // Start with the previous frame's area filled with the background color
                 int c = 0;
                 if (!currentFrame.transparency) {
                     c = header.bgColor;
                 }
-                Arrays.fill(dest, c);
-            } else if (previousFrame.dispose == DISPOSAL_PREVIOUS && previousImage != null) {
-                // Start with the previous frame
-                previousImage.getPixels(dest, 0, width, 0, 0, width, height);
+                for (int y = top; y < bottom; y++) {
+                    Arrays.fill(dest, y * width + left, y * width + right, c);
+                }
+            } else {
+                // Start with the previous frame's area as it was before the previous frame was drawn.
+                int rowWidth = right - left;
+                for (int y = top; y < bottom; y++) {
+                    System.arraycopy(savedPixels, (y - top) * rowWidth, dest, y * width + left, rowWidth);
+                }
             }
+            dirtyLeft = Math.min(dirtyLeft, left);
+            dirtyTop = Math.min(dirtyTop, top);
+            dirtyRight = Math.max(dirtyRight, right);
+            dirtyBottom = Math.max(dirtyBottom, bottom);
+        }
+
+        if (currentFrame.dispose == DISPOSAL_PREVIOUS) {
+            savePixels(currentFrame);
         }
 
         // Decode pixels for this frame  into the global pixels[] scratch.
@@ -441,22 +556,65 @@ public class GifDecoder {
             }
         }
 
-        //Copy pixels into previous image
-        if (savePrevious && currentFrame.dispose == DISPOSAL_UNSPECIFIED || currentFrame.dispose == DISPOSAL_NONE) {
-            if (previousImage == null) {
-                previousImage = getNextBitmap();
-                previousImage.setPixels(dest, 0, width, 0, 0, width, height);
-            }
+        if (dirtyLeft == 0 && dirtyTop == 0 && dirtyRight == width && dirtyBottom == height) {
+            // Nothing on the canvas carries over, so rather than copying it the canvas is handed over as the frame.
+            Bitmap result = canvasImage != null ? canvasImage : getNextBitmap();
+            canvasImage = null;
+            result.setPixels(dest, 0, width, 0, 0, width, height);
+            return result;
+        }
+
+        // Copy only the changed pixels into the canvas.
+        if (canvasImage == null) {
+            canvasImage = getNextBitmap();
+            dirtyLeft = 0;
+            dirtyTop = 0;
+            dirtyRight = width;
+            dirtyBottom = height;
+        }
+        if (dirtyRight > dirtyLeft && dirtyBottom > dirtyTop) {
+            canvasImage.setPixels(dest, dirtyTop * width + dirtyLeft, width, dirtyLeft, dirtyTop,
+                    dirtyRight - dirtyLeft, dirtyBottom - dirtyTop);
         }
 
         // Set pixels for current image.
         Bitmap result = getNextBitmap();
-        result.setPixels(dest, 0, width, 0, 0, width, height);
+        if (copyCanvas == null) {
+            copyCanvas = new Canvas();
+        }
+        copyCanvas.setBitmap(result);
+        copyCanvas.drawBitmap(canvasImage, 0, 0, COPY_PAINT);
         return result;
     }
 
+    /**
+     * Saves the area of the canvas the given frame is about to draw over so it can be restored when the frame is
+     * disposed.
+     */
+    private void savePixels(GifFrame frame) {
+        int width = header.width;
+        int left = Math.min(frame.ix, width);
+        int top = Math.min(frame.iy, header.height);
+        int rowWidth = Math.min(frame.ix + frame.iw, width) - left;
+        int bottom = Math.min(frame.iy + frame.ih, header.height);
+        int size = rowWidth * (bottom - top);
+        if (savedPixels == null || savedPixels.length < size) {
+            savedPixels = new int[size];
+        }
+        for (int y = top; y < bottom; y++) {
+            System.arraycopy(mainScratch, y * width + left, savedPixels, (y - top) * rowWidth, rowWidth);
+        }
+        savedFrame = frame;
+    }
+
     /**
      * Decodes LZW image data into pixel array. Adapted from John Cristy's BitmapMagick.
+     *
+     * <p>
+     *     Codes are read directly from the array backing rawData rather than copying each sub-block, as many whole
+     *     bytes as fit are loaded into the bit buffer at once, and each decoded string is copied out of the pixel stack
+     *     in a single pass.
+     * </p>
      */
     private void decodeBitmapData(GifFrame frame) {
         if (frame != null) {
@@ -466,8 +624,8 @@ public class GifDecoder {
 
         int nullCode = -1;
         int npix = (frame == null) ? header.width * header.height : frame.iw * frame.ih;
-        int available, clear, codeMask, codeSize, endOfInformation, inCode, oldCode, bits, code, count, i, datum,
-                dataSize, first, top, bi, pi;
+        int available, clear, codeMask, codeSize, endOfInformation, inCode, oldCode, bits, code, count, datum,
+                dataSize, first, top, pi;
 
         if (mainPixels == null || mainPixels.length < npix) {
             // Allocate new pixel array.
@@ -482,9 +640,22 @@ public class GifDecoder {
         if (pixelStack == null) {
             pixelStack = new byte[MAX_STACK_SIZE + 1];
         }
+        // Local copies so the fields aren't read on every pixel.
+        final byte[] pixels = mainPixels;
+        final short[] prefix = this.prefix;
+        final byte[] suffix = this.suffix;
+        final byte[] pixelStack = this.pixelStack;
+        final byte[] source = rawData.array();
+        final int limit = rawData.arrayOffset() + rawData.limit();
+        int position = rawData.arrayOffset() + rawData.position();
 
         // Initialize GIF data stream decoder.
-        dataSize = read();
+        if (position >= limit) {
+            header.status = STATUS_FORMAT_ERROR;
+            dataSize = 0;
+        } else {
+            dataSize = source[position++] & 0xff;
+        }
         clear = 1 << dataSize;
         endOfInformation = clear + 1;
         available = clear + 2;
@@ -498,47 +669,56 @@ public class GifDecoder {
         }
 
         // Decode GIF pixel stream.
-        datum = bits = count = first = top = pi = bi = 0;
-        for (i = 0; i < npix; ) {
-            if (top == 0) {
-                if (bits < codeSize) {
-                    // Load bytes until there are enough bits for a code.
+        datum = bits = count = first = pi = 0;
+        while (pi < npix) {
+            if (bits < codeSize) {
+                if (count == 0) {
+                    // Start a new data block.
+                    if (position >= limit) {
+                        header.status = STATUS_FORMAT_ERROR;
+                        break;
+                    }
+                    count = source[position++] & 0xff;
                     if (count == 0) {
-                        // Read a new data block.
-                        count = readBlock();
-                        if (count <= 0) {
-                            break;
-                        }
-                        bi = 0;
+                        break;
+                    }
+                    if (position + count > limit) {
+                        header.status = STATUS_FORMAT_ERROR;
+                        break;
                     }
-                    datum += (((int) block[bi]) & 0xff) << bits;
+                }
+                // Load as many whole bytes from the current block as fit in the bit buffer.
+                do {
+                    datum |= (source[position++] & 0xff) << bits;
                     bits += 8;
-                    bi++;
                     count--;
+                } while (bits <= 24 && count > 0);
+                if (bits < codeSize) {
                     continue;
                 }
-                // Get the next code.
-                code = datum & codeMask;
-                datum >>= codeSize;
-                bits -= codeSize;
-                // Interpret the code.
-                if ((code > available) || (code == endOfInformation)) {
-                    break;
-                }
-                if (code == clear) {
-                    // Reset decoder.
-                    codeSize = dataSize + 1;
-                    codeMask = (1 << codeSize) - 1;
-                    available = clear + 2;
-                    oldCode = nullCode;
-                    continue;
-                }
-                if (oldCode == nullCode) {
-                    pixelStack[top++] = suffix[code];
-                    oldCode = code;
-                    first = code;
-                    continue;
-                }
+            }
+            // Get the next code.
+            code = datum & codeMask;
+            datum >>>= codeSize;
+            bits -= codeSize;
+            // Interpret the code.
+            if ((code > available) || (code == endOfInformation)) {
+                break;
+            }
+            if (code == clear) {
+                // Reset decoder.
+                codeSize = dataSize + 1;
+                codeMask = (1 << codeSize) - 1;
+                available = clear + 2;
+                oldCode = nullCode;
+                continue;
+            }
+            top = 0;
+            if (oldCode == nullCode) {
+                pixelStack[top++] = suffix[code];
+                oldCode = code;
+                first = code;
+            } else {
                 inCode = code;
                 if (code == available) {
                     pixelStack[top++] = (byte) first;
@@ -563,64 +743,24 @@ public class GifDecoder {
                 }
                 oldCode = inCode;
             }
-            // Pop a pixel off the pixel stack.
-            top--;
-            mainPixels[pi++] = pixelStack[top];
-            i++;
+            // Copy the decoded string, which is on the stack in reverse order, dropping any pixels past the end.
+            int end = Math.max(0, top - (npix - pi));
+            while (top > end) {
+                pixels[pi++] = pixelStack[--top];
+            }
         }
+        rawData.position(position - rawData.arrayOffset());
 
         // Clear missing pixels.
-        for (i = pi; i < npix; i++) {
-            mainPixels[i] = 0;
-        }
-    }
-
-    /**
-     * Reads a single byte from the input stream.
-     */
-    private int read() {
-        int curByte = 0;
-        try {
-            curByte = rawData.get() & 0xFF;
-        } catch (Exception e) {
-            header.status = STATUS_FORMAT_ERROR;
-        }
-        return curByte;
-    }
-
-    /**
-     * Reads next variable length block from input.
-     *
-     * @return number of bytes stored in "buffer".
-     */
-    private int readBlock() {
-        int blockSize = read();
-        int n = 0;
-        if (blockSize > 0) {
-            try {
-                int count;
-                while (n < blockSize) {
-                    count = blockSize - n;
-                    rawData.get(block, n, count);
-
-                    n += count;
-                }
-            } catch (Exception e) {
-                Log.w(TAG, "Error Reading Block", e);
-                header.status = STATUS_FORMAT_ERROR;
-            }
-        }
-        return n;
+        Arrays.fill(pixels, pi, npix, (byte) 0);
     }
 
     private Bitmap getNextBitmap() {
         Bitmap.Config targetConfig = header.isTransparent ? Bitmap.Config.ARGB_8888 : Bitmap.Config.RGB_565;
         Bitmap result = bitmapProvider.obtain(header.width, header.height, targetConfig);
+        // Reused bitmaps don't need to be erased, every pixel is replaced before they are returned.
         if (result == null) {
             result = Bitmap.createBitmap(header.width, header.height, targetConfig);
-        } else {
-            // If we're reusing a bitmap it may have other things drawn in it which we need to remove.
-            result.eraseColor(Color.TRANSPARENT);
         }
         return result;
     }